@@ -0,0 +1,184 @@
+package com.dotlinea.soulecho.audio;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * IMA ADPCM 编解码器（16bit 单声道）
+ * <p>
+ * 用于压缩 WebSocket 上的语音传输，码率约为原始 PCM 的 1/4。
+ * 每个 WebSocket 二进制消息是一个独立的数据块，不依赖前一个块的解码状态，
+ * 因此丢包或乱序不会导致后续音频解码错乱。
+ * </p>
+ * <p>
+ * 数据块格式（小端）：
+ * <ul>
+ * <li>字节 0-1：第一个采样值（int16）</li>
+ * <li>字节 2：初始步长索引（0-88）</li>
+ * <li>字节 3：末尾填充标志（1 表示最后一个半字节为填充）</li>
+ * <li>字节 4..：后续采样的 4bit 编码，每字节低半字节在前</li>
+ * </ul>
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ImaAdpcmCodec {
+
+    /**
+     * 数据块头长度（字节）
+     */
+    public static final int HEADER_SIZE = 4;
+
+    private static final int[] INDEX_TABLE = {
+        -1, -1, -1, -1, 2, 4, 6, 8,
+        -1, -1, -1, -1, 2, 4, 6, 8
+    };
+
+    private static final int[] STEP_TABLE = {
+        7, 8, 9, 10, 11, 12, 13, 14, 16, 17,
+        19, 21, 23, 25, 28, 31, 34, 37, 41, 45,
+        50, 55, 60, 66, 73, 80, 88, 97, 107, 118,
+        130, 143, 157, 173, 190, 209, 230, 253, 279, 307,
+        337, 371, 408, 449, 494, 544, 598, 658, 724, 796,
+        876, 963, 1060, 1166, 1282, 1411, 1552, 1707, 1878, 2066,
+        2272, 2499, 2749, 3024, 3327, 3660, 4026, 4428, 4871, 5358,
+        5894, 6484, 7132, 7845, 8630, 9493, 10442, 11487, 12635, 13899,
+        15289, 16818, 18500, 20350, 22385, 24623, 27086, 29794, 32767
+    };
+
+    /**
+     * 将 16bit 小端 PCM 编码为一个 ADPCM 数据块
+     *
+     * @param pcm    PCM 数据
+     * @param offset 起始偏移
+     * @param length 字节长度（奇数时忽略最后一个字节）
+     * @return ADPCM 数据块，PCM 为空时返回空数组
+     */
+    public static byte[] encode(byte[] pcm, int offset, int length) {
+        int sampleCount = length / 2;
+        if (sampleCount == 0) {
+            return new byte[0];
+        }
+
+        int nibbleCount = sampleCount - 1;
+        byte[] out = new byte[HEADER_SIZE + (nibbleCount + 1) / 2];
+
+        int predictor = readSample(pcm, offset);
+        int index = 0;
+        out[0] = (byte) predictor;
+        out[1] = (byte) (predictor >> 8);
+        out[2] = (byte) index;
+        out[3] = (byte) (nibbleCount % 2);
+
+        for (int i = 0; i < nibbleCount; i++) {
+            int sample = readSample(pcm, offset + (i + 1) * 2);
+            int step = STEP_TABLE[index];
+            int diff = sample - predictor;
+
+            int code = 0;
+            if (diff < 0) {
+                code = 8;
+                diff = -diff;
+            }
+            if (diff >= step) {
+                code |= 4;
+                diff -= step;
+            }
+            if (diff >= step >> 1) {
+                code |= 2;
+                diff -= step >> 1;
+            }
+            if (diff >= step >> 2) {
+                code |= 1;
+            }
+
+            // 编码端使用与解码端完全相同的重建过程，保证两端预测值一致
+            predictor = reconstruct(predictor, step, code);
+            index = clampIndex(index + INDEX_TABLE[code]);
+
+            int pos = HEADER_SIZE + (i >> 1);
+            if ((i & 1) == 0) {
+                out[pos] = (byte) code;
+            } else {
+                out[pos] |= (byte) (code << 4);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 将一个 ADPCM 数据块解码为 16bit 小端 PCM
+     *
+     * @param block  ADPCM 数据块
+     * @param offset 起始偏移
+     * @param length 数据块长度
+     * @return PCM 数据
+     * @throws IllegalArgumentException 数据块头不完整或步长索引非法
+     */
+    public static byte[] decode(byte[] block, int offset, int length) {
+        if (length == 0) {
+            return new byte[0];
+        }
+        if (length < HEADER_SIZE) {
+            throw new IllegalArgumentException("ADPCM 数据块长度不足: " + length);
+        }
+
+        int predictor = (short) ((block[offset] & 0xFF) | (block[offset + 1] << 8));
+        int index = block[offset + 2] & 0xFF;
+        if (index >= STEP_TABLE.length) {
+            throw new IllegalArgumentException("ADPCM 步长索引非法: " + index);
+        }
+        boolean padded = block[offset + 3] != 0;
+
+        int nibbleCount = (length - HEADER_SIZE) * 2 - (padded ? 1 : 0);
+        if (nibbleCount < 0) {
+            nibbleCount = 0;
+        }
+        byte[] out = new byte[(nibbleCount + 1) * 2];
+        writeSample(out, 0, predictor);
+
+        for (int i = 0; i < nibbleCount; i++) {
+            int packed = block[offset + HEADER_SIZE + (i >> 1)] & 0xFF;
+            int code = (i & 1) == 0 ? packed & 0x0F : packed >> 4;
+
+            predictor = reconstruct(predictor, STEP_TABLE[index], code);
+            index = clampIndex(index + INDEX_TABLE[code]);
+            writeSample(out, (i + 1) * 2, predictor);
+        }
+        return out;
+    }
+
+    /**
+     * 根据 4bit 编码重建采样值
+     */
+    private static int reconstruct(int predictor, int step, int code) {
+        int diff = step >> 3;
+        if ((code & 4) != 0) {
+            diff += step;
+        }
+        if ((code & 2) != 0) {
+            diff += step >> 1;
+        }
+        if ((code & 1) != 0) {
+            diff += step >> 2;
+        }
+        int value = (code & 8) != 0 ? predictor - diff : predictor + diff;
+        return Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+
+    private static int clampIndex(int index) {
+        return Math.max(0, Math.min(STEP_TABLE.length - 1, index));
+    }
+
+    private static int readSample(byte[] pcm, int pos) {
+        return (short) ((pcm[pos] & 0xFF) | (pcm[pos + 1] << 8));
+    }
+
+    private static void writeSample(byte[] out, int pos, int sample) {
+        out[pos] = (byte) sample;
+        out[pos + 1] = (byte) (sample >> 8);
+    }
+}
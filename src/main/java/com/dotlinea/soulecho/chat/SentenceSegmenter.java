@@ -0,0 +1,213 @@
+package com.dotlinea.soulecho.chat;
+
+import java.util.function.Consumer;
+
+/**
+ * 增量分句器
+ * <p>
+ * 将 LLM 流式输出的文本块切分为适合 TTS 合成的片段。每次 {@link #feed} 只扫描新到达的字符，
+ * 不重新扫描已检查过的缓冲区，也不在每个文本块上生成整个缓冲区的字符串副本。
+ * </p>
+ * <p>
+ * 切分规则：
+ * <ul>
+ * <li>强标点（。！？!?…换行，以及非小数点的 '.'）：立即切分</li>
+ * <li>弱标点（，,、；;：:）：片段长度达到阈值后切分；首个片段使用更小的阈值，尽快产出首句语音</li>
+ * <li>片段长度达到上限仍无标点时强制切分</li>
+ * <li>紧跟在切分点后的右引号、右括号会并入当前片段</li>
+ * <li>仅包含标点或空白的片段会被丢弃</li>
+ * </ul>
+ * </p>
+ * <p>
+ * 非线程安全，每轮对话使用一个实例。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class SentenceSegmenter {
+
+    /**
+     * 默认首片段弱标点切分阈值（字符数）
+     */
+    public static final int DEFAULT_FIRST_MIN_LENGTH = 6;
+
+    /**
+     * 默认弱标点切分阈值（字符数）
+     */
+    public static final int DEFAULT_WEAK_MIN_LENGTH = 20;
+
+    /**
+     * 默认片段最大长度（字符数）
+     */
+    public static final int DEFAULT_MAX_LENGTH = 120;
+
+    private final int firstMinLength;
+    private final int weakMinLength;
+    private final int maxLength;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    /**
+     * 下一个待扫描字符的位置（之前的字符已确认不构成切分点）
+     */
+    private int scanIndex;
+
+    /**
+     * 是否已输出过片段
+     */
+    private boolean emitted;
+
+    public SentenceSegmenter() {
+        this(DEFAULT_FIRST_MIN_LENGTH, DEFAULT_WEAK_MIN_LENGTH, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param firstMinLength 首片段在弱标点处切分所需的最小长度
+     * @param weakMinLength 后续片段在弱标点处切分所需的最小长度
+     * @param maxLength 片段最大长度，超过后强制切分
+     */
+    public SentenceSegmenter(int firstMinLength, int weakMinLength, int maxLength) {
+        if (firstMinLength <= 0 || weakMinLength <= 0 || maxLength <= 0) {
+            throw new IllegalArgumentException("分句阈值必须为正数");
+        }
+        this.firstMinLength = firstMinLength;
+        this.weakMinLength = weakMinLength;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * 追加文本块，并输出其中已完整的片段
+     *
+     * @param chunk LLM 文本块
+     * @param sink 片段接收者
+     */
+    public void feed(CharSequence chunk, Consumer<String> sink) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        buffer.append(chunk);
+
+        int i = scanIndex;
+        while (i < buffer.length()) {
+            char c = buffer.charAt(i);
+            int length = i + 1;
+
+            if (c == '.' && length == buffer.length() && i > 0 && Character.isDigit(buffer.charAt(i - 1))) {
+                // 数字后的 '.' 需要看到下一个字符才能区分小数点和句号
+                scanIndex = i;
+                return;
+            }
+
+            boolean split;
+            if (isStrong(c, i)) {
+                split = true;
+            } else if (isWeak(c)) {
+                split = length >= (emitted ? weakMinLength : firstMinLength);
+            } else {
+                split = length >= maxLength;
+            }
+
+            if (!split) {
+                i++;
+                continue;
+            }
+
+            int end = extendOverClosers(length);
+            if (end == buffer.length() && isStrong(c, i) && c != '\n' && end < maxLength) {
+                // 强标点位于缓冲区末尾：可能还有连续标点或右引号未到达，等待下一个文本块
+                // （省略号、"！？"等连用时避免切出只有标点的片段）
+                scanIndex = i;
+                return;
+            }
+            emit(end, sink);
+            i = 0;
+        }
+        scanIndex = buffer.length();
+    }
+
+    /**
+     * 输出剩余文本（对话结束时调用）
+     *
+     * @return 剩余片段；无有效内容时返回 null
+     */
+    public String flush() {
+        String rest = buffer.toString().trim();
+        buffer.setLength(0);
+        scanIndex = 0;
+        return hasContent(rest) ? rest : null;
+    }
+
+    /**
+     * 缓冲区中尚未输出的字符数
+     *
+     * @return 字符数
+     */
+    public int pendingLength() {
+        return buffer.length();
+    }
+
+    private void emit(int end, Consumer<String> sink) {
+        String segment = buffer.substring(0, end).trim();
+        buffer.delete(0, end);
+        scanIndex = 0;
+        if (hasContent(segment)) {
+            emitted = true;
+            sink.accept(segment);
+        }
+    }
+
+    /**
+     * 将切分点之后紧邻的强标点、右引号和右括号并入当前片段
+     */
+    private int extendOverClosers(int end) {
+        while (end < buffer.length()) {
+            char next = buffer.charAt(end);
+            if (isCloser(next) || (next != '\n' && isStrong(next, end))) {
+                end++;
+            } else {
+                break;
+            }
+        }
+        return end;
+    }
+
+    private boolean isStrong(char c, int index) {
+        switch (c) {
+            case '。', '！', '？', '!', '?', '…', '\n':
+                return true;
+            case '.':
+                // 小数点（如 3.14）不切分
+                if (index > 0 && Character.isDigit(buffer.charAt(index - 1))) {
+                    return index + 1 < buffer.length() && !Character.isDigit(buffer.charAt(index + 1));
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isWeak(char c) {
+        return switch (c) {
+            case '，', ',', '、', '；', ';', '：', ':' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isCloser(char c) {
+        return switch (c) {
+            case '”', '’', '"', '\'', '）', ')', '」', '』', '】', '》' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean hasContent(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,146 @@
+package com.dotlinea.soulecho.chat;
+
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * LLM 文本块合并器
+ * <p>
+ * LLM 流式输出的增量通常只有一两个汉字，逐个发送会产生大量小帧。合并器将增量暂存，
+ * 满足以下任一条件时作为一帧输出：
+ * <ul>
+ * <li>暂存的第一个字符已等待 maxDelayMillis（由调度器触发，LLM 停顿时也能及时输出）</li>
+ * <li>暂存字符数达到 maxChars</li>
+ * <li>新增量中包含句末标点（。！？!?…换行）</li>
+ * </ul>
+ * 低延迟保底：每轮最先到达的 immediateChunks 个增量不合并，直接输出，首字延迟不受影响。
+ * maxDelayMillis 为 0 时关闭合并，所有增量直接输出。
+ * </p>
+ * <p>
+ * 线程安全：LLM 线程与调度器线程都在同一把锁内调用 sink，输出顺序与到达顺序一致，sink 不会被并发调用。
+ * 每轮对话使用一个实例，结束时调用 {@link #close()}。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class TextChunkCoalescer {
+
+    private final Consumer<String> sink;
+    private final TaskScheduler scheduler;
+    private final long maxDelayMillis;
+    private final int maxChars;
+
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * 剩余不合并直接输出的增量数
+     */
+    private int immediateRemaining;
+
+    /**
+     * 暂存区的定时输出任务，暂存区为空时为 null
+     */
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * 定时任务代号，用于识别已被取消但仍在等待锁的过期任务
+     */
+    private long flushGeneration;
+
+    private boolean closed;
+
+    /**
+     * @param sink 合并后文本的接收者
+     * @param scheduler 定时输出使用的调度器
+     * @param maxDelayMillis 暂存文本的最长等待时间，0 表示不合并
+     * @param maxChars 暂存字符数上限
+     * @param immediateChunks 每轮开头直接输出的增量数
+     */
+    public TextChunkCoalescer(Consumer<String> sink, TaskScheduler scheduler,
+                              long maxDelayMillis, int maxChars, int immediateChunks) {
+        if (maxDelayMillis < 0 || maxChars <= 0 || immediateChunks < 0) {
+            throw new IllegalArgumentException("文本合并参数无效");
+        }
+        this.sink = sink;
+        this.scheduler = scheduler;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxChars = maxChars;
+        this.immediateRemaining = immediateChunks;
+    }
+
+    /**
+     * 追加一个 LLM 增量
+     *
+     * @param chunk 文本增量
+     */
+    public synchronized void feed(String chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        if (closed || maxDelayMillis == 0 || (immediateRemaining > 0 && pending.length() == 0)) {
+            if (immediateRemaining > 0) {
+                immediateRemaining--;
+            }
+            sink.accept(chunk);
+            return;
+        }
+
+        pending.append(chunk);
+        if (pending.length() >= maxChars || containsSentenceEnd(chunk)) {
+            flushPending();
+        } else if (flushTask == null) {
+            long generation = ++flushGeneration;
+            flushTask = scheduler.schedule(() -> flushOnTimeout(generation), Instant.now().plusMillis(maxDelayMillis));
+        }
+    }
+
+    /**
+     * 立即输出暂存文本
+     */
+    public synchronized void flush() {
+        flushPending();
+    }
+
+    /**
+     * 输出暂存文本并停止合并，之后到达的增量直接输出
+     */
+    public synchronized void close() {
+        flushPending();
+        closed = true;
+    }
+
+    private synchronized void flushOnTimeout(long generation) {
+        if (flushTask != null && generation == flushGeneration) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        if (pending.length() > 0) {
+            String text = pending.toString();
+            pending.setLength(0);
+            sink.accept(text);
+        }
+    }
+
+    private static boolean containsSentenceEnd(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            switch (chunk.charAt(i)) {
+                case '。', '！', '？', '!', '?', '…', '\n':
+                    return true;
+                default:
+                    break;
+            }
+        }
+        return false;
+    }
+}
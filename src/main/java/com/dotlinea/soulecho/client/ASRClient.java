@@ -1,5 +1,7 @@
 package com.dotlinea.soulecho.client;
 
+import com.dotlinea.soulecho.trace.TurnTrace;
+
 import java.io.InputStream;
 import java.util.concurrent.CompletableFuture;
 
@@ -22,4 +24,12 @@ public interface ASRClient {
      */
     CompletableFuture<String> recognizeAsync(InputStream audioStream);
 
+    /**
+     * 处理完整的音频流进行实时识别（异步），并记录识别耗时
+     * @param audioStream 完整音频数据流
+     * @param trace 对话轮次追踪（可为 null）
+     * @return CompletableFuture包装的识别文本结果，若无结果则返回null
+     */
+    CompletableFuture<String> recognizeAsync(InputStream audioStream, TurnTrace trace);
+
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.dotlinea.soulecho.client;
+
+import com.alibaba.nls.client.protocol.NlsClient;
+import com.dotlinea.soulecho.client.token.NlsTokenService;
+import com.dotlinea.soulecho.exception.ASRException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ASR 连接管理器
+ * <p>
+ * 负责两件事：
+ * <ul>
+ * <li>共享 NlsClient：基于 {@link NlsTokenService} 的有效 Token 构建，Token 轮换后重建，旧客户端延迟关闭</li>
+ * <li>识别会话配额：SpeechTranscriber 每次识别对应一条独立的 WebSocket 会话且不可复用，
+ *     因此以信号量限制同时进行的识别会话数，超过上限的请求排队等待，等待超时则快速失败</li>
+ * </ul>
+ * </p>
+ * <p>
+ * 等待耗时（次数、总耗时、最大值、超时次数）可通过 getter 获取，用于监控。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class ASRConnectionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ASRConnectionManager.class);
+
+    /**
+     * Token 轮换后旧 NlsClient 的延迟关闭时间（秒），保证进行中的识别会话正常结束
+     */
+    private static final long CLIENT_RETIRE_DELAY_SECONDS = 60;
+
+    private final NlsTokenService tokenService;
+
+    @Value("${asr.service.url}")
+    private String asrServiceUrl;
+
+    @Value("${asr.session.max-concurrent:50}")
+    private int maxConcurrentSessions;
+
+    @Value("${asr.session.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    private volatile Semaphore sessionPermits;
+
+    private volatile NlsClientHolder clientHolder;
+
+    private final ScheduledExecutorService clientRetireExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    private final AtomicLong acquiredCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    /**
+     * 获取一个识别会话配额
+     * <p>
+     * 返回的租约持有当前共享的 NlsClient，识别结束后必须调用 {@link Lease#close()} 归还配额（可重复调用）。
+     * </p>
+     *
+     * @return 识别会话租约
+     * @throws ASRException 等待超时或线程被中断
+     */
+    public Lease acquire() {
+        Semaphore permits = permits();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ASRException("等待识别会话配额时被中断", 500, "INTERRUPTED", e);
+        }
+        long waited = System.nanoTime() - start;
+
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            logger.warn("ASR 识别会话已达上限 {}，等待 {} ms 后仍无可用配额", maxConcurrentSessions, acquireTimeoutMs);
+            throw new ASRException("ASR 识别会话已满", 40000005, "TOO_MANY_REQUESTS");
+        }
+
+        acquiredCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (waited > TimeUnit.MILLISECONDS.toNanos(100)) {
+            logger.debug("ASR 识别会话配额等待 {} ms", TimeUnit.NANOSECONDS.toMillis(waited));
+        }
+
+        try {
+            return new Lease(obtainNlsClient(tokenService.getValidToken()), permits);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Token 失效时调用：强制刷新 Token，下次获取租约时重建客户端
+     */
+    public void onTokenExpired() {
+        tokenService.forceRefresh();
+    }
+
+    public int getAvailableSessions() {
+        return permits().availablePermits();
+    }
+
+    public int getActiveSessions() {
+        return maxConcurrentSessions - permits().availablePermits();
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = acquiredCount.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        clientRetireExecutor.shutdownNow();
+        NlsClientHolder holder = clientHolder;
+        if (holder != null) {
+            shutdownQuietly(holder.client());
+        }
+    }
+
+    private Semaphore permits() {
+        Semaphore permits = sessionPermits;
+        if (permits == null) {
+            synchronized (this) {
+                if (sessionPermits == null) {
+                    sessionPermits = new Semaphore(Math.max(1, maxConcurrentSessions), true);
+                }
+                permits = sessionPermits;
+            }
+        }
+        return permits;
+    }
+
+    private NlsClient obtainNlsClient(String token) {
+        NlsClientHolder holder = clientHolder;
+        if (holder != null && holder.token().equals(token)) {
+            return holder.client();
+        }
+
+        synchronized (this) {
+            holder = clientHolder;
+            if (holder != null && holder.token().equals(token)) {
+                return holder.client();
+            }
+
+            NlsClient nlsClient;
+            if (asrServiceUrl != null && !asrServiceUrl.trim().isEmpty()) {
+                nlsClient = new NlsClient(asrServiceUrl, token);
+            } else {
+                nlsClient = new NlsClient(token);
+            }
+            clientHolder = new NlsClientHolder(token, nlsClient);
+            logger.info("ASR NlsClient 已{}", holder == null ? "创建" : "随 Token 轮换重建");
+
+            if (holder != null) {
+                NlsClient retired = holder.client();
+                clientRetireExecutor.schedule(() -> shutdownQuietly(retired),
+                    CLIENT_RETIRE_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+            return nlsClient;
+        }
+    }
+
+    private void shutdownQuietly(NlsClient nlsClient) {
+        try {
+            nlsClient.shutdown();
+        } catch (Exception e) {
+            logger.warn("关闭 ASR NlsClient 时发生异常", e);
+        }
+    }
+
+    /**
+     * 识别会话租约
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final NlsClient client;
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Lease(NlsClient client, Semaphore permits) {
+            this.client = client;
+            this.permits = permits;
+        }
+
+        public NlsClient client() {
+            return client;
+        }
+
+        /**
+         * 归还识别会话配额（幂等）
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * NLS 客户端及其绑定的 Token
+     */
+    private record NlsClientHolder(String token, NlsClient client) {}
+}
@@ -0,0 +1,237 @@
+package com.dotlinea.soulecho.client;
+
+import com.dotlinea.soulecho.constants.FallbackReplyConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * LLM 回复缓存
+ * <p>
+ * 公共角色的开场白（「你好」「你是谁」）在相同角色设定下反复请求大模型，回复几乎一致。
+ * 这里以「模型 + 是否快模型开场 + 角色名称 + 角色设定 + 知识库上下文 + 归一化输入」的 SHA-256 作为键缓存完整回复，
+ * 只在历史对话不超过配置深度时使用；命中后按配置的节奏分块回放，下游的分句、TTS 与推送逻辑无需区分。
+ * </p>
+ * <p>
+ * 默认关闭。兜底回复、超长回复不缓存；条目按 LRU 淘汰并带有过期时间，角色设定调整后旧条目自然失效。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+public class LLMResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LLMResponseCache.class);
+
+    /**
+     * 归一化时去除的空白与标点（含全角标点）
+     */
+    private static final Pattern IGNORABLE = Pattern.compile("[\\s\\p{P}\\p{S}]+");
+
+    @Value("${llm.cache.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 允许使用缓存的最大历史消息数，0 表示只缓存首轮对话
+     */
+    @Value("${llm.cache.max-history-messages:0}")
+    private int maxHistoryMessages;
+
+    @Value("${llm.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${llm.cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Value("${llm.cache.max-input-length:32}")
+    private int maxInputLength;
+
+    @Value("${llm.cache.max-response-length:500}")
+    private int maxResponseLength;
+
+    /**
+     * 回放时每块的字符数
+     */
+    @Value("${llm.cache.replay-chunk-chars:8}")
+    private int replayChunkChars;
+
+    /**
+     * 回放时相邻两块的间隔（毫秒），0 表示一次性输出
+     */
+    @Value("${llm.cache.replay-interval-ms:30}")
+    private long replayIntervalMs;
+
+    /**
+     * 访问顺序 LinkedHashMap 实现 LRU，所有访问在 this 上同步
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private record Entry(String response, long expiresAtMillis) {
+    }
+
+    /**
+     * 判断本轮对话是否可以使用缓存
+     * @param history 历史对话
+     * @param newText 用户输入
+     * @return 是否可缓存
+     */
+    public boolean isCacheable(List<String> history, String newText) {
+        return enabled
+            && (history == null || history.size() <= maxHistoryMessages)
+            && newText != null && newText.length() <= maxInputLength;
+    }
+
+    /**
+     * 计算缓存键
+     * @param model 路由选出的模型名称
+     * @param fastOpener 是否由快模型生成开场第一句
+     * @param characterName 角色名称（决定固定知识等前缀），可为 null
+     * @param personaPrompt 角色设定
+     * @param knowledgeChunks 知识库检索片段，可为 null
+     * @param newText 用户输入
+     * @return 缓存键
+     */
+    public String keyOf(String model, boolean fastOpener, String characterName, String personaPrompt,
+                        List<String> knowledgeChunks, String newText) {
+        StringBuilder raw = new StringBuilder(256)
+            .append(model).append('\u0000')
+            .append(fastOpener).append('\u0000')
+            .append(characterName == null ? "" : characterName).append('\u0000')
+            .append(personaPrompt == null ? "" : personaPrompt).append('\u0000');
+        if (knowledgeChunks != null) {
+            for (String chunk : knowledgeChunks) {
+                raw.append(chunk).append('\u0001');
+            }
+        }
+        raw.append('\u0000').append(normalize(newText));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(raw.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 查询缓存
+     * @param key 缓存键
+     * @return 完整回复，未命中或已过期返回 null
+     */
+    public String get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAtMillis() <= System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.response();
+    }
+
+    /**
+     * 写入缓存（兜底回复与超长回复不缓存）
+     * @param key 缓存键
+     * @param response 完整回复
+     */
+    public void put(String key, String response) {
+        if (response == null || response.isBlank() || response.length() > maxResponseLength
+            || FallbackReplyConstants.ALL.contains(response)) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds);
+        synchronized (this) {
+            entries.put(key, new Entry(response, expiresAt));
+        }
+    }
+
+    /**
+     * 以模拟流式的方式回放缓存回复
+     * <p>
+     * 在调用线程上按 replayChunkChars 分块、相邻块间隔 replayIntervalMs 输出，
+     * 与真实流式调用一样阻塞到回放结束。线程被中断时立即输出剩余内容。
+     * </p>
+     *
+     * @param response 缓存的完整回复
+     * @param chunkConsumer 文本块消费者
+     */
+    public void replay(String response, Consumer<String> chunkConsumer) {
+        if (replayIntervalMs <= 0 || replayChunkChars <= 0) {
+            chunkConsumer.accept(response);
+            return;
+        }
+        int offset = 0;
+        while (offset < response.length()) {
+            int end = offset;
+            for (int i = 0; i < replayChunkChars && end < response.length(); i++) {
+                end = response.offsetByCodePoints(end, 1);
+            }
+            if (offset > 0) {
+                try {
+                    Thread.sleep(replayIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.debug("缓存回复回放被中断，直接输出剩余内容");
+                    chunkConsumer.accept(response.substring(offset));
+                    return;
+                }
+            }
+            chunkConsumer.accept(response.substring(offset, end));
+            offset = end;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 归一化用户输入：全角转半角、去除空白与标点、英文转小写，
+     * 使「你好！」「你好」「 你好 。」命中同一条目
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return IGNORABLE.matcher(normalized).replaceAll("").toLowerCase();
+    }
+}
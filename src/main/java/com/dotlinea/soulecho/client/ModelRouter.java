@@ -0,0 +1,311 @@
+package com.dotlinea.soulecho.client;
+
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import com.dotlinea.soulecho.resilience.CircuitBreaker;
+import com.dotlinea.soulecho.resilience.UpstreamCircuitBreakers;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * LLM 模型路由器
+ * <p>
+ * 按规则为每一轮对话选出候选模型的尝试顺序：
+ * <ul>
+ * <li>角色等级：premium-characters 中的角色优先使用 premium-model</li>
+ * <li>输入长度与历史深度：短输入且历史较浅的轮次（寒暄、问候）优先使用 fast-model</li>
+ * <li>其余轮次使用默认模型 llm.model，之后依次是 fallback-models</li>
+ * <li>上游延迟：首选模型的首包耗时均值超过 slow-first-chunk-ms 时，排到下一个候选之后；
+ * 被降级的模型在 latency-sample-ttl-ms 内没有新样本后重新参与首选，以便重新测量</li>
+ * <li>健康状态：每个模型一个熔断器，熔断中的模型从候选中移除</li>
+ * </ul>
+ * 开启 fast-first-sentence 时，由 fast-model 先生成回复的第一句，主模型接着往下写，
+ * 首包耗时取决于快模型。未开启路由时只使用默认模型，行为与之前一致：不创建按模型的熔断器，
+ * 熔断只由全局的 LLM 熔断器负责，首包耗时样本仍然记录（供对冲请求使用）。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    /**
+     * 首包耗时均值的平滑系数
+     */
+    private static final double EWMA_ALPHA = 0.2;
+
+    /**
+     * 每个模型保留的最近首包耗时样本数（用于计算分位数）
+     */
+    private static final int LATENCY_SAMPLES = 128;
+
+    private final UpstreamCircuitBreakers circuitBreakers;
+    private final ChatMetrics chatMetrics;
+
+    @Value("${llm.model:qwen-plus}")
+    private String defaultModel;
+
+    @Value("${llm.router.enabled:false}")
+    private boolean enabled;
+
+    @Value("${llm.router.fast-model:qwen-turbo}")
+    private String fastModel;
+
+    @Value("${llm.router.premium-model:}")
+    private String premiumModel;
+
+    /**
+     * 使用 premium-model 的角色名称，以 | 分隔
+     */
+    @Value("${llm.router.premium-characters:}")
+    private String premiumCharacters;
+
+    /**
+     * 默认模型失败或熔断时依次尝试的模型，以逗号分隔
+     */
+    @Value("${llm.router.fallback-models:qwen-turbo}")
+    private String fallbackModels;
+
+    @Value("${llm.router.short-input-length:8}")
+    private int shortInputLength;
+
+    @Value("${llm.router.short-history-messages:0}")
+    private int shortHistoryMessages;
+
+    @Value("${llm.router.slow-first-chunk-ms:3000}")
+    private long slowFirstChunkMs;
+
+    @Value("${llm.router.latency-sample-ttl-ms:30000}")
+    private long latencySampleTtlMs;
+
+    @Value("${llm.router.fast-first-sentence:false}")
+    private boolean fastFirstSentence;
+
+    @Value("${llm.router.breaker.slow-call-ms:0}")
+    private long modelSlowCallMs;
+
+    private Set<String> premiumCharacterNames = Set.of();
+
+    private List<String> fallbackModelNames = List.of();
+
+    private final Map<String, ModelHealth> health = new ConcurrentHashMap<>();
+
+    /**
+     * 路由结果
+     *
+     * @param models     候选模型的尝试顺序，第一个为首选模型
+     * @param fastOpener 是否先由快模型生成第一句
+     */
+    public record Route(List<String> models, boolean fastOpener) {
+
+        public String primary() {
+            return models.get(0);
+        }
+    }
+
+    /**
+     * 单个模型的健康状态：熔断器（未开启路由时为 null）、首包耗时均值与最近的首包耗时样本
+     */
+    private static final class ModelHealth {
+
+        private final CircuitBreaker breaker;
+        private double firstChunkEwmaMs = Double.NaN;
+        private long lastSampleAtMillis;
+        private final double[] samples = new double[LATENCY_SAMPLES];
+        private int sampleCount;
+        private int sampleIndex;
+
+        private ModelHealth(CircuitBreaker breaker) {
+            this.breaker = breaker;
+        }
+
+        private synchronized void recordFirstChunk(double millis) {
+            firstChunkEwmaMs = Double.isNaN(firstChunkEwmaMs)
+                ? millis
+                : firstChunkEwmaMs + EWMA_ALPHA * (millis - firstChunkEwmaMs);
+            lastSampleAtMillis = System.currentTimeMillis();
+            samples[sampleIndex] = millis;
+            sampleIndex = (sampleIndex + 1) % samples.length;
+            sampleCount = Math.min(sampleCount + 1, samples.length);
+        }
+
+        private synchronized double percentile(double percentile, int minSamples) {
+            if (sampleCount == 0 || sampleCount < minSamples) {
+                return Double.NaN;
+            }
+            double[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sampleCount) - 1;
+            return sorted[Math.min(Math.max(index, 0), sampleCount - 1)];
+        }
+
+        private synchronized boolean isSlow(long thresholdMs, long sampleTtlMs) {
+            return !Double.isNaN(firstChunkEwmaMs) && firstChunkEwmaMs > thresholdMs
+                && System.currentTimeMillis() - lastSampleAtMillis < sampleTtlMs;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        premiumCharacterNames = Arrays.stream(premiumCharacters.split("\\|"))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+        fallbackModelNames = Arrays.stream(fallbackModels.split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .toList();
+        if (enabled) {
+            logger.info("LLM 模型路由已启用，默认模型: {}，快模型: {}，备用模型: {}，快模型开场: {}",
+                defaultModel, fastModel, fallbackModelNames, fastFirstSentence);
+        }
+    }
+
+    /**
+     * 为本轮对话选择模型
+     *
+     * @param characterName 角色名称，可为 null
+     * @param history       历史对话
+     * @param newText       用户输入
+     * @return 路由结果
+     */
+    public Route route(String characterName, List<String> history, String newText) {
+        if (!enabled) {
+            return new Route(List.of(defaultModel), false);
+        }
+
+        String preferred;
+        String reason;
+        int historySize = history != null ? history.size() : 0;
+        if (!premiumModel.isBlank() && characterName != null && premiumCharacterNames.contains(characterName)) {
+            preferred = premiumModel;
+            reason = "premium";
+        } else if (newText.trim().length() <= shortInputLength && historySize <= shortHistoryMessages) {
+            preferred = fastModel;
+            reason = "short";
+        } else {
+            preferred = defaultModel;
+            reason = "default";
+        }
+
+        Set<String> ordered = new LinkedHashSet<>();
+        ordered.add(preferred);
+        ordered.add(defaultModel);
+        ordered.addAll(fallbackModelNames);
+
+        List<String> healthy = new ArrayList<>(ordered.size());
+        for (String model : ordered) {
+            if (!healthOf(model).breaker.isOpen()) {
+                healthy.add(model);
+            }
+        }
+        if (healthy.isEmpty()) {
+            // 全部熔断时仍按原顺序尝试，由熔断器的半开探测决定是否放行
+            healthy.addAll(ordered);
+        } else if (!healthy.get(0).equals(preferred)) {
+            reason = "failover";
+        }
+
+        // 首选模型首包明显变慢时，让下一个候选先上
+        if (healthy.size() > 1 && isSlow(healthy.get(0)) && !isSlow(healthy.get(1))) {
+            healthy.add(1, healthy.remove(0));
+            reason = "latency";
+        }
+
+        String primary = healthy.get(0);
+        boolean fastOpener = fastFirstSentence && !primary.equals(fastModel) && !healthOf(fastModel).breaker.isOpen();
+        chatMetrics.recordModelRoute(primary, reason);
+        logger.debug("本轮使用模型: {}（{}），候选: {}，快模型开场: {}", primary, reason, healthy, fastOpener);
+        return new Route(List.copyOf(healthy), fastOpener);
+    }
+
+    /**
+     * 快模型名称（用于生成开场第一句）
+     */
+    public String getFastModel() {
+        return fastModel;
+    }
+
+    /**
+     * 申请调用某个模型的许可
+     *
+     * @param model 模型名称
+     * @return false 表示该模型熔断中，应尝试下一个候选；未开启路由时总是 true
+     */
+    public boolean tryAcquire(String model) {
+        if (!enabled) {
+            return true;
+        }
+        return healthOf(model).breaker.tryAcquirePermission();
+    }
+
+    /**
+     * 上报模型首包耗时
+     *
+     * @param model      模型名称
+     * @param startNanos 调用开始时间（System.nanoTime）
+     */
+    public void onFirstChunk(String model, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        healthOf(model).recordFirstChunk(nanos / 1_000_000.0);
+        chatMetrics.recordModelFirstChunk(model, nanos);
+    }
+
+    /**
+     * 上报已放行调用的结果
+     *
+     * @param model      模型名称
+     * @param startNanos 调用开始时间（System.nanoTime）
+     * @param failed     是否失败
+     */
+    public void onResult(String model, long startNanos, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+        healthOf(model).breaker.onResult(System.nanoTime() - startNanos, failed);
+    }
+
+    /**
+     * 最近首包耗时的分位数
+     *
+     * @param model      模型名称
+     * @param percentile 分位（0-1）
+     * @param minSamples 最少样本数
+     * @return 分位数（毫秒），样本不足时返回 NaN
+     */
+    public double getFirstChunkPercentileMs(String model, double percentile, int minSamples) {
+        return healthOf(model).percentile(percentile, minSamples);
+    }
+
+    private boolean isSlow(String model) {
+        return healthOf(model).isSlow(slowFirstChunkMs, latencySampleTtlMs);
+    }
+
+    private ModelHealth healthOf(String model) {
+        return health.computeIfAbsent(model, name -> {
+            if (!enabled) {
+                return new ModelHealth(null);
+            }
+            CircuitBreaker breaker = circuitBreakers.create("llm:" + name, modelSlowCallMs);
+            chatMetrics.gaugeCircuitBreaker(breaker);
+            return new ModelHealth(breaker);
+        });
+    }
+}
@@ -0,0 +1,232 @@
+package com.dotlinea.soulecho.client;
+
+import com.alibaba.dashscope.common.Message;
+import com.alibaba.dashscope.common.Role;
+import com.dotlinea.soulecho.entity.Character;
+import com.dotlinea.soulecho.repository.CharacterRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LLM 提示词组装器
+ * <p>
+ * 按固定顺序组装消息，使每一轮请求的前缀尽量保持不变，便于命中上游的前缀（KV）缓存：
+ * <ol>
+ * <li>角色设定（SYSTEM）</li>
+ * <li>固定知识：角色背景资料（SYSTEM，可选）</li>
+ * <li>历史对话（USER / ASSISTANT 交替）</li>
+ * <li>本轮检索到的知识库片段（SYSTEM，只出现在本轮，不会进入下一轮的前缀）</li>
+ * <li>用户当前输入（USER）</li>
+ * </ol>
+ * 前两段按「角色名称 + 角色设定」缓存为共享的 Message 列表，每轮直接复用，
+ * 条目过期后重新加载，角色资料修改后最多延迟一个过期周期生效。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class PromptAssembler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptAssembler.class);
+
+    private final CharacterRepository characterRepository;
+
+    /**
+     * 是否将角色描述作为固定知识放在角色设定之后
+     */
+    @Value("${llm.prompt.pin-description:false}")
+    private boolean pinDescription;
+
+    @Value("${llm.prompt.prefix-cache-size:256}")
+    private int prefixCacheSize;
+
+    @Value("${llm.prompt.prefix-cache-ttl-seconds:300}")
+    private long prefixCacheTtlSeconds;
+
+    /**
+     * 透传给上游的上下文缓存参数，格式为 key=value，多个以逗号分隔
+     */
+    @Value("${llm.prompt.context-cache-params:}")
+    private String contextCacheParams;
+
+    /**
+     * 前缀缓存：访问顺序 LinkedHashMap 实现 LRU，所有访问在 this 上同步
+     */
+    private final LinkedHashMap<String, Prefix> prefixes = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Prefix> eldest) {
+            return size() > prefixCacheSize;
+        }
+    };
+
+    private Map<String, Object> contextCacheParameters = Collections.emptyMap();
+
+    private record Prefix(List<Message> messages, long expiresAtMillis) {
+    }
+
+    @PostConstruct
+    public void init() {
+        contextCacheParameters = parseParameters(contextCacheParams);
+        if (!contextCacheParameters.isEmpty()) {
+            logger.info("LLM 请求附加上下文缓存参数: {}", contextCacheParameters.keySet());
+        }
+    }
+
+    /**
+     * 组装本轮请求的消息列表
+     *
+     * @param personaPrompt   角色设定
+     * @param characterName   角色名称，为空时不加载固定知识
+     * @param history         历史对话
+     * @param knowledgeChunks 本轮检索到的知识库片段
+     * @param newText         用户当前输入
+     * @return 消息列表，前缀部分为共享实例，调用方不得修改其中的 Message
+     */
+    public List<Message> assemble(String personaPrompt, String characterName, List<String> history,
+                                  List<String> knowledgeChunks, String newText) {
+        List<Message> prefix = prefixOf(personaPrompt, characterName);
+        int historySize = history != null ? history.size() : 0;
+        List<Message> messages = new ArrayList<>(prefix.size() + historySize + 2);
+
+        // 1-2. 角色设定与固定知识（缓存复用）
+        messages.addAll(prefix);
+
+        // 3. 历史对话
+        if (historySize > 0) {
+            boolean isUser = true;
+            for (String historyItem : history) {
+                if (historyItem != null && !historyItem.trim().isEmpty()) {
+                    messages.add(message(isUser ? Role.USER : Role.ASSISTANT, historyItem.trim()));
+                    isUser = !isUser;
+                }
+            }
+        }
+
+        // 4. 本轮检索到的知识（放在历史之后，不影响下一轮的前缀）
+        if (knowledgeChunks != null && !knowledgeChunks.isEmpty()) {
+            StringBuilder knowledgeContext = new StringBuilder();
+            knowledgeContext.append("你必须参考以下信息来回答：\n\n");
+            for (int i = 0; i < knowledgeChunks.size(); i++) {
+                knowledgeContext.append(i + 1).append(". ").append(knowledgeChunks.get(i)).append("\n\n");
+            }
+            knowledgeContext.append("请基于以上信息，结合你的角色设定来回答用户的问题。");
+            messages.add(message(Role.SYSTEM, knowledgeContext.toString()));
+            logger.debug("已添加知识库上下文，包含 {} 条相关信息", knowledgeChunks.size());
+        }
+
+        // 5. 用户当前输入
+        messages.add(message(Role.USER, newText.trim()));
+        return messages;
+    }
+
+    /**
+     * 在已组装的消息中加入「回复开头已确定」的提示，让主模型接着快模型生成的第一句继续写
+     *
+     * @param messages 本轮消息列表
+     * @param opener   已输出的回复开头
+     * @return 新的消息列表，提示插在用户当前输入之前，前缀不变
+     */
+    public List<Message> continueAfter(List<Message> messages, String opener) {
+        List<Message> continued = new ArrayList<>(messages.size() + 1);
+        continued.addAll(messages.subList(0, messages.size() - 1));
+        continued.add(message(Role.SYSTEM, "你对下面这条用户消息的回复已经以「" + opener
+            + "」开头并说出口了。请紧接着这句话继续回复，不要重复这句话，也不要另起开场。"));
+        continued.add(messages.get(messages.size() - 1));
+        return continued;
+    }
+
+    /**
+     * 附加到每次 LLM 请求的上下文缓存参数
+     *
+     * @return 只读参数表，未配置时为空
+     */
+    public Map<String, Object> getContextCacheParameters() {
+        return contextCacheParameters;
+    }
+
+    private List<Message> prefixOf(String personaPrompt, String characterName) {
+        String key = (characterName != null ? characterName : "") + '\u0000' + (personaPrompt != null ? personaPrompt : "");
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Prefix cached = prefixes.get(key);
+            if (cached != null && cached.expiresAtMillis() > now) {
+                return cached.messages();
+            }
+        }
+
+        List<Message> messages = new ArrayList<>(2);
+        if (personaPrompt != null && !personaPrompt.trim().isEmpty()) {
+            messages.add(message(Role.SYSTEM, personaPrompt));
+        }
+        String pinned = loadPinnedKnowledge(characterName);
+        if (pinned != null) {
+            messages.add(message(Role.SYSTEM, "以下是你的角色背景资料：\n\n" + pinned));
+        }
+        List<Message> prefix = List.copyOf(messages);
+        synchronized (this) {
+            prefixes.put(key, new Prefix(prefix, now + TimeUnit.SECONDS.toMillis(prefixCacheTtlSeconds)));
+        }
+        return prefix;
+    }
+
+    private String loadPinnedKnowledge(String characterName) {
+        if (!pinDescription || characterName == null || characterName.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            Character character = characterRepository.findByName(characterName);
+            if (character == null || character.getDescription() == null || character.getDescription().isBlank()) {
+                return null;
+            }
+            return character.getDescription().trim();
+        } catch (Exception e) {
+            logger.warn("加载角色 {} 的背景资料失败，本次不附加固定知识", characterName, e);
+            return null;
+        }
+    }
+
+    private static Message message(Role role, String content) {
+        return Message.builder()
+            .role(role.getValue())
+            .content(content)
+            .build();
+    }
+
+    /**
+     * 解析 key=value 形式的参数，true / false 转为布尔值，其余保留为字符串
+     */
+    static Map<String, Object> parseParameters(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (String pair : raw.split(",")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            String name = pair.substring(0, eq).trim();
+            String value = pair.substring(eq + 1).trim();
+            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                parameters.put(name, Boolean.parseBoolean(value));
+            } else {
+                parameters.put(name, value);
+            }
+        }
+        return Collections.unmodifiableMap(parameters);
+    }
+}
@@ -0,0 +1,397 @@
+package com.dotlinea.soulecho.client;
+
+import com.dotlinea.soulecho.constants.FallbackReplyConstants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * TTS 音频内容寻址缓存
+ * <p>
+ * 以「发音人 + 格式 + 采样率 + 语速 + 语调 + 文本」的 SHA-256 作为键，缓存完整的合成音频，
+ * 命中时无需建立 NLS 会话。主要面向兜底回复、问候语等固定短句。
+ * </p>
+ * <p>
+ * 准入：登记过的短句（兜底回复与 tts.cache.warmup.phrases）总是写入；其余短句在近期未命中达到
+ * admit-after-misses 次后才写入，一次性的 LLM 回复片段不会挤掉常用短句。
+ * </p>
+ * <p>
+ * 两级存储：
+ * <ul>
+ * <li>内存层：按字节数限制容量的 LRU</li>
+ * <li>磁盘层（可选）：每条音频一个文件，读取时使用内存映射，进程重启后仍可命中。
+ *     文件清单保存在内存索引中（启动时按修改时间重建），查询不访问文件系统；超过容量时按 LRU 删除文件</li>
+ * </ul>
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+public class TTSAudioCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TTSAudioCache.class);
+
+    private static final String FILE_SUFFIX = ".audio";
+
+    @Value("${tts.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tts.cache.max-memory-bytes:33554432}")
+    private long maxMemoryBytes;
+
+    @Value("${tts.cache.max-text-length:64}")
+    private int maxTextLength;
+
+    @Value("${tts.cache.disk-path:}")
+    private String diskPath;
+
+    @Value("${tts.cache.disk-max-bytes:268435456}")
+    private long diskMaxBytes;
+
+    /**
+     * 未登记的短句在近期未命中多少次后写入缓存
+     */
+    @Value("${tts.cache.admit-after-misses:2}")
+    private int admitAfterMisses;
+
+    /**
+     * 记录未命中次数的短句数上限
+     */
+    @Value("${tts.cache.admission-window:4096}")
+    private int admissionWindow;
+
+    @Value("${tts.cache.warmup.phrases:}")
+    private String warmupPhrases;
+
+    /**
+     * 登记的短句，总是准入
+     */
+    private Set<String> registeredPhrases = Set.of();
+
+    /**
+     * 内存层：访问顺序 LinkedHashMap 实现 LRU，所有访问在 this 上同步
+     */
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long memoryBytes;
+
+    /**
+     * 近期未命中次数：访问顺序 LinkedHashMap，超过 admissionWindow 时淘汰最久未出现的短句，在 this 上同步
+     */
+    private final LinkedHashMap<String, Integer> missCounts = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > admissionWindow;
+        }
+    };
+
+    private Path diskDir;
+
+    /**
+     * 磁盘层索引：键到文件字节数，访问顺序 LinkedHashMap 实现 LRU，在 this 上同步
+     */
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long diskBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        Set<String> phrases = new LinkedHashSet<>(FallbackReplyConstants.ALL);
+        if (warmupPhrases != null && !warmupPhrases.isBlank()) {
+            Arrays.stream(warmupPhrases.split("\\|"))
+                .map(String::trim)
+                .filter(phrase -> !phrase.isEmpty())
+                .forEach(phrases::add);
+        }
+        registeredPhrases = Set.copyOf(phrases);
+
+        if (!enabled || diskPath == null || diskPath.isBlank()) {
+            return;
+        }
+        try {
+            diskDir = Files.createDirectories(Paths.get(diskPath));
+            List<Path> existing;
+            try (Stream<Path> files = Files.list(diskDir)) {
+                existing = files.filter(p -> p.toString().endsWith(FILE_SUFFIX))
+                    .sorted(Comparator.comparingLong(p -> p.toFile().lastModified()))
+                    .toList();
+            }
+            synchronized (this) {
+                for (Path file : existing) {
+                    String name = file.getFileName().toString();
+                    long size = file.toFile().length();
+                    diskIndex.put(name.substring(0, name.length() - FILE_SUFFIX.length()), size);
+                    diskBytes += size;
+                }
+            }
+            evictFromDisk(0);
+            logger.info("TTS 音频磁盘缓存已启用，目录: {}，文件数: {}，已占用: {} bytes",
+                diskDir, existing.size(), getDiskBytes());
+        } catch (IOException e) {
+            logger.warn("TTS 音频磁盘缓存目录不可用，仅使用内存缓存: {}", diskPath, e);
+            diskDir = null;
+        }
+    }
+
+    /**
+     * 判断文本是否适合缓存（只缓存短句，长回复几乎不会重复）
+     * @param text 待合成文本
+     * @return 是否可缓存
+     */
+    public boolean isCacheable(String text) {
+        return enabled && text != null && text.length() <= maxTextLength;
+    }
+
+    /**
+     * 判断合成结果是否应写入缓存：登记过的短句总是写入，其余短句需近期未命中达到 admitAfterMisses 次
+     * @param profile 语音配置
+     * @param text 待合成文本
+     * @return 是否准入
+     */
+    public boolean shouldAdmit(VoiceProfile profile, String text) {
+        if (!isCacheable(text)) {
+            return false;
+        }
+        if (registeredPhrases.contains(text)) {
+            return true;
+        }
+        String key = keyOf(profile, text);
+        synchronized (this) {
+            Integer count = missCounts.get(key);
+            return count != null && count >= admitAfterMisses;
+        }
+    }
+
+    /**
+     * 登记的短句（兜底回复与预热短句），供预热使用
+     * @return 只读集合
+     */
+    public Set<String> getRegisteredPhrases() {
+        return registeredPhrases;
+    }
+
+    /**
+     * 查询缓存
+     * @param profile 语音配置
+     * @param text 待合成文本
+     * @return 只读音频数据，未命中返回 null
+     */
+    public ByteBuffer get(VoiceProfile profile, String text) {
+        if (!isCacheable(text)) {
+            return null;
+        }
+        String key = keyOf(profile, text);
+
+        byte[] audio;
+        synchronized (this) {
+            audio = memory.get(key);
+        }
+        if (audio != null) {
+            hits.incrementAndGet();
+            return ByteBuffer.wrap(audio).asReadOnlyBuffer();
+        }
+
+        ByteBuffer mapped = readFromDisk(key);
+        if (mapped != null) {
+            hits.incrementAndGet();
+            byte[] copy = new byte[mapped.remaining()];
+            mapped.duplicate().get(copy);
+            putInMemory(key, copy);
+            return mapped;
+        }
+
+        misses.incrementAndGet();
+        synchronized (this) {
+            missCounts.merge(key, 1, Integer::sum);
+        }
+        return null;
+    }
+
+    /**
+     * 写入缓存
+     * @param profile 语音配置
+     * @param text 合成文本
+     * @param audio 完整音频数据
+     */
+    public void put(VoiceProfile profile, String text, byte[] audio) {
+        if (!shouldAdmit(profile, text) || audio == null || audio.length == 0) {
+            return;
+        }
+        String key = keyOf(profile, text);
+        synchronized (this) {
+            missCounts.remove(key);
+        }
+        putInMemory(key, audio);
+        writeToDisk(key, audio);
+    }
+
+    /**
+     * 是否已缓存（不计入命中统计）
+     * @param profile 语音配置
+     * @param text 文本
+     * @return 是否已缓存
+     */
+    public boolean contains(VoiceProfile profile, String text) {
+        if (!isCacheable(text)) {
+            return false;
+        }
+        String key = keyOf(profile, text);
+        synchronized (this) {
+            return memory.containsKey(key) || diskIndex.containsKey(key);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    private synchronized void putInMemory(String key, byte[] audio) {
+        if (audio.length > maxMemoryBytes) {
+            return;
+        }
+        byte[] previous = memory.put(key, audio);
+        if (previous != null) {
+            memoryBytes -= previous.length;
+        }
+        memoryBytes += audio.length;
+
+        Iterator<Map.Entry<String, byte[]>> it = memory.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+            Map.Entry<String, byte[]> eldest = it.next();
+            memoryBytes -= eldest.getValue().length;
+            it.remove();
+        }
+    }
+
+    private ByteBuffer readFromDisk(String key) {
+        if (diskDir == null) {
+            return null;
+        }
+        synchronized (this) {
+            // 同时刷新 LRU 顺序
+            if (diskIndex.get(key) == null) {
+                return null;
+            }
+        }
+        Path file = diskDir.resolve(key + FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return mapped.asReadOnlyBuffer();
+        } catch (IOException e) {
+            // 文件被外部删除：从索引中移除
+            logger.warn("读取 TTS 磁盘缓存失败: {}", file, e);
+            synchronized (this) {
+                Long size = diskIndex.remove(key);
+                if (size != null) {
+                    diskBytes -= size;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] audio) {
+        if (diskDir == null) {
+            return;
+        }
+        if (audio.length > diskMaxBytes) {
+            return;
+        }
+        synchronized (this) {
+            if (diskIndex.containsKey(key)) {
+                return;
+            }
+        }
+        evictFromDisk(audio.length);
+        Path file = diskDir.resolve(key + FILE_SUFFIX);
+        try {
+            // 先写临时文件再原子移动，避免并发读取到半个文件
+            Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+            Files.write(tmp, audio);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            synchronized (this) {
+                Long previous = diskIndex.put(key, (long) audio.length);
+                diskBytes += audio.length - (previous != null ? previous : 0);
+            }
+        } catch (IOException e) {
+            logger.warn("写入 TTS 磁盘缓存失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 按 LRU 删除磁盘文件，直到再写入 incoming 字节后不超过 diskMaxBytes
+     *
+     * @param incoming 即将写入的字节数
+     */
+    private void evictFromDisk(long incoming) {
+        List<String> victims = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Long>> it = diskIndex.entrySet().iterator();
+            while (diskBytes + incoming > diskMaxBytes && it.hasNext()) {
+                Map.Entry<String, Long> eldest = it.next();
+                diskBytes -= eldest.getValue();
+                victims.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String victim : victims) {
+            try {
+                Files.deleteIfExists(diskDir.resolve(victim + FILE_SUFFIX));
+            } catch (IOException e) {
+                logger.warn("删除 TTS 磁盘缓存文件失败: {}", victim, e);
+            }
+        }
+    }
+
+    private static String keyOf(VoiceProfile profile, String text) {
+        String raw = profile.voice() + '|' + profile.format().getCode() + '|' + profile.sampleRate()
+            + '|' + profile.speechRate() + '|' + profile.pitchRate() + '|' + text;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.dotlinea.soulecho.client;
 
+import com.dotlinea.soulecho.constants.AudioFormatEnum;
+
 import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 
@@ -18,4 +20,23 @@ public interface TTSClient {
      * @param audioChunkConsumer 音频数据块，每收到一块音频数据就会被调用
      */
     void synthesize(String text, Consumer<ByteBuffer> audioChunkConsumer);
-}
\ No newline at end of file
+
+    /**
+     * 使用指定语音配置合成语音
+     * @param text 要合成的文本
+     * @param voiceProfile 语音配置，为 null 时使用全局默认配置
+     * @param audioChunkConsumer 音频数据块，每收到一块音频数据就会被调用
+     */
+    void synthesize(String text, VoiceProfile voiceProfile, Consumer<ByteBuffer> audioChunkConsumer);
+
+    /**
+     * 解析语音配置
+     * <p>
+     * 未指定的项使用 tts.* 全局配置补齐
+     * </p>
+     * @param voiceId 角色的发音人 ID，为空时使用默认发音人
+     * @param outputFormat 会话协商的输出格式，为 null 时使用默认格式
+     * @return 完整的语音配置
+     */
+    VoiceProfile resolveVoiceProfile(String voiceId, AudioFormatEnum outputFormat);
+}
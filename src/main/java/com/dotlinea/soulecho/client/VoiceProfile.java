@@ -0,0 +1,29 @@
+package com.dotlinea.soulecho.client;
+
+import com.dotlinea.soulecho.constants.AudioFormatEnum;
+
+/**
+ * TTS 语音配置
+ * <p>
+ * 描述一次语音合成使用的发音人和声学参数。每个 WebSocket 会话在首次合成时
+ * 根据角色的 voiceId 解析一次，之后在该会话的所有句子间复用。
+ * 作为不可变值对象，它同时是合成参数缓存和音频缓存的键。
+ * </p>
+ *
+ * @param voice      发音人（如 xiaoyun）
+ * @param speechRate 语速 -500 到 500
+ * @param pitchRate  语调 -500 到 500
+ * @param format     输出音频格式
+ * @param sampleRate 采样率（8000 或 16000）
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public record VoiceProfile(
+    String voice,
+    int speechRate,
+    int pitchRate,
+    AudioFormatEnum format,
+    int sampleRate
+) {
+}
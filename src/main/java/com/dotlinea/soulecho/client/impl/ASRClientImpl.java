@@ -1,34 +1,57 @@
 package com.dotlinea.soulecho.client.impl;
 
-import com.alibaba.nls.client.AccessToken;
 import com.alibaba.nls.client.protocol.InputFormatEnum;
-import com.alibaba.nls.client.protocol.NlsClient;
 import com.alibaba.nls.client.protocol.SampleRateEnum;
 import com.alibaba.nls.client.protocol.asr.SpeechTranscriber;
 import com.alibaba.nls.client.protocol.asr.SpeechTranscriberListener;
 import com.alibaba.nls.client.protocol.asr.SpeechTranscriberResponse;
 import com.dotlinea.soulecho.client.ASRClient;
+import com.dotlinea.soulecho.client.ASRConnectionManager;
 import com.dotlinea.soulecho.exception.ASRException;
+import com.dotlinea.soulecho.exception.CircuitOpenException;
+import com.dotlinea.soulecho.exception.UpstreamBusyException;
+import com.dotlinea.soulecho.resilience.AdaptiveConcurrencyLimiter;
+import com.dotlinea.soulecho.resilience.UpstreamCircuitBreakers;
+import com.dotlinea.soulecho.resilience.UpstreamLimiters;
+import com.dotlinea.soulecho.trace.TurnStage;
+import com.dotlinea.soulecho.trace.TurnTrace;
+import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
-import javax.annotation.PostConstruct;
 import java.io.InputStream;
+import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 阿里云实时语音识别 (ASR) 客户端实现
  * <p>
  * 通过阿里云智能语音交互 (NLS) SDK 实现完整的音频流识别功能
  * </p>
+ * <p>
+ * NlsClient 与 Token 由 {@link ASRConnectionManager} 统一管理（Token 按过期时间主动刷新），
+ * 每次识别前需获取会话配额，识别结束后归还。
+ * </p>
+ * <p>
+ * 识别生命周期完全由回调驱动：音频在 asrExecutor 中发送完毕即释放线程，
+ * transcriber 在 onTranscriptionComplete / onFail 或超时时关闭，没有线程阻塞等待识别结果。
+ * </p>
  *
  * @author fanfan187
  * @version v1.0.0
  * @since v1.0.0
  */
 @Component
+@RequiredArgsConstructor
 public class ASRClientImpl implements ASRClient {
 
     private static final Logger logger = LoggerFactory.getLogger(ASRClientImpl.class);
@@ -38,140 +61,189 @@ public class ASRClientImpl implements ASRClient {
      */
     private static final int CHUNK_SIZE = 3200;
 
-    @Value("${asr.service.url}")
-    private String asrServiceUrl;
+    private final ASRConnectionManager connectionManager;
 
-    @Value("${asr.api.key}")
-    private String apiKey;
+    private final UpstreamLimiters upstreamLimiters;
 
-    @Value("${asr.api.secret}")
-    private String apiSecret;
+    private final UpstreamCircuitBreakers circuitBreakers;
+
+    /**
+     * ASR 专用线程池（仅用于发送音频，不等待识别结果）
+     */
+    @Qualifier("asrExecutor")
+    private final Executor asrExecutor;
+
+    /**
+     * 共享超时调度器
+     */
+    @Qualifier("timeoutScheduler")
+    private final TaskScheduler timeoutScheduler;
 
     @Value("${asr.app.key}")
     private String appKey;
 
-    private NlsClient nlsClient;
+    @Value("${asr.recognition.timeout-ms:10000}")
+    private long recognitionTimeoutMs;
 
-    @PostConstruct
-    public void init() {
-        try {
-            // 使用 AccessKeyId 和 AccessKeySecret 获取 Token
-            AccessToken accessToken = new AccessToken(apiKey, apiSecret);
-            accessToken.apply();
-            String token = accessToken.getToken();
-
-            logger.info("ASR Token获取成功，过期时间: {}", accessToken.getExpireTime());
-
-            // 使用 Token 初始化 NLS 客户端
-            // 如果配置了服务URL，使用指定URL；否则使用默认URL
-            if (asrServiceUrl != null && !asrServiceUrl.trim().isEmpty()) {
-                nlsClient = new NlsClient(asrServiceUrl, token);
-                logger.info("ASR 客户端初始化成功，ServiceURL: {}, AppKey: {}", asrServiceUrl, appKey);
-            } else {
-                nlsClient = new NlsClient(token);
-                logger.info("ASR 客户端初始化成功（使用默认URL），AppKey: {}", appKey);
-            }
-        } catch (Exception e) {
-            logger.error("ASR 客户端初始化失败", e);
-            throw new RuntimeException("ASR 客户端初始化失败", e);
-        }
+    @Override
+    public CompletableFuture<String> recognizeAsync(InputStream audioStream) {
+        return recognizeAsync(audioStream, null);
     }
 
     @Override
-    public CompletableFuture<String> recognizeAsync(InputStream audioStream) {
+    public CompletableFuture<String> recognizeAsync(InputStream audioStream, TurnTrace trace) {
         if (audioStream == null) {
             logger.warn("接收到空的音频流");
             return CompletableFuture.completedFuture(null);
         }
 
+        // 并发已满时以 UpstreamBusyException 快速失败，由调用方通知客户端繁忙
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = upstreamLimiters.acquire(UpstreamLimiters.ASR);
+        } catch (UpstreamBusyException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // 熔断期间不建立识别会话，立即失败
+        if (!circuitBreakers.tryAcquirePermission(UpstreamLimiters.ASR)) {
+            permit.cancel();
+            return CompletableFuture.failedFuture(new CircuitOpenException(UpstreamLimiters.ASR));
+        }
+        long startNanos = System.nanoTime();
+
         // 创建异步结果容器
         var resultFuture = new CompletableFuture<String>();
         var fullText = new StringBuilder();
+        var recognition = new Recognition(resultFuture, audioStream);
 
-        // 添加CountDownLatch用于等待回调完成
-        var callbackLatch = new java.util.concurrent.CountDownLatch(1);
-
-        // 在独立线程中执行音频发送逻辑，避免阻塞调用线程
-        CompletableFuture.runAsync(() -> {
-            SpeechTranscriber transcriber = null;
+        // 结果完成（成功、失败或超时）时统一释放识别资源与并发许可，之后才把结果交给调用方：
+        // 调用方的后续处理（LLM、TTS）不会持有 ASR 会话配额与并发许可，熔断器也只统计识别本身的耗时。
+        // 结果由 NLS SDK 回调线程完成，transcriber 的关闭转到 ASR 线程池执行，不在它自己的回调线程上进行
+        var deliveredFuture = new CompletableFuture<String>();
+        resultFuture.whenComplete((text, throwable) -> runOffCallbackThread(() -> {
             try {
-                // 创建实时语音识别对象
-                transcriber = new SpeechTranscriber(nlsClient, getTranscriberListener(resultFuture, fullText, callbackLatch));
-
-                // 设置识别参数
-                transcriber.setAppKey(appKey);
-                transcriber.setFormat(InputFormatEnum.PCM);
-                transcriber.setSampleRate(SampleRateEnum.SAMPLE_RATE_16K);
-                transcriber.setEnableIntermediateResult(true);
-
-                logger.debug("开始实时语音识别任务");
-
-                // 启动识别会话
-                transcriber.start();
-
-                // 从输入流循环读取音频数据并发送
-                byte[] buffer = new byte[CHUNK_SIZE];
-                int bytesRead;
-                while ((bytesRead = audioStream.read(buffer)) != -1) {
-                    if (bytesRead > 0) {
-                        // 发送音频数据到阿里云
-                        byte[] audioData = new byte[bytesRead];
-                        System.arraycopy(buffer, 0, audioData, 0, bytesRead);
-                        transcriber.send(audioData);
-                        logger.trace("发送音频数据块，大小: {} bytes", bytesRead);
-                    }
+                recognition.release();
+                permit.release(throwable != null);
+                circuitBreakers.onResult(UpstreamLimiters.ASR, startNanos, throwable != null);
+            } finally {
+                if (throwable != null) {
+                    deliveredFuture.completeExceptionally(throwable);
+                } else {
+                    deliveredFuture.complete(text);
                 }
+            }
+        }));
 
-                // 通知识别结束
-                transcriber.stop();
-                logger.debug("音频流发送完毕，等待识别结果回调");
+        // 识别超时保护：由共享调度器触发，避免回调丢失时资源永久占用
+        recognition.timeoutTask = timeoutScheduler.schedule(() -> {
+            if (resultFuture.completeExceptionally(new ASRException(
+                    "语音识别超时（" + recognitionTimeoutMs + "ms）", 504, "RECOGNITION_TIMEOUT"))) {
+                logger.warn("ASR 识别超时（{}ms），强制关闭 transcriber", recognitionTimeoutMs);
+            }
+        }, Instant.now().plusMillis(recognitionTimeoutMs));
 
-            } catch (Exception e) {
-                logger.error("语音识别过程中发生异常", e);
-                resultFuture.completeExceptionally(e);
-            } finally {
-                // 清理资源
-                if (transcriber != null) {
-                    try {
-                        // 等待回调完成（从2秒增加到5秒）
-                        logger.debug("等待ASR回调完成...");
-                        boolean completed = callbackLatch.await(5, java.util.concurrent.TimeUnit.SECONDS);
-                        if (!completed) {
-                            logger.warn("ASR回调等待超时（5秒），强制关闭transcriber");
-                        }
-                        transcriber.close();
-                    } catch (Exception e) {
-                        logger.warn("关闭 SpeechTranscriber 时发生异常", e);
-                    }
-                }
-                // 关闭输入流
-                try {
-                    audioStream.close();
-                } catch (Exception e) {
-                    logger.warn("关闭音频流时发生异常", e);
+        try {
+            // 在 ASR 专用线程池中发送音频，发送完毕即返回，不等待识别结果
+            asrExecutor.execute(() -> sendAudio(recognition, fullText, trace));
+        } catch (RejectedExecutionException e) {
+            logger.warn("ASR 线程池已满，拒绝本次识别");
+            resultFuture.completeExceptionally(new ASRException("ASR 线程池已满", 40000005, "TOO_MANY_REQUESTS", e));
+        }
+
+        // 立即返回 Future，不阻塞当前线程
+        return deliveredFuture;
+    }
+
+    /**
+     * 在 ASR 线程池中执行收尾任务，线程池已满时退回当前线程执行，保证资源一定被释放
+     */
+    private void runOffCallbackThread(Runnable task) {
+        try {
+            asrExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("ASR 线程池已满，在当前线程释放识别资源");
+            task.run();
+        }
+    }
+
+    /**
+     * 建立识别会话并发送音频数据
+     * <p>
+     * 音频发送完毕后调用 stop() 即返回，最终结果由 onTranscriptionComplete / onFail 回调交付，
+     * transcriber 的关闭与配额归还在结果完成时进行。
+     * </p>
+     *
+     * @param recognition 识别上下文
+     * @param fullText 用于累积完整文本的 StringBuilder
+     * @param trace 对话轮次追踪（可为 null）
+     */
+    private void sendAudio(Recognition recognition, StringBuilder fullText, TurnTrace trace) {
+        CompletableFuture<String> resultFuture = recognition.resultFuture;
+        try {
+            // 获取识别会话配额（同时拿到当前 Token 对应的共享 NlsClient）
+            ASRConnectionManager.Lease lease = connectionManager.acquire();
+            recognition.lease.set(lease);
+            if (resultFuture.isDone()) {
+                // 排队期间已超时
+                return;
+            }
+
+            // 创建实时语音识别对象
+            SpeechTranscriber transcriber = new SpeechTranscriber(lease.client(),
+                getTranscriberListener(resultFuture, fullText, trace));
+            recognition.transcriber.set(transcriber);
+
+            // 设置识别参数
+            transcriber.setAppKey(appKey);
+            transcriber.setFormat(InputFormatEnum.PCM);
+            transcriber.setSampleRate(SampleRateEnum.SAMPLE_RATE_16K);
+            transcriber.setEnableIntermediateResult(true);
+
+            logger.debug("开始实时语音识别任务");
+
+            // 启动识别会话
+            transcriber.start();
+
+            // 从输入流循环读取音频数据并发送
+            InputStream audioStream = recognition.audioStream;
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int bytesRead;
+            while (!resultFuture.isDone() && (bytesRead = audioStream.read(buffer)) != -1) {
+                if (bytesRead > 0) {
+                    // 发送音频数据到阿里云
+                    byte[] audioData = new byte[bytesRead];
+                    System.arraycopy(buffer, 0, audioData, 0, bytesRead);
+                    transcriber.send(audioData);
+                    logger.trace("发送音频数据块，大小: {} bytes", bytesRead);
                 }
             }
-        }).exceptionally(throwable -> {
-            logger.error("异步音频发送任务失败", throwable);
-            resultFuture.completeExceptionally(throwable);
-            return null;
-        });
 
-        // 立即返回 Future，不阻塞当前线程
-        return resultFuture;
+            // 通知识别结束
+            if (!resultFuture.isDone()) {
+                transcriber.stop();
+                logger.debug("音频流发送完毕，等待识别结果回调");
+            }
+
+        } catch (Exception e) {
+            logger.error("语音识别过程中发生异常", e);
+            resultFuture.completeExceptionally(e);
+        } finally {
+            // 结果已完成时补充释放发送阶段才获取到的资源
+            recognition.release();
+        }
     }
 
     /**
      * 创建语音识别监听器
      * @param resultFuture 用于传递识别结果的 Future
      * @param fullText 用于累积完整文本的 StringBuilder
-     * @param callbackLatch 用于通知回调完成的 CountDownLatch
+     * @param trace 对话轮次追踪（可为 null）
      * @return 识别监听器
      */
     private SpeechTranscriberListener getTranscriberListener(
             CompletableFuture<String> resultFuture,
             StringBuilder fullText,
-            java.util.concurrent.CountDownLatch callbackLatch) {
+            TurnTrace trace) {
         return new SpeechTranscriberListener() {
             @Override
             public void onTranscriberStart(SpeechTranscriberResponse response) {
@@ -189,6 +261,7 @@ public class ASRClientImpl implements ASRClient {
                 String sentenceText = response.getTransSentenceText();
                 logger.info("ASR onSentenceEnd - 文本: '{}', fullText长度: {}", sentenceText, fullText.length());
                 if (sentenceText != null && !sentenceText.isEmpty()) {
+                    markTrace(trace, TurnStage.ASR_FIRST_RESULT);
                     fullText.append(sentenceText);
                     logger.debug("句子识别结果: {}", sentenceText);
                 }
@@ -196,7 +269,8 @@ public class ASRClientImpl implements ASRClient {
 
             @Override
             public void onTranscriptionResultChange(SpeechTranscriberResponse response) {
-                // 中间结果变化，仅用于调试
+                // 中间结果变化，仅用于调试和耗时追踪
+                markTrace(trace, TurnStage.ASR_FIRST_RESULT);
                 logger.trace("识别中间结果: {}", response.getTransSentenceText());
             }
 
@@ -205,9 +279,9 @@ public class ASRClientImpl implements ASRClient {
                 // 识别完成，返回最终结果
                 String finalText = fullText.toString();
                 logger.info("ASR onTranscriptionComplete - 最终结果: '{}', 长度: {}", finalText, finalText.length());
+                markTrace(trace, TurnStage.ASR_FINAL_RESULT);
+                // 完成结果即触发 transcriber 关闭与配额归还
                 resultFuture.complete(finalText);
-                // 通知回调完成
-                callbackLatch.countDown();
             }
 
             @Override
@@ -232,10 +306,70 @@ public class ASRClientImpl implements ASRClient {
                     logger.error("认证失败，请检查 AccessKey 配置是否正确");
                 }
 
+                // 完成结果即触发 transcriber 关闭与配额归还
                 resultFuture.completeExceptionally(asrException);
-                // 通知回调完成（即使失败也要释放锁）
-                callbackLatch.countDown();
             }
         };
     }
-}
\ No newline at end of file
+
+    private static void markTrace(TurnTrace trace, TurnStage stage) {
+        if (trace != null) {
+            trace.mark(stage);
+        }
+    }
+
+    /**
+     * 单次识别的上下文
+     * <p>
+     * 汇总一次识别持有的全部资源。结果完成后，结果回调与发送线程都会调用 {@link #release()}，
+     * 每项资源通过 getAndSet 保证只释放一次，且不会遗漏在结果完成之后才获取到的资源。
+     * </p>
+     */
+    private static final class Recognition {
+
+        private final CompletableFuture<String> resultFuture;
+        private final InputStream audioStream;
+        private final AtomicReference<ASRConnectionManager.Lease> lease = new AtomicReference<>();
+        private final AtomicReference<SpeechTranscriber> transcriber = new AtomicReference<>();
+        private final AtomicBoolean streamClosed = new AtomicBoolean(false);
+
+        private volatile ScheduledFuture<?> timeoutTask;
+
+        private Recognition(CompletableFuture<String> resultFuture, InputStream audioStream) {
+            this.resultFuture = resultFuture;
+            this.audioStream = audioStream;
+        }
+
+        /**
+         * 释放识别资源（仅在结果完成后生效，可重复调用）
+         */
+        private void release() {
+            if (!resultFuture.isDone()) {
+                return;
+            }
+            ScheduledFuture<?> timeout = timeoutTask;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            SpeechTranscriber current = transcriber.getAndSet(null);
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (Exception e) {
+                    logger.warn("关闭 SpeechTranscriber 时发生异常", e);
+                }
+            }
+            ASRConnectionManager.Lease currentLease = lease.getAndSet(null);
+            if (currentLease != null) {
+                currentLease.close();
+            }
+            if (streamClosed.compareAndSet(false, true)) {
+                try {
+                    audioStream.close();
+                } catch (Exception e) {
+                    logger.warn("关闭音频流时发生异常", e);
+                }
+            }
+        }
+    }
+}
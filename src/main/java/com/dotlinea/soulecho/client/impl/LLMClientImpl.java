@@ -1,16 +1,33 @@
 package com.dotlinea.soulecho.client.impl;
 
 import com.dotlinea.soulecho.client.LLMClient;
+import com.dotlinea.soulecho.client.LLMResponseCache;
+import com.dotlinea.soulecho.client.ModelRouter;
+import com.dotlinea.soulecho.client.PromptAssembler;
+import com.dotlinea.soulecho.constants.FallbackReplyConstants;
+import com.dotlinea.soulecho.exception.UpstreamBusyException;
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import com.dotlinea.soulecho.resilience.AdaptiveConcurrencyLimiter;
+import com.dotlinea.soulecho.resilience.HedgeBudget;
+import com.dotlinea.soulecho.resilience.UpstreamCircuitBreakers;
+import com.dotlinea.soulecho.resilience.UpstreamLimiters;
 import com.dotlinea.soulecho.service.KnowledgeService;
+import com.dotlinea.soulecho.trace.TurnStage;
+import com.dotlinea.soulecho.trace.TurnTraceHolder;
 import com.alibaba.dashscope.aigc.generation.Generation;
 import com.alibaba.dashscope.aigc.generation.GenerationParam;
 import com.alibaba.dashscope.aigc.generation.GenerationResult;
 import com.alibaba.dashscope.common.Message;
-import com.alibaba.dashscope.common.Role;
 import com.alibaba.dashscope.exception.ApiException;
 import com.alibaba.dashscope.exception.InputRequiredException;
 import com.alibaba.dashscope.exception.NoApiKeyException;
+import com.alibaba.dashscope.protocol.Protocol;
+import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,8 +35,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
@@ -34,6 +53,23 @@ public class LLMClientImpl implements LLMClient {
 
     private static final Logger logger = LoggerFactory.getLogger(LLMClientImpl.class);
 
+    /**
+     * 快模型开场句的句末标点
+     */
+    private static final String OPENER_DELIMITERS = "。！？!?～~\n";
+
+    /**
+     * 一次流式调用的结果
+     */
+    private enum CallOutcome {
+        /** 上游正常返回（含配置类错误，与上游健康无关） */
+        SUCCEEDED,
+        /** 上游调用失败，缩减并发上限并计入熔断 */
+        FAILED,
+        /** 候选模型全部熔断，没有真正调用上游，不反馈给限流与熔断 */
+        SKIPPED
+    }
+
     @Value("${llm.api.key}")
     private String apiKey;
 
@@ -46,9 +82,68 @@ public class LLMClientImpl implements LLMClient {
     @Value("${llm.temperature:0.8}")
     private Float temperature;
 
+    /**
+     * DashScope 接口地址，为空时使用 SDK 默认地址（本地替身或代理时配置，如 http://localhost:9090/api/v1）
+     */
+    @Value("${llm.base-url:}")
+    private String baseUrl;
+
+    /**
+     * 快模型开场句的最大长度，超过后即使没有句末标点也截断交给主模型续写
+     */
+    @Value("${llm.router.opener-max-chars:40}")
+    private int openerMaxChars;
+
+    @Value("${llm.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    /**
+     * 对冲延迟取最近首包耗时的该分位数
+     */
+    @Value("${llm.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${llm.hedge.min-samples:20}")
+    private int hedgeMinSamples;
+
+    @Value("${llm.hedge.min-delay-ms:500}")
+    private long hedgeMinDelayMs;
+
+    @Value("${llm.hedge.max-delay-ms:3000}")
+    private long hedgeMaxDelayMs;
+
+    /**
+     * 对冲请求占普通请求的最大比例
+     */
+    @Value("${llm.hedge.max-rate:0.1}")
+    private double hedgeMaxRate;
+
+    @Value("${llm.hedge.max-burst:5}")
+    private int hedgeMaxBurst;
+
+    private HedgeBudget hedgeBudget;
+
     @Autowired
     private KnowledgeService knowledgeService;
 
+    @Autowired
+    private UpstreamLimiters upstreamLimiters;
+
+    @Autowired
+    private UpstreamCircuitBreakers circuitBreakers;
+
+    @Autowired
+    private LLMResponseCache responseCache;
+
+    @Autowired
+    private PromptAssembler promptAssembler;
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private ChatMetrics chatMetrics;
+
     private Generation generation;
 
     /**
@@ -65,7 +160,13 @@ public class LLMClientImpl implements LLMClient {
     public void init() {
         try {
             logger.info("初始化阿里云LLM客户端...");
-            generation = new Generation();
+            if (baseUrl != null && !baseUrl.trim().isEmpty()) {
+                generation = new Generation(Protocol.HTTP.getValue(), baseUrl.trim());
+                logger.info("阿里云LLM客户端使用自定义接口地址: {}", baseUrl);
+            } else {
+                generation = new Generation();
+            }
+            hedgeBudget = new HedgeBudget(hedgeMaxRate, hedgeMaxBurst);
             logger.info("阿里云LLM客户端初始化成功，使用模型: {}", modelName);
         } catch (Exception e) {
             logger.error("阿里云LLM客户端初始化失败", e);
@@ -79,26 +180,12 @@ public class LLMClientImpl implements LLMClient {
      * @param history 历史对话
      * @param newText 新输入的文本
      * @param chunkConsumer 文本块消费者，每收到一块文本就会被调用
+     * @throws UpstreamBusyException LLM 并发已满，未发起调用
      */
     @Override
     public void chatStream(String personaPrompt, List<String> history, String newText, Consumer<String> chunkConsumer) {
-        if (newText == null || newText.trim().isEmpty()) {
-            logger.warn("接收到空的用户输入");
-            return;
-        }
-
-        if (chunkConsumer == null) {
-            logger.warn("文本块消费者为空");
-            return;
-        }
-
-        try {
-            List<Message> messages = buildMessages(personaPrompt, history, newText);
-            callAliyunLLMStream(messages, chunkConsumer);
-        } catch (Exception e) {
-            logger.error("LLM流式对话处理失败", e);
-            chunkConsumer.accept("抱歉，我现在无法回应您的消息，请稍后再试。");
-        }
+        // 不传角色名称即不做知识库检索，并发限制与熔断逻辑相同
+        chatStream(personaPrompt, history, newText, null, chunkConsumer);
     }
 
     /**
@@ -108,6 +195,7 @@ public class LLMClientImpl implements LLMClient {
      * @param newText 新输入的文本
      * @param characterName 角色名称（用于知识库检索）
      * @param chunkConsumer 文本块消费者，每收到一块文本就会被调用
+     * @throws UpstreamBusyException LLM 并发已满且未命中回复缓存，未发起调用
      */
     @Override
     public void chatStream(String personaPrompt, List<String> history, String newText, String characterName, Consumer<String> chunkConsumer) {
@@ -121,165 +209,516 @@ public class LLMClientImpl implements LLMClient {
             return;
         }
 
+        // 先路由：缓存键包含本轮实际使用的模型与是否由快模型开场
+        ModelRouter.Route route = modelRouter.route(characterName, history, newText);
+
+        // 首轮等浅历史对话先查回复缓存，命中时不占用并发名额，熔断期间也能回放
+        boolean cacheable = responseCache.isCacheable(history, newText);
+        List<String> knowledgeChunks = null;
+        if (cacheable) {
+            knowledgeChunks = retrieveKnowledge(characterName, newText);
+            String cached = responseCache.get(responseCache.keyOf(route.primary(), route.fastOpener(),
+                characterName, personaPrompt, knowledgeChunks, newText));
+            if (cached != null) {
+                logger.debug("命中LLM回复缓存，长度: {}", cached.length());
+                responseCache.replay(cached, chunkConsumer);
+                return;
+            }
+        }
+
+        // 并发已满时直接抛出，由调用方通知客户端繁忙
+        AdaptiveConcurrencyLimiter.Permit permit = upstreamLimiters.acquire(UpstreamLimiters.LLM);
+        // 熔断期间不访问上游，立即返回兜底回复
+        if (!circuitBreakers.tryAcquirePermission(UpstreamLimiters.LLM)) {
+            permit.cancel();
+            logger.warn("LLM 已熔断，直接返回兜底回复");
+            chunkConsumer.accept(FallbackReplyConstants.LLM_UNAVAILABLE);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        CallOutcome outcome = CallOutcome.FAILED;
         try {
-            // 从知识库检索相关信息
-            List<String> knowledgeChunks = null;
-            if (characterName != null && !characterName.trim().isEmpty()) {
-                try {
-                    knowledgeChunks = knowledgeService.search(characterName, newText);
-                    logger.debug("为角色 {} 检索到 {} 条相关知识片段", characterName,
-                        knowledgeChunks != null ? knowledgeChunks.size() : 0);
-                } catch (Exception e) {
-                    logger.warn("知识库检索失败，使用普通模式继续对话", e);
-                    knowledgeChunks = null;
-                }
+            if (!cacheable) {
+                knowledgeChunks = retrieveKnowledge(characterName, newText);
             }
 
-            List<Message> messages = buildMessages(personaPrompt, history, newText, knowledgeChunks);
-            callAliyunLLMStream(messages, chunkConsumer);
+            List<Message> messages = promptAssembler.assemble(personaPrompt, characterName, history, knowledgeChunks, newText);
+            AtomicReference<String> servedModel = new AtomicReference<>();
+            if (cacheable) {
+                StringBuilder reply = new StringBuilder();
+                outcome = callAliyunLLMStream(route, messages, chunk -> {
+                    reply.append(chunk);
+                    chunkConsumer.accept(chunk);
+                }, servedModel);
+                if (outcome == CallOutcome.SUCCEEDED && servedModel.get() != null) {
+                    // 按实际回复的模型写入，切换到备用模型时不会污染首选模型的条目
+                    responseCache.put(responseCache.keyOf(servedModel.get(), route.fastOpener(),
+                        characterName, personaPrompt, knowledgeChunks, newText), reply.toString());
+                }
+            } else {
+                outcome = callAliyunLLMStream(route, messages, chunkConsumer, servedModel);
+            }
         } catch (Exception e) {
             logger.error("LLM流式对话处理失败", e);
-            chunkConsumer.accept("抱歉，我现在无法回应您的消息，请稍后再试。");
+            chunkConsumer.accept(FallbackReplyConstants.LLM_UNAVAILABLE);
+        } finally {
+            if (outcome == CallOutcome.SKIPPED) {
+                permit.cancel();
+                circuitBreakers.releasePermission(UpstreamLimiters.LLM);
+            } else {
+                boolean upstreamFailed = outcome == CallOutcome.FAILED;
+                permit.release(upstreamFailed);
+                circuitBreakers.onResult(UpstreamLimiters.LLM, startNanos, upstreamFailed);
+            }
         }
     }
 
     /**
-     * 构建消息列表
-     * <p>
-     * 该方法用于构建消息列表，将角色描述、历史对话和用户输入的文本构建成消息列表。
-     * </p>
-     *
-     * @param personaPrompt 角色描述
-     * @param history       历史对话
-     * @param newText       新输入的文本
-     * @return 消息列表
+     * 从知识库检索相关信息（未指定角色或检索熔断期间直接跳过）
+     * @param characterName 角色名称
+     * @param newText 用户输入
+     * @return 相关知识片段，跳过或失败时返回 null
      */
-    private List<Message> buildMessages(String personaPrompt, List<String> history, String newText) {
-        return buildMessages(personaPrompt, history, newText, null);
+    private List<String> retrieveKnowledge(String characterName, String newText) {
+        if (characterName == null || characterName.trim().isEmpty()
+            || circuitBreakers.isOpen(UpstreamCircuitBreakers.RETRIEVAL)) {
+            return null;
+        }
+        TurnTraceHolder.mark(TurnStage.RETRIEVAL_START);
+        try {
+            List<String> knowledgeChunks = knowledgeService.search(characterName, newText);
+            logger.debug("为角色 {} 检索到 {} 条相关知识片段", characterName,
+                knowledgeChunks != null ? knowledgeChunks.size() : 0);
+            return knowledgeChunks;
+        } catch (Exception e) {
+            logger.warn("知识库检索失败，使用普通模式继续对话", e);
+            return null;
+        } finally {
+            TurnTraceHolder.mark(TurnStage.RETRIEVAL_END);
+        }
     }
 
     /**
-     * 构建消息列表（支持知识库增强）
+     * 调用阿里云大语言模型（LLM）流式接口
      * <p>
-     * 该方法用于构建消息列表，将角色描述、历史对话、知识库信息和用户输入的文本构建成消息列表。
-     * 如果知识库片段不为空，会将其作为系统消息插入到对话中。
+     * 按路由结果依次尝试候选模型：尚未输出任何内容时失败（或模型熔断中）切换到下一个模型，
+     * 已输出部分内容后失败则追加兜底回复。开启快模型开场时，先由快模型生成第一句，主模型接着往下写。
      * </p>
      *
-     * @param personaPrompt    角色描述
-     * @param history          历史对话
-     * @param newText          新输入的文本
-     * @param knowledgeChunks  知识库检索到的相关片段
-     * @return 消息列表
+     * @param route 本轮路由结果
+     * @param messages 用户与系统的对话消息列表
+     * @param chunkConsumer 文本块消费者
+     * @param servedModel 成功时写入实际完成回复的模型
+     * @return 调用结果：FAILED 表示上游调用失败（API 异常或未知异常），SKIPPED 表示候选模型全部熔断、未调用上游
      */
-    private List<Message> buildMessages(String personaPrompt, List<String> history, String newText, List<String> knowledgeChunks) {
-        List<Message> messages = new ArrayList<>();
-
-        // 1. 首先添加角色描述
-        if (personaPrompt != null && !personaPrompt.trim().isEmpty()) {
-            messages.add(Message.builder()
-                .role(Role.SYSTEM.getValue())
-                .content(personaPrompt)
-                .build());
+    private CallOutcome callAliyunLLMStream(ModelRouter.Route route, List<Message> messages, Consumer<String> chunkConsumer,
+                                            AtomicReference<String> servedModel) {
+        List<Message> mainMessages = messages;
+        if (route.fastOpener()) {
+            String opener = streamOpener(messages);
+            if (opener != null) {
+                chunkConsumer.accept(opener);
+                mainMessages = promptAssembler.continueAfter(messages, opener);
+            }
         }
 
-        // 2. 添加历史对话
-        if (history != null && !history.isEmpty()) {
-            boolean isUser = true;
-            for (String historyItem : history) {
-                if (historyItem != null && !historyItem.trim().isEmpty()) {
-                    messages.add(Message.builder()
-                        .role(isUser ? Role.USER.getValue() : Role.ASSISTANT.getValue())
-                        .content(historyItem.trim())
-                        .build());
-                    isUser = !isUser;
+        Exception lastFailure = null;
+        for (String model : route.models()) {
+            if (!modelRouter.tryAcquire(model)) {
+                logger.debug("模型 {} 熔断中，跳过", model);
+                continue;
+            }
+            long startNanos = System.nanoTime();
+            AtomicBoolean emitted = new AtomicBoolean();
+            try {
+                streamModel(model, mainMessages, content -> {
+                    if (emitted.compareAndSet(false, true)) {
+                        modelRouter.onFirstChunk(model, startNanos);
+                    }
+                    // 立即将文本块传递出去
+                    chunkConsumer.accept(content);
+                });
+                modelRouter.onResult(model, startNanos, false);
+                servedModel.set(model);
+                logger.info("LLM流式生成完成，模型: {}", model);
+                return CallOutcome.SUCCEEDED;
+
+            } catch (NoApiKeyException e) {
+                modelRouter.onResult(model, startNanos, false);
+                logger.error("API密钥未配置或无效", e);
+                chunkConsumer.accept(FallbackReplyConstants.LLM_CONFIG_ERROR);
+                return CallOutcome.SUCCEEDED;
+            } catch (InputRequiredException e) {
+                modelRouter.onResult(model, startNanos, false);
+                logger.error("输入参数不完整", e);
+                chunkConsumer.accept(FallbackReplyConstants.LLM_INPUT_REQUIRED);
+                return CallOutcome.SUCCEEDED;
+            } catch (Exception e) {
+                modelRouter.onResult(model, startNanos, true);
+                lastFailure = e;
+                if (emitted.get()) {
+                    // 已经输出了部分内容，换模型会重复开头
+                    break;
                 }
+                logger.warn("模型 {} 调用失败，尝试下一个候选模型: {}", model, e.getMessage());
             }
         }
 
-        // 3. 添加知识库信息（如果有）
-        if (knowledgeChunks != null && !knowledgeChunks.isEmpty()) {
-            StringBuilder knowledgeContext = new StringBuilder();
-            knowledgeContext.append("你必须参考以下信息来回答：\n\n");
+        if (lastFailure instanceof ApiException e) {
+            logger.error("阿里云API调用异常，错误码: {}, 错误信息: {}",
+                e.getStatus().getStatusCode(), e.getMessage(), e);
+            chunkConsumer.accept(FallbackReplyConstants.LLM_API_ERROR);
+        } else if (lastFailure != null) {
+            logger.error("LLM流式调用发生未知异常", lastFailure);
+            chunkConsumer.accept(FallbackReplyConstants.LLM_UNKNOWN_ERROR);
+        } else {
+            logger.warn("所有候选模型均已熔断: {}", route.models());
+            chunkConsumer.accept(FallbackReplyConstants.LLM_UNAVAILABLE);
+            return CallOutcome.SKIPPED;
+        }
+        return CallOutcome.FAILED;
+    }
 
-            for (int i = 0; i < knowledgeChunks.size(); i++) {
-                knowledgeContext.append(i + 1).append(". ").append(knowledgeChunks.get(i)).append("\n\n");
-            }
+    /**
+     * 由快模型生成回复的第一句，得到完整的一句后立即取消流式请求
+     *
+     * @param messages 本轮消息列表
+     * @return 第一句回复，失败或为空时返回 null（由主模型生成完整回复）
+     */
+    private String streamOpener(List<Message> messages) {
+        String model = modelRouter.getFastModel();
+        if (!modelRouter.tryAcquire(model)) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        StringBuilder buffer = new StringBuilder();
+        try {
+            // takeUntil 在上游线程上判断，满足条件后立即取消请求，不再等待快模型写完整个回复
+            generation.streamCall(buildParam(model, messages))
+                .map(LLMClientImpl::contentOf)
+                .takeUntil(content -> {
+                    if (buffer.isEmpty() && !content.isEmpty()) {
+                        modelRouter.onFirstChunk(model, startNanos);
+                    }
+                    buffer.append(content);
+                    return openerEnd(buffer) > 0;
+                })
+                .blockingSubscribe();
+            modelRouter.onResult(model, startNanos, false);
+        } catch (Exception e) {
+            modelRouter.onResult(model, startNanos, true);
+            logger.warn("快模型 {} 生成开场失败，由主模型生成完整回复: {}", model, e.getMessage());
+            return null;
+        }
 
-            knowledgeContext.append("请基于以上信息，结合你的角色设定来回答用户的问题。");
+        int end = openerEnd(buffer);
+        String opener = (end > 0 ? buffer.substring(0, end) : buffer.toString()).trim();
+        logger.debug("快模型 {} 生成开场: {}", model, opener);
+        return opener.isEmpty() ? null : opener;
+    }
 
-            messages.add(Message.builder()
-                .role(Role.SYSTEM.getValue())
-                .content(knowledgeContext.toString())
-                .build());
+    /**
+     * 开场句的结束位置（句末标点之后，或达到长度上限），尚未结束返回 -1
+     */
+    private int openerEnd(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (OPENER_DELIMITERS.indexOf(text.charAt(i)) >= 0) {
+                return i + 1;
+            }
+        }
+        return text.length() >= openerMaxChars ? openerMaxChars : -1;
+    }
 
-            logger.debug("已添加知识库上下文，包含 {} 条相关信息", knowledgeChunks.size());
+    /**
+     * 以流式方式调用指定模型，逐块回调文本
+     * <p>
+     * 开启对冲时，若在首包耗时分位数对应的延迟内仍未收到首包，再发起一个相同的请求，
+     * 两路中先返回首包的一路继续输出，另一路被取消。规则见 {@link #raceWithHedge}。
+     * </p>
+     */
+    private void streamModel(String model, List<Message> messages, Consumer<String> contentConsumer)
+            throws NoApiKeyException, InputRequiredException {
+        logger.debug("调用阿里云LLM流式接口，模型: {}, 消息数量: {}", model, messages.size());
+
+        // 调用流式接口
+        GenerationParam param = buildParam(model, messages);
+        Flowable<String> stream = generation.streamCall(param)
+            .map(LLMClientImpl::contentOf)
+            .filter(content -> !content.isEmpty());
+
+        long hedgeDelayMs = hedgeDelayMs(model);
+        if (hedgeDelayMs > 0) {
+            stream = raceWithHedge(stream, hedgedStream(model, param, hedgeDelayMs), hedgeDelayMs,
+                Schedulers.computation());
         }
 
-        // 4. 添加用户当前问题
-        messages.add(Message.builder()
-            .role(Role.USER.getValue())
-            .content(newText.trim())
-            .build());
+        // 订阅流式结果，逐块处理
+        stream.blockingForEach(content -> {
+            logger.trace("收到LLM文本块，长度: {}", content.length());
+            contentConsumer.accept(content);
+        });
+    }
 
-        return messages;
+    /**
+     * 本次请求的对冲延迟
+     *
+     * @param model 模型名称
+     * @return 延迟（毫秒），不对冲时返回 -1
+     */
+    private long hedgeDelayMs(String model) {
+        if (!hedgeEnabled) {
+            return -1;
+        }
+        hedgeBudget.onRequest();
+        double percentileMs = modelRouter.getFirstChunkPercentileMs(model, hedgePercentile, hedgeMinSamples);
+        if (Double.isNaN(percentileMs)) {
+            // 样本不足时按上限等待，只对冲明显异常的慢请求
+            return hedgeMaxDelayMs;
+        }
+        return Math.min(hedgeMaxDelayMs, Math.max(hedgeMinDelayMs, (long) percentileMs));
     }
 
     /**
-     * 调用阿里云大语言模型（LLM）流式接口
-     * @param messages 用户与系统的对话消息列表
-     * @param chunkConsumer 文本块消费者
+     * 对冲请求，由 {@link #raceWithHedge} 在延迟到达后订阅
+     * <p>
+     * 原请求先返回首包时不会被订阅，也就不会发起。
+     * 发起前检查预算与 LLM 并发：并发已满或预算不足时不对冲（直接完成），对冲请求同样占用一个并发名额。
+     * </p>
      */
-    private void callAliyunLLMStream(List<Message> messages, Consumer<String> chunkConsumer) {
-        try {
-            // 构建参数，启用流式模式
-            GenerationParam param = GenerationParam.builder()
-                    .apiKey(apiKey)
-                    .model(modelName)
-                    .messages(messages)
-                    .maxTokens(maxTokens)
-                    .temperature(temperature)
-                    .topP(0.8)
-                    .repetitionPenalty(1.1f)
-                    .resultFormat(GenerationParam.ResultFormat.MESSAGE)
-                    .incrementalOutput(true)  // 启用增量输出
-                    .build();
-
-            logger.debug("调用阿里云LLM流式接口，模型: {}, 消息数量: {}", modelName, messages.size());
-
-            // 调用流式接口
-            Flowable<GenerationResult> resultFlowable = generation.streamCall(param);
-
-            // 订阅流式结果，逐块处理
-            resultFlowable.blockingForEach(result -> {
-                if (result.getOutput() != null &&
-                    result.getOutput().getChoices() != null &&
-                    !result.getOutput().getChoices().isEmpty()) {
-
-                    String content = result.getOutput().getChoices().get(0).getMessage().getContent();
-
-                    if (content != null && !content.isEmpty()) {
-                        logger.trace("收到LLM文本块，长度: {}", content.length());
-                        // 立即将文本块传递出去
-                        chunkConsumer.accept(content);
+    private Flowable<String> hedgedStream(String model, GenerationParam param, long delayMs) {
+        return Flowable.defer(() -> {
+            if (upstreamLimiters.isSaturated(UpstreamLimiters.LLM)) {
+                chatMetrics.recordLlmHedge("skipped_saturated");
+                return Flowable.<String>empty();
+            }
+            if (!hedgeBudget.tryAcquire()) {
+                chatMetrics.recordLlmHedge("skipped_budget");
+                return Flowable.<String>empty();
+            }
+            AdaptiveConcurrencyLimiter.Permit permit = upstreamLimiters.tryAcquire(UpstreamLimiters.LLM);
+            if (permit == null) {
+                chatMetrics.recordLlmHedge("skipped_saturated");
+                return Flowable.<String>empty();
+            }
+            chatMetrics.recordLlmHedge("started");
+            logger.debug("模型 {} 在 {} ms 内未返回首包，发起对冲请求", model, delayMs);
+
+            Flowable<GenerationResult> upstream;
+            try {
+                upstream = generation.streamCall(param);
+            } catch (Exception e) {
+                permit.release(true);
+                throw e;
+            }
+            AtomicBoolean first = new AtomicBoolean(true);
+            // 只有跑完或失败的请求才反馈给限流器；竞速落败被取消的一路没有有效的结果，只归还名额
+            return upstream
+                .map(LLMClientImpl::contentOf)
+                .filter(content -> !content.isEmpty())
+                .doOnNext(content -> {
+                    if (first.compareAndSet(true, false)) {
+                        chatMetrics.recordLlmHedge("won");
                     }
+                })
+                .doOnComplete(() -> permit.release(false))
+                .doOnError(e -> permit.release(true))
+                .doOnCancel(permit::cancel);
+        });
+    }
+
+    /**
+     * 原请求与延迟发起的对冲请求竞速
+     * <p>
+     * 与 amb 不同，只有数据才决定胜负：
+     * <ul>
+     * <li>先输出第一个文本块的一路胜出，另一路被取消；此后胜出一路的错误与完成原样传递</li>
+     * <li>对冲请求在输出之前失败或直接完成（未发起）时忽略，继续等待原请求</li>
+     * <li>原请求在输出之前失败：对冲请求已发起时等待对冲结果，对冲也失败则传递原请求的错误；
+     *     对冲尚未发起则直接传递错误，不再发起对冲，由调用方切换候选模型</li>
+     * <li>原请求在输出之前完成时视为胜出</li>
+     * </ul>
+     * </p>
+     *
+     * @param primary   原请求
+     * @param hedge     对冲请求
+     * @param delayMs   发起对冲请求前的等待时间（毫秒）
+     * @param scheduler 延迟所用的调度器
+     * @return 合并后的文本流
+     */
+    static <T> Flowable<T> raceWithHedge(Flowable<T> primary, Flowable<T> hedge, long delayMs, Scheduler scheduler) {
+        return Flowable.create(emitter -> {
+            HedgeRace<T> race = new HedgeRace<>(emitter);
+            emitter.setCancellable(race::cancel);
+            race.start(primary, hedge, delayMs, scheduler);
+        }, BackpressureStrategy.BUFFER);
+    }
+
+    /**
+     * 一次竞速的状态，所有回调在 this 上同步
+     */
+    private static final class HedgeRace<T> {
+
+        private static final int NONE = 0;
+        private static final int PRIMARY = 1;
+        private static final int HEDGE = 2;
+
+        private final FlowableEmitter<T> emitter;
+        private int winner = NONE;
+        private boolean done;
+        private boolean hedgeRunning;
+        private Throwable primaryError;
+        private Disposable primaryDisposable;
+        private Disposable hedgeDisposable;
+        private Disposable timerDisposable;
+
+        private HedgeRace(FlowableEmitter<T> emitter) {
+            this.emitter = emitter;
+        }
+
+        private void start(Flowable<T> primary, Flowable<T> hedge, long delayMs, Scheduler scheduler) {
+            Disposable subscribed = primary.subscribe(this::onPrimaryNext, this::onPrimaryError, this::onPrimaryComplete);
+            synchronized (this) {
+                primaryDisposable = subscribed;
+                if (done || winner != NONE) {
+                    return;
+                }
+                timerDisposable = scheduler.scheduleDirect(() -> startHedge(hedge), delayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void startHedge(Flowable<T> hedge) {
+            synchronized (this) {
+                if (done || winner != NONE) {
+                    return;
+                }
+                hedgeRunning = true;
+            }
+            Disposable subscribed = hedge.subscribe(this::onHedgeNext, this::onHedgeError, this::onHedgeComplete);
+            synchronized (this) {
+                hedgeDisposable = subscribed;
+                if (done || winner == PRIMARY) {
+                    subscribed.dispose();
                 }
-            });
+            }
+        }
 
-            logger.info("LLM流式生成完成");
+        private synchronized void onPrimaryNext(T item) {
+            if (done || winner == HEDGE) {
+                return;
+            }
+            if (winner == NONE) {
+                winner = PRIMARY;
+                dispose(timerDisposable);
+                dispose(hedgeDisposable);
+            }
+            emitter.onNext(item);
+        }
 
-        } catch (NoApiKeyException e) {
-            logger.error("API密钥未配置或无效", e);
-            chunkConsumer.accept("服务配置异常，请联系管理员。");
-        } catch (InputRequiredException e) {
-            logger.error("输入参数不完整", e);
-            chunkConsumer.accept("输入信息不完整，请重新输入。");
-        } catch (ApiException e) {
-            logger.error("阿里云API调用异常，错误码: {}, 错误信息: {}",
-                e.getStatus().getStatusCode(), e.getMessage(), e);
-            chunkConsumer.accept("服务暂时不可用，请稍后重试。");
-        } catch (Exception e) {
-            logger.error("LLM流式调用发生未知异常", e);
-            chunkConsumer.accept("抱歉，出现了一些技术问题，请稍后再试。");
+        private synchronized void onPrimaryError(Throwable error) {
+            if (done || winner == HEDGE) {
+                return;
+            }
+            if (winner == NONE && hedgeRunning) {
+                // 对冲请求还在进行，等它的结果
+                primaryError = error;
+                return;
+            }
+            finish(error);
+        }
+
+        private synchronized void onPrimaryComplete() {
+            if (done || winner == HEDGE) {
+                return;
+            }
+            winner = PRIMARY;
+            finish(null);
+        }
+
+        private synchronized void onHedgeNext(T item) {
+            if (done || winner == PRIMARY) {
+                return;
+            }
+            if (winner == NONE) {
+                winner = HEDGE;
+                dispose(primaryDisposable);
+            }
+            emitter.onNext(item);
+        }
+
+        private synchronized void onHedgeError(Throwable error) {
+            onHedgeTerminated(error);
+        }
+
+        private synchronized void onHedgeComplete() {
+            onHedgeTerminated(null);
+        }
+
+        private void onHedgeTerminated(Throwable error) {
+            if (done || winner == PRIMARY) {
+                return;
+            }
+            if (winner == HEDGE) {
+                finish(error);
+                return;
+            }
+            // 输出之前就结束：忽略，原请求已失败时传递原请求的错误
+            hedgeRunning = false;
+            if (primaryError != null) {
+                finish(primaryError);
+            }
+        }
+
+        private void finish(Throwable error) {
+            done = true;
+            dispose(timerDisposable);
+            dispose(primaryDisposable);
+            dispose(hedgeDisposable);
+            if (error != null) {
+                emitter.onError(error);
+            } else {
+                emitter.onComplete();
+            }
+        }
+
+        private synchronized void cancel() {
+            done = true;
+            dispose(timerDisposable);
+            dispose(primaryDisposable);
+            dispose(hedgeDisposable);
+        }
+
+        private static void dispose(Disposable disposable) {
+            if (disposable != null) {
+                disposable.dispose();
+            }
+        }
+    }
+
+    private GenerationParam buildParam(String model, List<Message> messages) {
+        // 构建参数，启用流式模式
+        return GenerationParam.builder()
+                .apiKey(apiKey)
+                .model(model)
+                .messages(messages)
+                .maxTokens(maxTokens)
+                .temperature(temperature)
+                .topP(0.8)
+                .repetitionPenalty(1.1f)
+                .resultFormat(GenerationParam.ResultFormat.MESSAGE)
+                .incrementalOutput(true)  // 启用增量输出
+                .parameters(promptAssembler.getContextCacheParameters())
+                .build();
+    }
+
+    private static String contentOf(GenerationResult result) {
+        if (result.getOutput() != null &&
+            result.getOutput().getChoices() != null &&
+            !result.getOutput().getChoices().isEmpty()) {
+            String content = result.getOutput().getChoices().get(0).getMessage().getContent();
+            if (content != null) {
+                return content;
+            }
         }
+        return "";
     }
-}
\ No newline at end of file
+}
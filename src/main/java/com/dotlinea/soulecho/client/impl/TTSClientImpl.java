@@ -6,9 +6,20 @@ import com.alibaba.nls.client.protocol.SampleRateEnum;
 import com.alibaba.nls.client.protocol.tts.SpeechSynthesizer;
 import com.alibaba.nls.client.protocol.tts.SpeechSynthesizerListener;
 import com.alibaba.nls.client.protocol.tts.SpeechSynthesizerResponse;
+import com.dotlinea.soulecho.audio.ImaAdpcmCodec;
+import com.dotlinea.soulecho.client.TTSAudioCache;
 import com.dotlinea.soulecho.client.TTSClient;
-import com.dotlinea.soulecho.client.TTSTokenManager;
+import com.dotlinea.soulecho.client.VoiceProfile;
+import com.dotlinea.soulecho.client.token.NlsTokenService;
+import com.dotlinea.soulecho.constants.AudioFormatEnum;
+import com.dotlinea.soulecho.exception.CircuitOpenException;
 import com.dotlinea.soulecho.exception.TTSException;
+import com.dotlinea.soulecho.resilience.AdaptiveConcurrencyLimiter;
+import com.dotlinea.soulecho.resilience.UpstreamCircuitBreakers;
+import com.dotlinea.soulecho.resilience.UpstreamLimiters;
+import com.dotlinea.soulecho.trace.TurnTrace;
+import com.dotlinea.soulecho.trace.TurnTraceHolder;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +28,11 @@ import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -34,6 +50,14 @@ import java.util.function.Consumer;
  * <li>其他错误（认证失败、服务端错误等）：直接熔断，不重试</li>
  * </ul>
  * </p>
+ * <p>
+ * 性能优化：
+ * <ul>
+ * <li>每个角色使用自己的发音人（VoiceProfile），合成参数按配置缓存，避免每句重复解析</li>
+ * <li>NlsClient 在同一 Token 有效期内被所有发音人共享，Token 轮换时才重建，旧客户端延迟关闭</li>
+ * <li>固定短句（兜底回复、问候语等）的合成结果写入 {@link TTSAudioCache}，命中时不访问上游</li>
+ * </ul>
+ * </p>
  *
  * @author fanfan187
  * @version v1.0.0
@@ -45,7 +69,13 @@ public class TTSClientImpl implements TTSClient {
 
     private static final Logger logger = LoggerFactory.getLogger(TTSClientImpl.class);
 
-    private final TTSTokenManager tokenManager;
+    private final NlsTokenService tokenService;
+
+    private final TTSAudioCache audioCache;
+
+    private final UpstreamLimiters upstreamLimiters;
+
+    private final UpstreamCircuitBreakers circuitBreakers;
 
     @Value("${tts.service.url}")
     private String ttsServiceUrl;
@@ -79,8 +109,51 @@ public class TTSClientImpl implements TTSClient {
      */
     private static final int MAX_RETRY_COUNT = 1;
 
+    /**
+     * 合成参数缓存的最大条目数（发音人 × 格式组合通常只有几十种）
+     */
+    private static final int MAX_CACHED_PROFILES = 256;
+
+    /**
+     * Token 轮换后旧 NlsClient 的延迟关闭时间（秒），保证进行中的合成任务正常结束
+     */
+    private static final long CLIENT_RETIRE_DELAY_SECONDS = 60;
+
+    /**
+     * 按语音配置缓存的合成参数
+     */
+    private final Map<VoiceProfile, SynthesizerSettings> settingsCache = new ConcurrentHashMap<>();
+
+    /**
+     * 当前共享的 NLS 客户端及其绑定的 Token
+     */
+    private volatile NlsClientHolder clientHolder;
+
+    /**
+     * 旧客户端延迟关闭调度器
+     */
+    private final ScheduledExecutorService clientRetireExecutor = Executors.newSingleThreadScheduledExecutor();
+
     @Override
     public void synthesize(String text, Consumer<ByteBuffer> audioChunkConsumer) {
+        synthesize(text, (VoiceProfile) null, audioChunkConsumer);
+    }
+
+    @Override
+    public VoiceProfile resolveVoiceProfile(String voiceId, AudioFormatEnum outputFormat) {
+        String actualVoice = (voiceId != null && !voiceId.trim().isEmpty()) ? voiceId.trim() : voice;
+        AudioFormatEnum actualFormat = outputFormat != null ? outputFormat : parseFormatCode(format);
+        return new VoiceProfile(
+            actualVoice,
+            speechRate != null ? speechRate : 100,
+            pitchRate != null ? pitchRate : 0,
+            actualFormat,
+            sampleRate != null ? sampleRate : 16000
+        );
+    }
+
+    @Override
+    public void synthesize(String text, VoiceProfile voiceProfile, Consumer<ByteBuffer> audioChunkConsumer) {
         if (text == null || text.trim().isEmpty()) {
             logger.warn("接收到空的文本内容");
             return;
@@ -91,8 +164,52 @@ public class TTSClientImpl implements TTSClient {
             return;
         }
 
-        // 执行TTS合成（支持Token失效重试）
-        synthesizeWithRetry(text, audioChunkConsumer, 0);
+        // 未指定语音配置时使用全局默认配置
+        VoiceProfile profile = voiceProfile != null ? voiceProfile : resolveVoiceProfile(null, null);
+
+        // 当前对话轮次的逐句耗时追踪（无追踪时为 null）
+        TurnTrace.TtsSpan span = TurnTraceHolder.beginTtsSentence(text.length());
+
+        // 优先命中音频缓存，无需建立 NLS 会话
+        ByteBuffer cached = audioCache.get(profile, text);
+        if (cached != null) {
+            logger.debug("TTS 音频缓存命中，文本: {}", text);
+            if (span != null) {
+                span.markComplete();
+            }
+            audioChunkConsumer.accept(cached);
+            return;
+        }
+
+        // 缓存未命中才占用上游并发许可，并发已满时抛出 UpstreamBusyException
+        AdaptiveConcurrencyLimiter.Permit permit = upstreamLimiters.acquire(UpstreamLimiters.TTS);
+        // 熔断期间不建立合成会话，抛出 CircuitOpenException 由调用方降级为纯文本
+        if (!circuitBreakers.tryAcquirePermission(UpstreamLimiters.TTS)) {
+            permit.cancel();
+            throw new CircuitOpenException(UpstreamLimiters.TTS);
+        }
+        long startNanos = System.nanoTime();
+        boolean upstreamFailed = true;
+        try {
+            if (!audioCache.shouldAdmit(profile, text)) {
+                // 执行TTS合成（支持Token失效重试）
+                synthesizeWithRetry(text, getSettings(profile), audioChunkConsumer, span, 0);
+            } else {
+                // 准入缓存的短句：合成成功后写入缓存（监听器在完成时一次性交付完整音频）
+                AtomicReference<byte[]> synthesized = new AtomicReference<>();
+                synthesizeWithRetry(text, getSettings(profile), buffer -> {
+                    byte[] audio = new byte[buffer.remaining()];
+                    buffer.duplicate().get(audio);
+                    synthesized.set(audio);
+                    audioChunkConsumer.accept(buffer);
+                }, span, 0);
+                audioCache.put(profile, text, synthesized.get());
+            }
+            upstreamFailed = false;
+        } finally {
+            permit.release(upstreamFailed);
+            circuitBreakers.onResult(UpstreamLimiters.TTS, startNanos, upstreamFailed);
+        }
     }
 
     /**
@@ -108,11 +225,14 @@ public class TTSClientImpl implements TTSClient {
      * </p>
      *
      * @param text 待合成文本
+     * @param settings 合成参数
      * @param audioChunkConsumer 音频数据消费者
+     * @param span 逐句耗时追踪（可为 null）
      * @param retryCount 当前重试次数
      * @throws TTSException TTS合成失败（非Token失效错误或重试后仍失败）
      */
-    private void synthesizeWithRetry(String text, Consumer<ByteBuffer> audioChunkConsumer, int retryCount) {
+    private void synthesizeWithRetry(String text, SynthesizerSettings settings,
+                                     Consumer<ByteBuffer> audioChunkConsumer, TurnTrace.TtsSpan span, int retryCount) {
         // 用于记录TTS失败状态和错误信息
         AtomicBoolean ttsFailed = new AtomicBoolean(false);
         AtomicReference<Integer> statusCode = new AtomicReference<>(null);
@@ -122,30 +242,26 @@ public class TTSClientImpl implements TTSClient {
 
         try {
             // 获取有效Token（如果即将过期会自动刷新）
-            String validToken = tokenManager.getValidToken();
+            String validToken = tokenService.getValidToken();
 
-            // 创建NLS客户端（每次使用最新Token）
-            NlsClient nlsClient;
-            if (ttsServiceUrl != null && !ttsServiceUrl.trim().isEmpty()) {
-                nlsClient = new NlsClient(ttsServiceUrl, validToken);
-            } else {
-                nlsClient = new NlsClient(validToken);
-            }
+            // 获取共享的NLS客户端（Token 变化时才重建）
+            NlsClient nlsClient = obtainNlsClient(validToken);
 
             // 创建语音合成器
-            synthesizer = new SpeechSynthesizer(nlsClient, getSynthesizerListener(audioChunkConsumer, ttsFailed, statusCode, statusText));
+            synthesizer = new SpeechSynthesizer(nlsClient, getSynthesizerListener(settings.outputFormat(), audioChunkConsumer, span, ttsFailed, statusCode, statusText));
 
-            // 设置合成参数
+            // 设置合成参数（已按语音配置预先解析）
             synthesizer.setAppKey(appKey);
             synthesizer.setText(text);
-            synthesizer.setVoice(voice);
-            synthesizer.setFormat(parseOutputFormat(format));
-            synthesizer.setSampleRate(parseSampleRate(sampleRate));
+            synthesizer.setVoice(settings.voice());
+            synthesizer.setFormat(settings.upstreamFormat());
+            synthesizer.setSampleRate(settings.sampleRate());
             synthesizer.setVolume(50);  // 音量 0-100
-            synthesizer.setSpeechRate(speechRate);  // 语速 -500 到 500
-            synthesizer.setPitchRate(pitchRate);  // 语调 -500 到 500
+            synthesizer.setSpeechRate(settings.speechRate());  // 语速 -500 到 500
+            synthesizer.setPitchRate(settings.pitchRate());  // 语调 -500 到 500
 
-            logger.debug("开始语音合成任务，文本长度: {} 字符", text.length());
+            logger.debug("开始语音合成任务，文本长度: {} 字符，发音人: {}，输出格式: {}",
+                text.length(), settings.voice(), settings.outputFormat().getCode());
 
             // 启动合成任务
             synthesizer.start();
@@ -160,7 +276,7 @@ public class TTSClientImpl implements TTSClient {
 
             // 如果是TTSException，根据错误码判断是否需要重试
             if (e instanceof TTSException ttsEx) {
-                handleTTSException(ttsEx, text, audioChunkConsumer, retryCount);
+                handleTTSException(ttsEx, text, settings, audioChunkConsumer, span, retryCount);
                 return;
             }
 
@@ -172,7 +288,7 @@ public class TTSClientImpl implements TTSClient {
                     statusText.get() != null ? statusText.get() : e.getClass().getSimpleName(),
                     e
                 );
-                handleTTSException(ttsEx, text, audioChunkConsumer, retryCount);
+                handleTTSException(ttsEx, text, settings, audioChunkConsumer, span, retryCount);
                 return;
             }
 
@@ -191,7 +307,7 @@ public class TTSClientImpl implements TTSClient {
                     statusCode.get() != null ? statusCode.get() : 500,
                     statusText.get() != null ? statusText.get() : "UNKNOWN_ERROR"
                 );
-                handleTTSException(ttsEx, text, audioChunkConsumer, retryCount);
+                handleTTSException(ttsEx, text, settings, audioChunkConsumer, span, retryCount);
                 return;
             }
 
@@ -218,12 +334,14 @@ public class TTSClientImpl implements TTSClient {
      *
      * @param ttsEx TTS异常
      * @param text 待合成文本
+     * @param settings 合成参数
      * @param audioChunkConsumer 音频数据消费者
+     * @param span 逐句耗时追踪（可为 null）
      * @param retryCount 当前重试次数
      * @throws TTSException 不需要重试或重试后仍失败
      */
-    private void handleTTSException(TTSException ttsEx, String text,
-                                    Consumer<ByteBuffer> audioChunkConsumer, int retryCount) {
+    private void handleTTSException(TTSException ttsEx, String text, SynthesizerSettings settings,
+                                    Consumer<ByteBuffer> audioChunkConsumer, TurnTrace.TtsSpan span, int retryCount) {
         int statusCode = ttsEx.getStatusCode();
 
         // 判断是否为Token失效错误
@@ -238,10 +356,10 @@ public class TTSClientImpl implements TTSClient {
 
             try {
                 // 强制刷新Token
-                tokenManager.forceRefresh();
+                tokenService.forceRefresh();
 
                 // 重试
-                synthesizeWithRetry(text, audioChunkConsumer, retryCount + 1);
+                synthesizeWithRetry(text, settings, audioChunkConsumer, span, retryCount + 1);
             } catch (Exception retryEx) {
                 logger.error("Token刷新后重试失败", retryEx);
                 throw ttsEx;  // 重试失败，抛出原始异常
@@ -257,16 +375,105 @@ public class TTSClientImpl implements TTSClient {
         }
     }
 
+    /**
+     * 获取语音配置对应的合成参数（带缓存）
+     * @param profile 语音配置
+     * @return 合成参数
+     */
+    private SynthesizerSettings getSettings(VoiceProfile profile) {
+        SynthesizerSettings settings = settingsCache.get(profile);
+        if (settings != null) {
+            return settings;
+        }
+        if (settingsCache.size() >= MAX_CACHED_PROFILES) {
+            // 语音配置组合异常增多时直接清空，避免无界增长
+            logger.warn("TTS 合成参数缓存超过上限 {}，清空缓存", MAX_CACHED_PROFILES);
+            settingsCache.clear();
+        }
+        return settingsCache.computeIfAbsent(profile, p -> new SynthesizerSettings(
+            p.voice(),
+            p.format(),
+            toUpstreamFormat(p.format()),
+            parseSampleRate(p.sampleRate()),
+            p.speechRate(),
+            p.pitchRate()
+        ));
+    }
+
+    /**
+     * 获取共享的 NLS 客户端
+     * <p>
+     * 同一 Token 下所有发音人共享一个客户端（每个 SpeechSynthesizer 自行建立连接，
+     * 客户端本身不携带发音人状态）。Token 轮换后新建客户端，旧客户端延迟关闭。
+     * </p>
+     *
+     * @param token 当前有效 Token
+     * @return NLS 客户端
+     */
+    private NlsClient obtainNlsClient(String token) {
+        NlsClientHolder holder = clientHolder;
+        if (holder != null && holder.token().equals(token)) {
+            return holder.client();
+        }
+
+        synchronized (this) {
+            holder = clientHolder;
+            if (holder != null && holder.token().equals(token)) {
+                return holder.client();
+            }
+
+            NlsClient nlsClient;
+            if (ttsServiceUrl != null && !ttsServiceUrl.trim().isEmpty()) {
+                nlsClient = new NlsClient(ttsServiceUrl, token);
+            } else {
+                nlsClient = new NlsClient(token);
+            }
+            clientHolder = new NlsClientHolder(token, nlsClient);
+            logger.info("TTS NlsClient 已{}", holder == null ? "创建" : "随 Token 轮换重建");
+
+            if (holder != null) {
+                NlsClient retired = holder.client();
+                clientRetireExecutor.schedule(() -> shutdownQuietly(retired),
+                    CLIENT_RETIRE_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+            return nlsClient;
+        }
+    }
+
+    /**
+     * 关闭时释放 NLS 客户端
+     */
+    @PreDestroy
+    public void destroy() {
+        clientRetireExecutor.shutdownNow();
+        NlsClientHolder holder = clientHolder;
+        if (holder != null) {
+            shutdownQuietly(holder.client());
+        }
+    }
+
+    private void shutdownQuietly(NlsClient nlsClient) {
+        try {
+            nlsClient.shutdown();
+        } catch (Exception e) {
+            logger.warn("关闭 TTS NlsClient 时发生异常", e);
+        }
+    }
+
     /**
      * 创建语音合成监听器
+     * @param outputFormat 输出音频格式（ADPCM 在合成完成后由本地编码）
      * @param audioChunkConsumer 音频数据消费者
+     * @param span 逐句耗时追踪（可为 null，监听器运行在 NLS 回调线程，需提前取出）
      * @param ttsFailed 失败标志（AtomicBoolean）
      * @param statusCode 错误码（AtomicReference）
      * @param statusText 错误文本（AtomicReference）
      * @return 合成监听器
      */
     private SpeechSynthesizerListener getSynthesizerListener(
+            AudioFormatEnum outputFormat,
             Consumer<ByteBuffer> audioChunkConsumer,
+            TurnTrace.TtsSpan span,
             AtomicBoolean ttsFailed,
             AtomicReference<Integer> statusCode,
             AtomicReference<String> statusText) {
@@ -278,9 +485,16 @@ public class TTSClientImpl implements TTSClient {
             @Override
             public void onComplete(SpeechSynthesizerResponse response) {
                 logger.debug("语音合成完成，TaskId: {}", response.getTaskId());
+                if (span != null) {
+                    span.markComplete();
+                }
 
                 // 将缓存的完整音频数据一次性发送给前端
                 byte[] completeAudio = audioBuffer.toByteArray();
+                if (completeAudio.length > 0 && outputFormat == AudioFormatEnum.ADPCM) {
+                    // 上游输出 PCM，在本地压缩为 ADPCM 数据块
+                    completeAudio = ImaAdpcmCodec.encode(completeAudio, 0, completeAudio.length);
+                }
                 if (completeAudio.length > 0) {
                     logger.info("发送完整音频数据，大小: {} bytes", completeAudio.length);
                     audioChunkConsumer.accept(ByteBuffer.wrap(completeAudio));
@@ -293,6 +507,9 @@ public class TTSClientImpl implements TTSClient {
             public void onMessage(ByteBuffer message) {
                 // 收到音频数据块，写入缓冲区（不立即发送）
                 if (message != null && message.hasRemaining()) {
+                    if (span != null) {
+                        span.markFirstByte();
+                    }
                     logger.trace("收到音频数据块，大小: {} bytes", message.remaining());
 
                     try {
@@ -327,17 +544,28 @@ public class TTSClientImpl implements TTSClient {
     }
 
     /**
-     * 解析输出格式
+     * 解析配置的默认输出格式
      * @param formatStr 格式字符串
-     * @return 输出格式枚举
+     * @return 音频格式枚举，未知格式回退为 PCM
      */
-    private OutputFormatEnum parseOutputFormat(String formatStr) {
-        if (formatStr == null) {
-            return OutputFormatEnum.PCM;
-        }
-        return switch (formatStr.toLowerCase()) {
-            case "wav" -> OutputFormatEnum.WAV;
-            case "mp3" -> OutputFormatEnum.MP3;
+    private AudioFormatEnum parseFormatCode(String formatStr) {
+        AudioFormatEnum parsed = AudioFormatEnum.fromCode(formatStr);
+        return parsed != null && parsed.isOutputSupported() ? parsed : AudioFormatEnum.PCM;
+    }
+
+    /**
+     * 转换为 NLS 上游输出格式
+     * <p>
+     * ADPCM 由本地编码，上游统一请求 PCM
+     * </p>
+     *
+     * @param outputFormat 输出音频格式
+     * @return NLS 输出格式枚举
+     */
+    private OutputFormatEnum toUpstreamFormat(AudioFormatEnum outputFormat) {
+        return switch (outputFormat) {
+            case WAV -> OutputFormatEnum.WAV;
+            case MP3 -> OutputFormatEnum.MP3;
             default -> OutputFormatEnum.PCM;
         };
     }
@@ -356,4 +584,21 @@ public class TTSClientImpl implements TTSClient {
             default -> SampleRateEnum.SAMPLE_RATE_16K;
         };
     }
+
+    /**
+     * 预解析的合成参数
+     */
+    private record SynthesizerSettings(
+        String voice,
+        AudioFormatEnum outputFormat,
+        OutputFormatEnum upstreamFormat,
+        SampleRateEnum sampleRate,
+        int speechRate,
+        int pitchRate
+    ) {}
+
+    /**
+     * NLS 客户端及其绑定的 Token
+     */
+    private record NlsClientHolder(String token, NlsClient client) {}
 }
\ No newline at end of file
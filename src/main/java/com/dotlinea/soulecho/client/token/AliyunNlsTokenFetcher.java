@@ -0,0 +1,32 @@
+package com.dotlinea.soulecho.client.token;
+
+import com.alibaba.nls.client.AccessToken;
+
+/**
+ * 基于阿里云 SDK 的 Token 获取器
+ * <p>
+ * 使用 AccessKeyId / AccessKeySecret 调用 CreateToken 接口。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class AliyunNlsTokenFetcher implements NlsTokenFetcher {
+
+    private final String accessKeyId;
+    private final String accessKeySecret;
+
+    public AliyunNlsTokenFetcher(String accessKeyId, String accessKeySecret) {
+        this.accessKeyId = accessKeyId;
+        this.accessKeySecret = accessKeySecret;
+    }
+
+    @Override
+    public NlsToken fetch() throws Exception {
+        AccessToken accessToken = new AccessToken(accessKeyId, accessKeySecret);
+        accessToken.apply();
+        // SDK 返回的过期时间为秒级时间戳
+        return new NlsToken(accessToken.getToken(), accessToken.getExpireTime() * 1000);
+    }
+}
@@ -0,0 +1,63 @@
+package com.dotlinea.soulecho.client.token;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+
+/**
+ * 基于 HTTP 端点的 Token 获取器
+ * <p>
+ * 向 {@code nls.token.endpoint} 发送 GET 请求，AccessKeyId 通过请求头 {@code X-Access-Key-Id} 传递。
+ * 响应格式与阿里云 CreateToken 接口一致：
+ * <pre>
+ * {"Token": {"Id": "xxx", "ExpireTime": 1700000000}}
+ * </pre>
+ * 用于对接本地 Token 替身服务或内部的 Token 代理，便于离线测试。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class HttpNlsTokenFetcher implements NlsTokenFetcher {
+
+    private final OkHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String endpoint;
+    private final String accessKeyId;
+
+    public HttpNlsTokenFetcher(OkHttpClient httpClient, ObjectMapper objectMapper, String endpoint, String accessKeyId) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.endpoint = endpoint;
+        this.accessKeyId = accessKeyId;
+    }
+
+    @Override
+    public NlsToken fetch() throws IOException {
+        Request request = new Request.Builder()
+            .url(endpoint)
+            .header("X-Access-Key-Id", accessKeyId != null ? accessKeyId : "")
+            .get()
+            .build();
+
+        try (Response response = httpClient.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("Token 端点返回异常状态: " + response.code());
+            }
+            JsonNode tokenNode = objectMapper.readTree(body.byteStream()).path("Token");
+            String token = tokenNode.path("Id").asText(null);
+            long expireTimeSeconds = tokenNode.path("ExpireTime").asLong(0);
+            if (token == null || token.isEmpty() || expireTimeSeconds <= 0) {
+                throw new IOException("Token 端点响应缺少 Token.Id 或 Token.ExpireTime");
+            }
+            return new NlsToken(token, expireTimeSeconds * 1000);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.dotlinea.soulecho.client.token;
+
+/**
+ * NLS Access Token 不可变快照
+ *
+ * @param token Access Token
+ * @param expireTimeMillis 过期时间（毫秒时间戳）
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public record NlsToken(String token, long expireTimeMillis) {
+
+    /**
+     * 是否已过期
+     *
+     * @param now 当前时间（毫秒）
+     * @return 是否已过期
+     */
+    public boolean isExpired(long now) {
+        return now >= expireTimeMillis;
+    }
+
+    /**
+     * 是否已进入刷新窗口
+     *
+     * @param now 当前时间（毫秒）
+     * @param marginSeconds 提前刷新时间（秒）
+     * @return 是否需要刷新
+     */
+    public boolean needsRefresh(long now, long marginSeconds) {
+        return now >= expireTimeMillis - marginSeconds * 1000;
+    }
+}
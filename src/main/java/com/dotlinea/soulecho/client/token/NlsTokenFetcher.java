@@ -0,0 +1,22 @@
+package com.dotlinea.soulecho.client.token;
+
+/**
+ * NLS Access Token 获取器
+ * <p>
+ * 抽象 Token 的获取来源：生产环境通过阿里云 SDK 获取，离线测试和本地联调时可指向本地的 Token 替身服务。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public interface NlsTokenFetcher {
+
+    /**
+     * 获取新的 Token
+     *
+     * @return Token 快照
+     * @throws Exception 获取失败
+     */
+    NlsToken fetch() throws Exception;
+}
@@ -0,0 +1,408 @@
+package com.dotlinea.soulecho.client.token;
+
+import com.dotlinea.soulecho.constants.RedisKeyConstants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * NLS Token 统一服务
+ * <p>
+ * ASR 与 TTS 使用同一组阿里云凭证，共用本服务获取 Token：
+ * <ul>
+ * <li>无锁读取：Token 快照通过 {@link AtomicReference} 发布</li>
+ * <li>单飞刷新：同一时刻最多一个刷新任务，并发调用方共享结果</li>
+ * <li>提前刷新：进入刷新窗口后后台刷新，并按实际过期时间调度下一次主动刷新</li>
+ * <li>集群共享（可选）：Token 持久化到 Redis，刷新时先读取共享 Token，
+ *     需要换新时通过分布式锁保证整个集群只有一个节点调用 CreateToken</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Token 来源由 {@link NlsTokenFetcher} 决定，可指向本地 Token 替身服务进行离线测试。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NlsTokenService {
+
+    /**
+     * 刷新失败后的重试间隔（毫秒）
+     */
+    private static final long RETRY_DELAY_MS = 30 * 1000;
+
+    /**
+     * 同步等待刷新的最长时间（秒）
+     */
+    private static final long BLOCKING_REFRESH_TIMEOUT_SECONDS = 10;
+
+    /**
+     * 等待集群刷新锁的最长时间（秒）
+     */
+    private static final long CLUSTER_LOCK_WAIT_SECONDS = 5;
+
+    /**
+     * Redis 共享 Token 的字段分隔符
+     */
+    private static final char SHARED_TOKEN_SEPARATOR = '|';
+
+    private final NlsTokenFetcher tokenFetcher;
+
+    private final RedissonClient redissonClient;
+
+    /**
+     * Token提前刷新时间窗口（秒）
+     */
+    @Value("${nls.token.refresh-margin-seconds:600}")
+    private long refreshMarginSeconds;
+
+    /**
+     * 是否通过 Redis 在集群内共享 Token
+     */
+    @Value("${nls.token.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    private final AtomicReference<NlsToken> snapshot = new AtomicReference<>();
+
+    private final AtomicReference<Refresh> inflightRefresh = new AtomicReference<>();
+
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "nls-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong fetchCount = new AtomicLong();
+    private final AtomicLong fetchFailureCount = new AtomicLong();
+    private final AtomicLong sharedTokenHitCount = new AtomicLong();
+    private final AtomicLong lastRefreshDurationMillis = new AtomicLong();
+
+    /**
+     * 进行中的刷新任务
+     *
+     * @param future 刷新结果
+     * @param force  是否跳过 Redis 共享 Token 强制换新
+     */
+    private record Refresh(CompletableFuture<NlsToken> future, boolean force) {
+    }
+
+    /**
+     * 启动时获取Token，验证凭证配置是否正确
+     */
+    @PostConstruct
+    public void init() {
+        log.info("初始化NLS Token服务，集群共享: {}", redisEnabled);
+        try {
+            awaitRefresh(false);
+            log.info("NLS凭证验证成功，Token将在 {} 后过期", getExpireTime());
+        } catch (Exception e) {
+            throw new IllegalStateException("NLS凭证验证失败，请检查API Key/Secret或Token端点配置", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 获取有效的Token
+     * <p>
+     * 快速路径只读取一次 AtomicReference；进入刷新窗口时触发后台刷新但立即返回当前Token；
+     * 仅当Token已过期或尚未获取时同步等待刷新结果。
+     * </p>
+     *
+     * @return 有效的Access Token
+     */
+    public String getValidToken() {
+        NlsToken current = snapshot.get();
+        long now = System.currentTimeMillis();
+
+        if (current != null && !current.isExpired(now)) {
+            if (current.needsRefresh(now, refreshMarginSeconds)) {
+                refreshAsync(false);
+            }
+            return current.token();
+        }
+
+        return awaitRefresh(false).token();
+    }
+
+    /**
+     * 强制刷新Token（Token被服务端判定失效时调用，等待刷新完成）
+     * <p>
+     * 跳过 Redis 中的共享 Token，直接换新并回写。
+     * </p>
+     */
+    public void forceRefresh() {
+        awaitRefresh(true);
+    }
+
+    /**
+     * 获取Token过期时间（用于监控）
+     *
+     * @return Token过期时间
+     */
+    public Date getExpireTime() {
+        NlsToken current = snapshot.get();
+        return new Date(current != null ? current.expireTimeMillis() : 0);
+    }
+
+    /**
+     * 检查Token是否有效（用于健康检查）
+     *
+     * @return true表示Token有效且未进入刷新窗口
+     */
+    public boolean isTokenValid() {
+        NlsToken current = snapshot.get();
+        return current != null && !current.needsRefresh(System.currentTimeMillis(), refreshMarginSeconds);
+    }
+
+    /**
+     * 本节点调用 Token 获取器的次数
+     */
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    /**
+     * 本节点 Token 获取失败次数
+     */
+    public long getFetchFailureCount() {
+        return fetchFailureCount.get();
+    }
+
+    /**
+     * 从 Redis 复用其他节点 Token 的次数
+     */
+    public long getSharedTokenHitCount() {
+        return sharedTokenHitCount.get();
+    }
+
+    /**
+     * 最近一次刷新耗时（毫秒）
+     */
+    public long getLastRefreshDurationMillis() {
+        return lastRefreshDurationMillis.get();
+    }
+
+    /**
+     * Token 剩余有效时间（秒），未获取时为 0
+     */
+    public long getSecondsUntilExpiry() {
+        NlsToken current = snapshot.get();
+        return current == null ? 0 : Math.max(0, (current.expireTimeMillis() - System.currentTimeMillis()) / 1000);
+    }
+
+    private NlsToken awaitRefresh(boolean force) {
+        try {
+            return refreshAsync(force).get(BLOCKING_REFRESH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("NLS Token刷新被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("NLS Token刷新失败", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("NLS Token刷新超时", e);
+        }
+    }
+
+    /**
+     * 触发异步刷新（single-flight）
+     * <p>
+     * 强制刷新不复用进行中的普通刷新（它可能直接返回 Redis 中已失效的共享 Token），
+     * 而是等它结束后再发起一次强制刷新。
+     * </p>
+     */
+    private CompletableFuture<NlsToken> refreshAsync(boolean force) {
+        Refresh existing = inflightRefresh.get();
+        if (existing != null) {
+            return join(existing, force);
+        }
+
+        CompletableFuture<NlsToken> refresh = new CompletableFuture<>();
+        Refresh created = new Refresh(refresh, force);
+        if (!inflightRefresh.compareAndSet(null, created)) {
+            Refresh winner = inflightRefresh.get();
+            return winner != null ? join(winner, force) : refreshAsync(force);
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                // 先清除进行中标记再交付结果，保证等待方拿到结果后发起的刷新不会复用已完成的任务
+                try {
+                    NlsToken fresh = refreshNow(force);
+                    inflightRefresh.compareAndSet(created, null);
+                    refresh.complete(fresh);
+                } catch (Exception e) {
+                    inflightRefresh.compareAndSet(created, null);
+                    refresh.completeExceptionally(e);
+                }
+            });
+        } catch (Exception e) {
+            // 执行器已关闭（应用停止中）
+            inflightRefresh.compareAndSet(created, null);
+            refresh.completeExceptionally(e);
+        }
+        return refresh;
+    }
+
+    /**
+     * 加入进行中的刷新：普通刷新直接共享；强制刷新遇到普通刷新时，在其结束后（无论成败）再发起强制刷新
+     */
+    private CompletableFuture<NlsToken> join(Refresh existing, boolean force) {
+        if (!force || existing.force()) {
+            return existing.future();
+        }
+        return existing.future()
+            .handle((token, error) -> null)
+            .thenCompose(ignored -> refreshAsync(true));
+    }
+
+    /**
+     * 刷新Token，发布快照并调度下一次主动刷新
+     */
+    private NlsToken refreshNow(boolean force) {
+        long start = System.currentTimeMillis();
+        try {
+            NlsToken fresh = redisEnabled ? refreshThroughRedis(force) : fetch();
+            snapshot.set(fresh);
+            lastRefreshDurationMillis.set(System.currentTimeMillis() - start);
+
+            log.info("NLS Token刷新成功，过期时间: {}", new Date(fresh.expireTimeMillis()));
+            scheduleRefresh(fresh.expireTimeMillis() - refreshMarginSeconds * 1000 - System.currentTimeMillis());
+            return fresh;
+        } catch (Exception e) {
+            log.error("刷新NLS Token失败，{} 秒后重试", RETRY_DELAY_MS / 1000, e);
+            scheduleRefresh(RETRY_DELAY_MS);
+            throw new RuntimeException("NLS Token刷新失败", e);
+        }
+    }
+
+    /**
+     * 通过 Redis 共享 Token：优先复用集群内仍然新鲜的 Token，需要换新时加分布式锁
+     * <p>
+     * Redis 不可用时退化为本节点直接获取。
+     * </p>
+     */
+    private NlsToken refreshThroughRedis(boolean force) throws Exception {
+        RBucket<String> bucket;
+        RLock lock;
+        try {
+            bucket = redissonClient.getBucket(RedisKeyConstants.NLS_TOKEN, StringCodec.INSTANCE);
+            if (!force) {
+                NlsToken shared = freshOrNull(decode(bucket.get()));
+                if (shared != null) {
+                    sharedTokenHitCount.incrementAndGet();
+                    return shared;
+                }
+            }
+            lock = redissonClient.getLock(RedisKeyConstants.NLS_TOKEN_LOCK);
+        } catch (Exception e) {
+            log.warn("读取 Redis 共享 Token 失败，本节点直接获取", e);
+            return fetch();
+        }
+
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(CLUSTER_LOCK_WAIT_SECONDS, TimeUnit.SECONDS);
+            if (!locked) {
+                log.warn("等待集群 Token 刷新锁超时，本节点直接获取");
+                return fetch();
+            }
+
+            // 双重检查：等锁期间其他节点可能已经换新
+            NlsToken current = snapshot.get();
+            NlsToken shared = freshOrNull(decode(bucket.get()));
+            if (shared != null && (!force || current == null || !shared.token().equals(current.token()))) {
+                sharedTokenHitCount.incrementAndGet();
+                return shared;
+            }
+
+            NlsToken fresh = fetch();
+            long ttlMillis = fresh.expireTimeMillis() - System.currentTimeMillis();
+            if (ttlMillis > 0) {
+                bucket.set(fresh.expireTimeMillis() + SHARED_TOKEN_SEPARATOR + fresh.token(), Duration.ofMillis(ttlMillis));
+            }
+            return fresh;
+        } finally {
+            if (locked && lock.isHeldByCurrentThread()) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 解析 Redis 中的共享 Token，格式为 {@code 过期时间毫秒|Token}
+     */
+    private NlsToken decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(SHARED_TOKEN_SEPARATOR);
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return new NlsToken(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private NlsToken freshOrNull(NlsToken token) {
+        if (token == null || token.token() == null) {
+            return null;
+        }
+        return token.needsRefresh(System.currentTimeMillis(), refreshMarginSeconds) ? null : token;
+    }
+
+    private NlsToken fetch() throws Exception {
+        fetchCount.incrementAndGet();
+        try {
+            return tokenFetcher.fetch();
+        } catch (Exception e) {
+            fetchFailureCount.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * 主动刷新：按实际过期时间提前调度
+     */
+    private void scheduleRefresh(long delayMs) {
+        if (refreshExecutor.isShutdown()) {
+            return;
+        }
+        refreshExecutor.schedule(() -> {
+            NlsToken current = snapshot.get();
+            // 期间已被其他路径刷新过则跳过
+            if (current == null || current.needsRefresh(System.currentTimeMillis(), refreshMarginSeconds)) {
+                log.info("【定时任务】开始主动刷新NLS Token...");
+                refreshAsync(false);
+            }
+        }, Math.max(delayMs, RETRY_DELAY_MS), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,56 @@
+package com.dotlinea.soulecho.cluster;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * 容量准入握手拦截器
+ * <p>
+ * 本节点会话数达到 cluster.max-sessions 时，在 WebSocket 升级前以 503 + Retry-After 拒绝新连接，
+ * 不占用连接与会话资源；客户端或负载均衡器重试时会落到其他节点。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterAdmissionInterceptor implements HandshakeInterceptor {
+
+    /**
+     * 建议客户端重试的等待时间（秒）
+     */
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ClusterNodeRegistry clusterNodeRegistry;
+
+    @Override
+    public boolean beforeHandshake(@NotNull ServerHttpRequest request, @NotNull ServerHttpResponse response,
+                                   @NotNull WebSocketHandler wsHandler, @NotNull Map<String, Object> attributes) {
+        if (!clusterNodeRegistry.isSaturated()) {
+            return true;
+        }
+        log.warn("节点 {} 会话数已满（{}），拒绝来自 {} 的新连接",
+            clusterNodeRegistry.getNodeId(), clusterNodeRegistry.getActiveSessions(), request.getRemoteAddress());
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return false;
+    }
+
+    @Override
+    public void afterHandshake(@NotNull ServerHttpRequest request, @NotNull ServerHttpResponse response,
+                               @NotNull WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.dotlinea.soulecho.cluster;
+
+import com.dotlinea.soulecho.constants.RedisKeyConstants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 集群节点注册表
+ * <p>
+ * 每个节点定时把自身状态写入 Redis（soul-echo:cluster:node:{nodeId}，值为 {advertiseUrl}|{活跃会话数}|{会话上限}），
+ * 键带 TTL，节点宕机后心跳停止，键自动过期，其他节点据此判断对话归属节点是否存活。
+ * </p>
+ * <p>
+ * 本地活跃会话数同时用于容量准入：达到 cluster.max-sessions 后新连接在握手阶段被拒绝，
+ * 由 L4 负载均衡器重试到其他节点。未开启 cluster.enabled 时不访问 Redis，只做本地计数。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterNodeRegistry {
+
+    /**
+     * 节点状态的字段分隔符
+     */
+    private static final char FIELD_SEPARATOR = '|';
+
+    /**
+     * 心跳键 TTL 为心跳间隔的倍数，容忍偶发的心跳延迟
+     */
+    private static final int HEARTBEAT_TTL_MULTIPLIER = 3;
+
+    private final RedissonClient redissonClient;
+
+    /**
+     * 是否开启集群模式
+     */
+    @Value("${cluster.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 节点 ID，未配置时使用主机名加随机后缀
+     */
+    @Value("${cluster.node-id:}")
+    private String configuredNodeId;
+
+    /**
+     * 客户端可直连本节点的 WebSocket 地址（如 ws://10.0.0.12:8080），用于重定向
+     */
+    @Value("${cluster.advertise-url:}")
+    private String advertiseUrl;
+
+    /**
+     * 心跳间隔（毫秒）
+     */
+    @Value("${cluster.heartbeat-interval-ms:5000}")
+    private long heartbeatIntervalMs;
+
+    /**
+     * 本节点最大会话数，0 表示不限制
+     */
+    @Value("${cluster.max-sessions:0}")
+    private int maxSessions;
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    private String nodeId;
+
+    @PostConstruct
+    public void init() {
+        nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId : defaultNodeId();
+        if (!enabled) {
+            return;
+        }
+        if (advertiseUrl == null || advertiseUrl.isBlank()) {
+            log.warn("集群模式未配置 cluster.advertise-url，其他节点无法将客户端重定向到本节点 {}", nodeId);
+        }
+        heartbeat();
+        log.info("集群节点 {} 已注册，advertise-url: {}, 最大会话数: {}", nodeId, advertiseUrl, maxSessions);
+    }
+
+    /**
+     * 定时刷新本节点心跳
+     */
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval-ms:5000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String state = advertiseUrl + FIELD_SEPARATOR + activeSessions.get() + FIELD_SEPARATOR + maxSessions;
+            nodeBucket(nodeId).set(state, Duration.ofMillis(heartbeatIntervalMs * HEARTBEAT_TTL_MULTIPLIER));
+        } catch (Exception e) {
+            log.warn("集群节点 {} 心跳写入失败: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭时注销节点，其他节点可立即接管本节点的对话
+     */
+    @PreDestroy
+    public void deregister() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            nodeBucket(nodeId).delete();
+            log.info("集群节点 {} 已注销", nodeId);
+        } catch (Exception e) {
+            log.warn("集群节点 {} 注销失败: {}", nodeId, e.getMessage());
+        }
+    }
+
+    /**
+     * 查询存活节点的 advertise-url
+     *
+     * @param targetNodeId 节点 ID
+     * @return advertise-url；节点心跳已过期时返回 null，节点存活但未配置地址时返回空串
+     */
+    public String findNodeUrl(String targetNodeId) {
+        if (nodeId.equals(targetNodeId)) {
+            return advertiseUrl;
+        }
+        String state = nodeBucket(targetNodeId).get();
+        if (state == null) {
+            return null;
+        }
+        int separator = state.indexOf(FIELD_SEPARATOR);
+        return separator >= 0 ? state.substring(0, separator) : state;
+    }
+
+    /**
+     * 新连接建立
+     */
+    public void sessionOpened() {
+        activeSessions.incrementAndGet();
+    }
+
+    /**
+     * 连接关闭
+     */
+    public void sessionClosed() {
+        activeSessions.decrementAndGet();
+    }
+
+    /**
+     * 本节点是否已达到会话上限
+     *
+     * @return true 表示应拒绝新连接
+     */
+    public boolean isSaturated() {
+        return maxSessions > 0 && activeSessions.get() >= maxSessions;
+    }
+
+    /**
+     * 是否开启集群模式
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 本节点 ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 本节点活跃会话数
+     */
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    private RBucket<String> nodeBucket(String targetNodeId) {
+        return redissonClient.getBucket(RedisKeyConstants.CLUSTER_NODE_PREFIX + targetNodeId, StringCodec.INSTANCE);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
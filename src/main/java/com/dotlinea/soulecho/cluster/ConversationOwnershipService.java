@@ -0,0 +1,224 @@
+package com.dotlinea.soulecho.cluster;
+
+import com.dotlinea.soulecho.constants.RedisKeyConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.BatchResult;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 对话归属租约服务
+ * <p>
+ * 集群模式下每个对话同一时刻只由一个节点处理：租约键 soul-echo:cluster:owner:{conversationId} 的值为归属节点 ID，
+ * 带 TTL，由归属节点定时续约。客户端携带 conversationId 连接时：
+ * <ul>
+ * <li>租约不存在或归属本节点：获得（或保持）租约，在本节点处理</li>
+ * <li>归属节点存活：返回其 advertise-url，由调用方通知客户端重连到该节点</li>
+ * <li>归属节点心跳已过期：以 compareAndSet 接管租约，多个节点同时接管时只有一个成功</li>
+ * </ul>
+ * 同一对话在本节点可能有多个连接（如重连时旧连接尚未关闭），按引用计数在最后一个连接关闭时释放租约。
+ * 未开启集群模式时所有对话都在本节点处理，不访问 Redis。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConversationOwnershipService {
+
+    /**
+     * 竞争租约的最大尝试次数
+     */
+    private static final int MAX_ACQUIRE_ATTEMPTS = 3;
+
+    /**
+     * 仅当租约仍归属本节点时续期，避免延长已被其他节点接管的租约
+     */
+    private static final String RENEW_SCRIPT =
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end";
+
+    private final RedissonClient redissonClient;
+    private final ClusterNodeRegistry clusterNodeRegistry;
+
+    /**
+     * 租约时长（毫秒），续约间隔为其三分之一
+     */
+    @Value("${cluster.ownership.lease-ms:30000}")
+    private long leaseMs;
+
+    /**
+     * 本节点持有租约的对话及其本地连接数
+     */
+    private final Map<String, Integer> localConversations = new ConcurrentHashMap<>();
+
+    /**
+     * 获取对话归属
+     *
+     * @param conversationId 对话 ID
+     * @return 归属判定结果
+     */
+    public OwnershipDecision acquire(String conversationId) {
+        if (!clusterNodeRegistry.isEnabled()) {
+            return OwnershipDecision.OWNED;
+        }
+        String self = clusterNodeRegistry.getNodeId();
+        RBucket<String> lease = leaseBucket(conversationId);
+        try {
+            for (int attempt = 0; attempt < MAX_ACQUIRE_ATTEMPTS; attempt++) {
+                if (lease.setIfAbsent(self, Duration.ofMillis(leaseMs))) {
+                    retain(conversationId);
+                    return OwnershipDecision.OWNED;
+                }
+                String owner = lease.get();
+                if (owner == null) {
+                    // 租约恰好过期，重新竞争
+                    continue;
+                }
+                if (owner.equals(self)) {
+                    lease.expire(Duration.ofMillis(leaseMs));
+                    retain(conversationId);
+                    return OwnershipDecision.OWNED;
+                }
+                String ownerUrl = clusterNodeRegistry.findNodeUrl(owner);
+                if (ownerUrl != null && !ownerUrl.isBlank()) {
+                    log.info("对话 {} 归属节点 {}，重定向到 {}", conversationId, owner, ownerUrl);
+                    return OwnershipDecision.redirect(ownerUrl);
+                }
+                if (ownerUrl != null) {
+                    // 归属节点存活但未配置地址，无法重定向，退化为在本节点处理
+                    log.warn("对话 {} 归属节点 {} 未配置 advertise-url，在本节点处理", conversationId, owner);
+                    return OwnershipDecision.UNLEASED;
+                }
+                if (lease.compareAndSet(owner, self)) {
+                    lease.expire(Duration.ofMillis(leaseMs));
+                    retain(conversationId);
+                    log.info("对话 {} 的归属节点 {} 已失联，由本节点 {} 接管", conversationId, owner, self);
+                    return OwnershipDecision.TAKEN_OVER;
+                }
+            }
+            log.warn("对话 {} 租约竞争失败，在本节点处理", conversationId);
+        } catch (Exception e) {
+            log.warn("获取对话 {} 租约失败，在本节点处理: {}", conversationId, e.getMessage());
+        }
+        return OwnershipDecision.UNLEASED;
+    }
+
+    /**
+     * 本节点上该对话的一个连接关闭，最后一个连接关闭时释放租约
+     *
+     * @param conversationId 对话 ID
+     */
+    public void release(String conversationId) {
+        if (!clusterNodeRegistry.isEnabled()) {
+            return;
+        }
+        if (localConversations.computeIfPresent(conversationId, (id, count) -> count > 1 ? count - 1 : null) != null) {
+            return;
+        }
+        try {
+            // 仅删除本节点持有的租约
+            leaseBucket(conversationId).compareAndSet(clusterNodeRegistry.getNodeId(), null);
+        } catch (Exception e) {
+            log.warn("释放对话 {} 租约失败: {}", conversationId, e.getMessage());
+        }
+    }
+
+    /**
+     * 批量续约本节点持有的租约
+     */
+    @Scheduled(fixedDelayString = "#{${cluster.ownership.lease-ms:30000} / 3}")
+    public void renewLeases() {
+        if (!clusterNodeRegistry.isEnabled() || localConversations.isEmpty()) {
+            return;
+        }
+        List<String> conversationIds = new ArrayList<>(localConversations.keySet());
+        try {
+            RBatch batch = redissonClient.createBatch();
+            for (String conversationId : conversationIds) {
+                batch.getScript(StringCodec.INSTANCE).evalAsync(RScript.Mode.READ_WRITE, RENEW_SCRIPT,
+                    RScript.ReturnType.INTEGER, List.of(RedisKeyConstants.CONVERSATION_OWNER_PREFIX + conversationId),
+                    clusterNodeRegistry.getNodeId(), String.valueOf(leaseMs));
+            }
+            BatchResult<?> result = batch.execute();
+            List<?> responses = result.getResponses();
+            for (int i = 0; i < responses.size(); i++) {
+                if (Long.valueOf(0).equals(responses.get(i))) {
+                    log.warn("对话 {} 的租约已被其他节点接管", conversationIds.get(i));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("续约 {} 个对话租约失败: {}", conversationIds.size(), e.getMessage());
+        }
+    }
+
+    private void retain(String conversationId) {
+        localConversations.merge(conversationId, 1, Integer::sum);
+    }
+
+    private RBucket<String> leaseBucket(String conversationId) {
+        return redissonClient.getBucket(RedisKeyConstants.CONVERSATION_OWNER_PREFIX + conversationId,
+            StringCodec.INSTANCE);
+    }
+
+    /**
+     * 对话归属判定结果
+     *
+     * @param outcome  判定类型
+     * @param ownerUrl 归属节点地址，仅 REDIRECT 时非空
+     */
+    public record OwnershipDecision(Outcome outcome, String ownerUrl) {
+
+        static final OwnershipDecision OWNED = new OwnershipDecision(Outcome.OWNED, null);
+        static final OwnershipDecision TAKEN_OVER = new OwnershipDecision(Outcome.TAKEN_OVER, null);
+        static final OwnershipDecision UNLEASED = new OwnershipDecision(Outcome.UNLEASED, null);
+
+        static OwnershipDecision redirect(String ownerUrl) {
+            return new OwnershipDecision(Outcome.REDIRECT, ownerUrl);
+        }
+
+        /**
+         * 是否在本节点持有租约
+         */
+        public boolean leased() {
+            return outcome == Outcome.OWNED || outcome == Outcome.TAKEN_OVER;
+        }
+    }
+
+    /**
+     * 判定类型
+     */
+    public enum Outcome {
+        /**
+         * 本节点获得或已持有租约
+         */
+        OWNED,
+        /**
+         * 原归属节点失联，本节点接管
+         */
+        TAKEN_OVER,
+        /**
+         * 归属其他存活节点，客户端应重连到该节点
+         */
+        REDIRECT,
+        /**
+         * 未能确定归属（Redis 不可用或竞争失败），在本节点处理但不持有租约
+         */
+        UNLEASED
+    }
+}
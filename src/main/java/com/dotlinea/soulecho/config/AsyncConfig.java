@@ -8,10 +8,12 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.lang.reflect.Method;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 异步任务配置类
@@ -37,7 +39,7 @@ public class AsyncConfig implements AsyncConfigurer {
      * <li>核心线程数：10（足够处理日常并发）</li>
      * <li>最大线程数：50（高峰期可扩展）</li>
      * <li>队列容量：200（缓冲突发请求）</li>
-     * <li>拒绝策略：CallerRunsPolicy（降级到调用线程执行，避免任务丢失）</li>
+     * <li>拒绝策略：CallerRunsPolicy（降级到调用线程执行，避免任务丢失，降级次数计入指标）</li>
      * </ul>
      * </p>
      *
@@ -64,7 +66,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setKeepAliveSeconds(60);
 
         // 拒绝策略：当队列满且线程池已达最大线程数时，由调用线程执行
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(new CountingCallerRunsPolicy());
 
         // 等待所有任务完成后再关闭线程池（优雅关闭）
         executor.setWaitForTasksToCompleteOnShutdown(true);
@@ -106,7 +108,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setKeepAliveSeconds(120);
 
         // 拒绝策略：队列满时，由调用线程执行（会阻塞上传请求，提供背压）
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(new CountingCallerRunsPolicy());
 
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(180);
@@ -145,7 +147,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setKeepAliveSeconds(60);
 
         // 拒绝策略：由调用线程执行，防止消息丢失
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(new CountingCallerRunsPolicy());
 
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
@@ -158,6 +160,88 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * 配置 ASR 专用的异步任务执行器
+     * <p>
+     * 只负责把缓冲的音频发送到 NLS，发送完毕即返回，识别结果由 SDK 回调交付，
+     * 因此线程占用时间短。使用独立的有界线程池，避免占用 ForkJoinPool.commonPool()。
+     * 队列满时拒绝（AbortPolicy），由调用方快速失败，而不是让 chat 线程代为执行。
+     * </p>
+     *
+     * @return ASR 专用执行器
+     */
+    @Bean(name = "asrExecutor")
+    public Executor asrExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(32);
+        executor.setQueueCapacity(100);
+
+        executor.setThreadNamePrefix("asr-exec-");
+        executor.setKeepAliveSeconds(60);
+
+        // 拒绝策略：直接拒绝，由 ASRClientImpl 转换为识别失败
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        executor.initialize();
+
+        log.info("ASR线程池初始化完成 - CorePoolSize: {}, MaxPoolSize: {}, QueueCapacity: {}",
+                executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+
+        return executor;
+    }
+
+    /**
+     * 配置 WebSocket 下行写出专用的执行器
+     * <p>
+     * 每个会话同一时刻最多占用一个写线程（见 BufferedOutboundSession），写出阻塞在慢客户端上时只占用本线程池，
+     * 不影响 LLM、TTS 等业务线程。队列长度上限约等于有待写消息的会话数。
+     * 队列满时拒绝（AbortPolicy），对应会话以 SESSION_NOT_RELIABLE 关闭，而不是让业务线程代为写出。
+     * </p>
+     *
+     * @return 下行写出执行器
+     */
+    @Bean(name = "wsWriterExecutor")
+    public Executor wsWriterExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(64);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("ws-writer-");
+        executor.setKeepAliveSeconds(60);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // 关闭时不等待：连接随容器一起关闭，未写出的消息没有接收方
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        log.info("WebSocket下行线程池初始化完成 - CorePoolSize: {}, MaxPoolSize: {}, QueueCapacity: {}",
+                executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        return executor;
+    }
+
+    /**
+     * 配置共享的超时调度器
+     * <p>
+     * 用于 ASR 识别超时等短小的定时任务，任务体只做状态检查和资源释放，不执行阻塞操作。
+     * 同时作为 @Scheduled 定时任务的调度器。
+     * </p>
+     *
+     * @return 超时调度器
+     */
+    @Bean(name = "timeoutScheduler")
+    public ThreadPoolTaskScheduler timeoutScheduler() {
+        var scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.setThreadNamePrefix("timeout-sched-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        scheduler.initialize();
+        return scheduler;
+    }
+
     /**
      * 配置异步任务的全局异常处理器
      * <p>
@@ -171,6 +255,30 @@ public class AsyncConfig implements AsyncConfigurer {
         return new CustomAsyncExceptionHandler();
     }
 
+    /**
+     * 记录降级次数的 CallerRuns 拒绝策略
+     * <p>
+     * 行为与 {@link ThreadPoolExecutor.CallerRunsPolicy} 一致，额外统计降级到调用线程执行的次数。
+     * 调用线程（如 WebSocket 容器线程）被占用意味着线程池已经饱和，该计数通过指标暴露用于容量预警。
+     * </p>
+     */
+    public static class CountingCallerRunsPolicy extends ThreadPoolExecutor.CallerRunsPolicy {
+
+        private final AtomicLong callerRunsCount = new AtomicLong();
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+            if (!e.isShutdown()) {
+                callerRunsCount.incrementAndGet();
+            }
+            super.rejectedExecution(r, e);
+        }
+
+        public long getCallerRunsCount() {
+            return callerRunsCount.get();
+        }
+    }
+
     /**
      * 自定义异步异常处理器
      */
@@ -35,6 +35,12 @@ public class BailianConfig {
     @Value("${bailian.endpoint:bailian.cn-beijing.aliyuncs.com}")
     private String endpoint;
 
+    /**
+     * 接口协议，本地替身使用 http
+     */
+    @Value("${bailian.protocol:https}")
+    private String protocol;
+
     @Value("${bailian.workspace.id}")
     private String workspaceId;
 
@@ -51,7 +57,8 @@ public class BailianConfig {
             Config config = new Config()
                     .setAccessKeyId(accessKeyId)
                     .setAccessKeySecret(accessKeySecret)
-                    .setEndpoint(endpoint);
+                    .setEndpoint(endpoint)
+                    .setProtocol(protocol);
 
             Client client = new Client(config);
             logger.info("阿里云百炼 Client 初始化成功，Workspace: {}", workspaceId);
@@ -0,0 +1,62 @@
+package com.dotlinea.soulecho.config;
+
+import com.dotlinea.soulecho.client.token.AliyunNlsTokenFetcher;
+import com.dotlinea.soulecho.client.token.HttpNlsTokenFetcher;
+import com.dotlinea.soulecho.client.token.NlsTokenFetcher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * NLS Token 获取器配置类
+ * <p>
+ * 配置了 {@code nls.token.endpoint} 时从该 HTTP 端点获取 Token（本地替身服务或内部 Token 代理），
+ * 否则使用阿里云 SDK 调用 CreateToken。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Configuration
+public class NlsTokenConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(NlsTokenConfig.class);
+
+    @Value("${nls.api.key}")
+    private String apiKey;
+
+    @Value("${nls.api.secret}")
+    private String apiSecret;
+
+    @Value("${nls.token.endpoint:}")
+    private String tokenEndpoint;
+
+    /**
+     * 创建 NLS Token 获取器 Bean
+     *
+     * @param httpClient OkHttpClient
+     * @param objectMapper JSON 解析器
+     * @return Token 获取器
+     */
+    @Bean
+    public NlsTokenFetcher nlsTokenFetcher(OkHttpClient httpClient, ObjectMapper objectMapper) {
+        if (tokenEndpoint != null && !tokenEndpoint.trim().isEmpty()) {
+            logger.info("NLS Token 从 HTTP 端点获取: {}", tokenEndpoint);
+            return new HttpNlsTokenFetcher(httpClient, objectMapper, tokenEndpoint.trim(), apiKey);
+        }
+
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            throw new IllegalStateException("NLS API Key未配置，请检查application.properties");
+        }
+        if (apiSecret == null || apiSecret.trim().isEmpty()) {
+            throw new IllegalStateException("NLS API Secret未配置，请检查application.properties");
+        }
+        logger.info("NLS Token 通过阿里云 SDK 获取");
+        return new AliyunNlsTokenFetcher(apiKey, apiSecret);
+    }
+}
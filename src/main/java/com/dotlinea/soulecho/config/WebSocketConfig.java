@@ -1,12 +1,21 @@
 package com.dotlinea.soulecho.config;
 
+import com.dotlinea.soulecho.cluster.ClusterAdmissionInterceptor;
 import com.dotlinea.soulecho.controller.ChatWebSocketHandler;
-import lombok.AllArgsConstructor;
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import com.dotlinea.soulecho.metrics.MeteredWebSocketHandler;
+import com.dotlinea.soulecho.websocket.BufferedOutboundWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
 
+import java.util.concurrent.Executor;
+
 /**
  * WebSocket 配置类
  * <p>
@@ -19,22 +28,57 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
  */
 @Configuration
 @EnableWebSocket
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final ChatWebSocketHandler chatWebSocketHandler;
+    private final ChatMetrics chatMetrics;
+    private final ClusterAdmissionInterceptor clusterAdmissionInterceptor;
+
+    @Qualifier("wsWriterExecutor")
+    private final Executor wsWriterExecutor;
+
+    @Qualifier("timeoutScheduler")
+    private final TaskScheduler timeoutScheduler;
+
+    /**
+     * 单条下行消息的写出时间上限（毫秒），超过后关闭连接
+     */
+    @Value("${ws.outbound.send-time-limit-ms:5000}")
+    private long sendTimeLimitMs;
+
+    /**
+     * 每个会话的下行缓冲上限（字节），文本帧超过上限时关闭连接
+     */
+    @Value("${ws.outbound.buffer-size-limit:2097152}")
+    private int bufferSizeLimit;
+
+    /**
+     * 下行缓冲超过该值（字节）后开始丢弃 TTS 音频帧
+     * <p>
+     * 每句 TTS 音频整段作为一帧下发，16kHz 16bit 单声道 wav 约 32KB/秒，默认 1MB 约可容纳 30 秒音频
+     * </p>
+     */
+    @Value("${ws.outbound.audio-shed-threshold:1048576}")
+    private int audioShedThreshold;
 
     /**
      * 注册WebSocket处理器
      * <p>
-     * 该方法将ChatWebSocketHandler注册到"/chat"路径，并允许所有来源的跨域请求
+     * 该方法将ChatWebSocketHandler注册到"/chat"路径，并允许所有来源的跨域请求。
+     * 处理器外层包装 {@link MeteredWebSocketHandler}，统计活跃会话数与实际写出的下行字节数；
+     * 内层包装 {@link BufferedOutboundWebSocketHandler}，业务线程的发送只入队，由写线程池串行写出。
+     * 握手阶段由 {@link ClusterAdmissionInterceptor} 做容量准入，节点会话数已满时直接拒绝升级。
      * </p>
      *
      * @param registry WebSocket处理器注册中心
      */
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(chatWebSocketHandler, "/chat")
+        var bufferedHandler = new BufferedOutboundWebSocketHandler(chatWebSocketHandler, wsWriterExecutor,
+                timeoutScheduler, chatMetrics, sendTimeLimitMs, bufferSizeLimit, audioShedThreshold);
+        registry.addHandler(new MeteredWebSocketHandler(bufferedHandler, chatMetrics), "/chat")
+                .addInterceptors(clusterAdmissionInterceptor)
                 .setAllowedOrigins("*");
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.dotlinea.soulecho.constants;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * WebSocket 音频传输格式枚举
+ * <p>
+ * 定义 /chat 端点上行（用户语音）和下行（TTS 语音）可协商的音频编码格式。
+ * 上行音频在进入 ASR 之前统一解码为 16kHz/16bit 单声道 PCM，
+ * 下行音频由 TTS 客户端按会话协商结果输出。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public enum AudioFormatEnum {
+
+    /**
+     * 原始 PCM - 16kHz/16bit 单声道小端，约 256 kbit/s
+     */
+    PCM("pcm", "原始PCM", true, true),
+
+    /**
+     * IMA ADPCM - 4:1 压缩，约 64 kbit/s，按消息分块独立解码
+     */
+    ADPCM("adpcm", "IMA ADPCM", true, true),
+
+    /**
+     * WAV - 带文件头的 PCM，仅用于下行
+     */
+    WAV("wav", "WAV", false, true),
+
+    /**
+     * MP3 - 由 NLS 服务端直接编码，仅用于下行
+     */
+    MP3("mp3", "MP3", false, true);
+
+    /**
+     * 格式代码（查询参数取值）
+     */
+    private final String code;
+
+    /**
+     * 格式描述
+     */
+    private final String description;
+
+    /**
+     * 是否支持作为上行（客户端 -> 服务端）格式
+     */
+    private final boolean inputSupported;
+
+    /**
+     * 是否支持作为下行（服务端 -> 客户端）格式
+     */
+    private final boolean outputSupported;
+
+    /**
+     * 根据代码获取枚举（忽略大小写）
+     *
+     * @param code 格式代码
+     * @return 对应的枚举值，未知或为空时返回 null
+     */
+    public static AudioFormatEnum fromCode(String code) {
+        if (code == null || code.trim().isEmpty()) {
+            return null;
+        }
+        for (AudioFormatEnum format : values()) {
+            if (format.code.equalsIgnoreCase(code.trim())) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
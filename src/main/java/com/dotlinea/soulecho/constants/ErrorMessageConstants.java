@@ -0,0 +1,76 @@
+package com.dotlinea.soulecho.constants;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 错误提示常量
+ * <p>
+ * 统一管理通过 error 帧推送给前端的固定错误提示。
+ * 这些提示内容不随会话变化，由 OutboundMessageEncoder 在启动时预编码为共享帧。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ErrorMessageConstants {
+
+    /**
+     * 音频数据为空或解码失败
+     */
+    public static final String AUDIO_INVALID = "音频数据无效，请重试";
+
+    /**
+     * 音频消息处理失败
+     */
+    public static final String AUDIO_PROCESS_ERROR = "音频处理失败，请重试";
+
+    /**
+     * 文本消息处理失败
+     */
+    public static final String TEXT_PROCESS_ERROR = "文本处理失败，请重试";
+
+    /**
+     * 获取会话锁被中断
+     */
+    public static final String SYSTEM_BUSY = "系统繁忙，请稍后重试";
+
+    /**
+     * 语音轮次生成回复失败
+     */
+    public static final String REPLY_GENERATION_ERROR = "生成回复时发生错误，请稍后重试";
+
+    /**
+     * 语音轮次处理失败（未知异常）
+     */
+    public static final String MESSAGE_PROCESS_ERROR = "处理您的消息时发生错误，请稍后重试。";
+
+    /**
+     * TTS 异常，降级为纯文字回复
+     */
+    public static final String TTS_DEGRADED = "语音服务异常，已切换至文字模式";
+
+    /**
+     * ASR 已熔断，本轮语音未识别
+     */
+    public static final String ASR_UNAVAILABLE = "语音识别服务暂时不可用，请稍后重试或改用文字输入";
+
+    /**
+     * 所有固定错误提示（用于预编码）
+     */
+    public static final List<String> ALL = List.of(
+        AUDIO_INVALID,
+        AUDIO_PROCESS_ERROR,
+        TEXT_PROCESS_ERROR,
+        SYSTEM_BUSY,
+        REPLY_GENERATION_ERROR,
+        MESSAGE_PROCESS_ERROR,
+        TTS_DEGRADED,
+        ASR_UNAVAILABLE,
+        FallbackReplyConstants.CHAT_PROCESS_ERROR
+    );
+}
@@ -0,0 +1,63 @@
+package com.dotlinea.soulecho.constants;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 兜底回复常量
+ * <p>
+ * 统一管理 LLM 调用失败时推送给用户的固定回复文本。
+ * 这些文本会在 TTS 模式下被合成为语音，因此集中定义后可被 TTS 音频缓存预热。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class FallbackReplyConstants {
+
+    /**
+     * LLM 对话处理失败
+     */
+    public static final String LLM_UNAVAILABLE = "抱歉，我现在无法回应您的消息，请稍后再试。";
+
+    /**
+     * API 密钥未配置或无效
+     */
+    public static final String LLM_CONFIG_ERROR = "服务配置异常，请联系管理员。";
+
+    /**
+     * 输入参数不完整
+     */
+    public static final String LLM_INPUT_REQUIRED = "输入信息不完整，请重新输入。";
+
+    /**
+     * 阿里云 API 调用异常
+     */
+    public static final String LLM_API_ERROR = "服务暂时不可用，请稍后重试。";
+
+    /**
+     * LLM 流式调用未知异常
+     */
+    public static final String LLM_UNKNOWN_ERROR = "抱歉，出现了一些技术问题，请稍后再试。";
+
+    /**
+     * 聊天服务处理失败
+     */
+    public static final String CHAT_PROCESS_ERROR = "抱歉，处理您的消息时遇到了问题。";
+
+    /**
+     * 所有兜底回复（用于 TTS 缓存预热）
+     */
+    public static final List<String> ALL = List.of(
+        LLM_UNAVAILABLE,
+        LLM_CONFIG_ERROR,
+        LLM_INPUT_REQUIRED,
+        LLM_API_ERROR,
+        LLM_UNKNOWN_ERROR,
+        CHAT_PROCESS_ERROR
+    );
+}
@@ -41,11 +41,41 @@ public final class MessageTypeConstants {
      */
     public static final String AI_REPLY = "ai-reply";
 
+    /**
+     * AI 回复文本块（流式增量，携带 seq 与 delta）
+     */
+    public static final String AI_CHUNK = "ai-chunk";
+
+    /**
+     * AI 回复结束（本轮文本与语音均已发送完毕，seq 为本轮文本块数）
+     */
+    public static final String AI_END = "ai-end";
+
+    /**
+     * 对话信息消息（连接建立时下发本次使用的 conversationId，供客户端重连时携带）
+     */
+    public static final String CONVERSATION_INFO = "conversation-info";
+
+    /**
+     * 重定向消息（集群模式下对话归属其他节点，content 为应重连的完整地址，随后服务端关闭连接）
+     */
+    public static final String REDIRECT = "redirect";
+
+    /**
+     * 繁忙消息（上游并发已满，本轮未处理，客户端可稍后重试）
+     */
+    public static final String BUSY = "busy";
+
     /**
      * 音频信息消息
      */
     public static final String AUDIO_INFO = "audio-info";
 
+    /**
+     * 本轮耗时摘要消息（仅调试模式下发送）
+     */
+    public static final String TURN_TRACE = "turn-trace";
+
     /**
      * 错误码 - TTS 服务已熔断
      */
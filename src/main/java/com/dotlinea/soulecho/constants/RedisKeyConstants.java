@@ -19,7 +19,7 @@ public final class RedisKeyConstants {
     /**
      * 会话历史记录 Redis 键前缀
      * <p>
-     * 格式: soul-echo:session:history:{sessionId}
+     * 格式: soul-echo:session:history:{conversationId}，最后一次写入后按 soul-echo.session-timeout 过期
      * </p>
      */
     public static final String SESSION_HISTORY_PREFIX = "soul-echo:session:history:";
@@ -31,4 +31,33 @@ public final class RedisKeyConstants {
      * </p>
      */
     public static final String SESSION_LOCK_PREFIX = "soul-echo:session:lock:";
-}
\ No newline at end of file
+
+    /**
+     * 集群共享的 NLS Access Token
+     * <p>
+     * 格式: soul-echo:nls:token，值为 {过期时间毫秒}|{Token}
+     * </p>
+     */
+    public static final String NLS_TOKEN = "soul-echo:nls:token";
+
+    /**
+     * NLS Token 刷新分布式锁
+     */
+    public static final String NLS_TOKEN_LOCK = "soul-echo:nls:token:lock";
+
+    /**
+     * 集群节点心跳 Redis 键前缀
+     * <p>
+     * 格式: soul-echo:cluster:node:{nodeId}，值为 {advertiseUrl}|{活跃会话数}|{会话上限}，心跳停止后过期
+     * </p>
+     */
+    public static final String CLUSTER_NODE_PREFIX = "soul-echo:cluster:node:";
+
+    /**
+     * 对话归属租约 Redis 键前缀
+     * <p>
+     * 格式: soul-echo:cluster:owner:{conversationId}，值为归属节点 ID，由归属节点定时续约
+     * </p>
+     */
+    public static final String CONVERSATION_OWNER_PREFIX = "soul-echo:cluster:owner:";
+}
@@ -47,4 +47,53 @@ public final class SessionAttributeKeys {
      * </p>
      */
     public static final String TTS_ENABLED = "tts_enabled";
+
+    /**
+     * 上行音频格式属性键
+     * <p>
+     * 存储在 WebSocket Session 中的客户端上行音频编码格式（AudioFormatEnum）
+     * </p>
+     */
+    public static final String INPUT_AUDIO_FORMAT = "inputFormat";
+
+    /**
+     * 下行音频格式属性键
+     * <p>
+     * 存储在 WebSocket Session 中的 TTS 下行音频编码格式（AudioFormatEnum）
+     * </p>
+     */
+    public static final String OUTPUT_AUDIO_FORMAT = "outputFormat";
+
+    /**
+     * 角色发音人 ID 属性键
+     * <p>
+     * 存储在 WebSocket Session 中的角色语音合成发音人（Character.voiceId）
+     * </p>
+     */
+    public static final String CHARACTER_VOICE_ID = "characterVoiceId";
+
+    /**
+     * TTS 语音配置属性键
+     * <p>
+     * 存储在 WebSocket Session 中的已解析语音配置（VoiceProfile），每个会话只解析一次
+     * </p>
+     */
+    public static final String VOICE_PROFILE = "voiceProfile";
+
+    /**
+     * 对话 ID 属性键
+     * <p>
+     * 存储在 WebSocket Session 中的可恢复对话 ID，同时也是 /chat 的查询参数名。
+     * 会话历史按该 ID 存储，客户端断线后携带同一 ID 重连（任意节点）即可继续对话
+     * </p>
+     */
+    public static final String CONVERSATION_ID = "conversationId";
+
+    /**
+     * 对话租约持有标记属性键
+     * <p>
+     * 集群模式下本连接持有对话归属租约时为 true，连接关闭时据此释放租约
+     * </p>
+     */
+    public static final String CONVERSATION_LEASED = "conversationLeased";
 }
\ No newline at end of file
@@ -1,14 +1,17 @@
 package com.dotlinea.soulecho.controller;
 
+import com.dotlinea.soulecho.cluster.ClusterNodeRegistry;
+import com.dotlinea.soulecho.cluster.ConversationOwnershipService;
 import com.dotlinea.soulecho.dto.CharacterResponseDTO;
-import com.dotlinea.soulecho.constants.MessageTypeConstants;
+import com.dotlinea.soulecho.constants.AudioFormatEnum;
+import com.dotlinea.soulecho.constants.ErrorMessageConstants;
 import com.dotlinea.soulecho.constants.PersonaPromptConstants;
 import com.dotlinea.soulecho.constants.SessionAttributeKeys;
-import com.dotlinea.soulecho.dto.WebSocketMessageDTO;
-import com.dotlinea.soulecho.factory.WebSocketMessageFactory;
+import com.dotlinea.soulecho.protocol.InboundMessage;
+import com.dotlinea.soulecho.protocol.InboundMessageParser;
+import com.dotlinea.soulecho.protocol.OutboundMessageEncoder;
 import com.dotlinea.soulecho.service.CharacterService;
 import com.dotlinea.soulecho.service.RealtimeChatService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -22,6 +25,8 @@ import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 /**
  * WebSocket 处理器
@@ -41,8 +46,20 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
 
     private final RealtimeChatService chatService;
     private final CharacterService characterService;
-    private final ObjectMapper objectMapper;
-    private final WebSocketMessageFactory messageFactory;
+    private final InboundMessageParser inboundMessageParser;
+    private final OutboundMessageEncoder outboundMessageEncoder;
+    private final ClusterNodeRegistry clusterNodeRegistry;
+    private final ConversationOwnershipService conversationOwnershipService;
+
+    /**
+     * 客户端可携带的对话 ID 格式（如 UUID）
+     */
+    private static final Pattern CONVERSATION_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{16,64}");
+
+    /**
+     * 对话归属其他节点时的关闭状态，客户端收到 redirect 消息后应按其中地址重连
+     */
+    private static final CloseStatus REDIRECT_CLOSE_STATUS = new CloseStatus(4001, "conversation owned by another node");
 
     /**
      * 当 WebSocket 连接建立时调用
@@ -53,6 +70,7 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
     public void afterConnectionEstablished(WebSocketSession session) {
         logger.info("WebSocket连接已建立，SessionID: {}, 远程地址: {}",
             session.getId(), session.getRemoteAddress());
+        clusterNodeRegistry.sessionOpened();
 
         // 从查询参数中获取角色设定
         URI uri = session.getUri();
@@ -71,6 +89,11 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
                     String characterName = character.name();
                     session.getAttributes().put(SessionAttributeKeys.CHARACTER_NAME, characterName);
                     logger.info("会话 {} 设置角色名称: {}", session.getId(), characterName);
+
+                    // 记录角色发音人，首次语音合成时解析为语音配置
+                    if (character.voiceId() != null && !character.voiceId().trim().isEmpty()) {
+                        session.getAttributes().put(SessionAttributeKeys.CHARACTER_VOICE_ID, character.voiceId());
+                    }
                 } catch (Exception e) {
                     logger.error("查询角色信息失败，characterId: {}", characterId, e);
                 }
@@ -81,8 +104,34 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
                 session.getAttributes().put(SessionAttributeKeys.PERSONA_PROMPT, personaPrompt);
                 logger.debug("会话 {} 设置角色提示词: {}", session.getId(), personaPrompt);
             }
+
+            // 协商上下行音频格式
+            negotiateAudioFormats(session, query);
+        }
+
+        // 确定对话 ID：优先使用客户端携带的 conversationId（断线重连），否则生成新的并下发给客户端
+        String query = uri != null ? uri.getQuery() : null;
+        String conversationId = resolveConversationId(extractParameter(query, SessionAttributeKeys.CONVERSATION_ID));
+        session.getAttributes().put(SessionAttributeKeys.CONVERSATION_ID, conversationId);
+
+        // 集群模式：对话归属其他存活节点时通知客户端重连到该节点
+        ConversationOwnershipService.OwnershipDecision ownership = conversationOwnershipService.acquire(conversationId);
+        if (ownership.outcome() == ConversationOwnershipService.Outcome.REDIRECT) {
+            redirectToOwner(session, ownership.ownerUrl(), uri);
+            return;
+        }
+        if (ownership.leased()) {
+            session.getAttributes().put(SessionAttributeKeys.CONVERSATION_LEASED, true);
+        }
+        try {
+            session.sendMessage(outboundMessageEncoder.conversationInfo(conversationId, session.getId()));
+        } catch (Exception e) {
+            logger.error("向会话 {} 发送对话信息失败", session.getId(), e);
         }
 
+        // 设置默认上行音频格式（如果未协商）
+        session.getAttributes().putIfAbsent(SessionAttributeKeys.INPUT_AUDIO_FORMAT, AudioFormatEnum.PCM);
+
         // 设置默认角色提示词（如果未提供）
         if (!session.getAttributes().containsKey(SessionAttributeKeys.PERSONA_PROMPT)) {
             session.getAttributes().put(SessionAttributeKeys.PERSONA_PROMPT, PersonaPromptConstants.DEFAULT_PERSONA);
@@ -111,7 +160,7 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
             chatService.handleBinaryMessage(session, message);
         } catch (Exception e) {
             logger.error("处理会话 {} 的二进制消息时发生异常", session.getId(), e);
-            sendErrorResponse(session, "音频处理失败，请重试");
+            sendErrorResponse(session, ErrorMessageConstants.AUDIO_PROCESS_ERROR);
         }
     }
 
@@ -129,54 +178,39 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
         logger.debug("接收到会话 {} 的文本消息: {}", sessionId, textPayload);
 
         try {
-            // === 步骤1: 应用层心跳检测 ===
-            // 尝试解析为 JSON，判断是否为 ping 消息
-            try {
-                com.fasterxml.jackson.databind.JsonNode jsonNode = objectMapper.readTree(textPayload);
-                if (jsonNode.has("type") && MessageTypeConstants.PING.equals(jsonNode.get("type").asText())) {
-                    // 收到 ping，立即回复 pong
-                    String pongMessage = "{\"type\":\"" + MessageTypeConstants.PONG + "\"}";
-                    session.sendMessage(new TextMessage(pongMessage));
-                    logger.trace("会话 {} 收到 ping，回复 pong", sessionId);
-                    return; // 不触发 LLM 处理
-                }
-            } catch (Exception ignored) {
-                // 如果不是 JSON 或无法解析，视为普通用户文本消息，继续正常处理
+            // === 步骤1: 单次解析上行消息（纯文本不进入 JSON 解析） ===
+            InboundMessage inbound = inboundMessageParser.parse(textPayload);
+
+            // === 步骤2: 应用层心跳检测 ===
+            if (inbound instanceof InboundMessage.Ping) {
+                // 收到 ping，立即回复 pong，不触发 LLM 处理
+                session.sendMessage(outboundMessageEncoder.pong());
+                logger.trace("会话 {} 收到 ping，回复 pong", sessionId);
+                return;
             }
 
-            // === 步骤2: 解析用户消息内容（支持 JSON 和纯文本） ===
-            String userInput = null;
-            boolean ttsEnabled = false; // 默认不启用 TTS
-            boolean hasTtsField = false; // 新增：标记是否包含TTS字段
-
-            try {
-                // 尝试解析为 JSON：{"message": "用户消息", "ttsEnabled": true}
-                com.fasterxml.jackson.databind.JsonNode jsonNode = objectMapper.readTree(textPayload);
+            // === 步骤3: 提取用户消息内容（支持 JSON 和纯文本） ===
+            String userInput;
+            boolean ttsEnabled;
+            boolean hasTtsField = false;
 
-                // 优先读取 message 字段，如果不是文本（防止空对象{}）则读取 content
-                if (jsonNode.has("message") && jsonNode.get("message").isTextual()) {
-                    userInput = jsonNode.get("message").asText();
-                } else if (jsonNode.has("content")) {
-                    userInput = jsonNode.get("content").asText();
-                }
-
-                // 提取 ttsEnabled 字段（可选）
-                if (jsonNode.has("ttsEnabled")) {
+            if (inbound instanceof InboundMessage.ChatRequest request) {
+                // JSON：{"message": "用户消息", "ttsEnabled": true}
+                userInput = request.text();
+                ttsEnabled = Boolean.TRUE.equals(request.ttsEnabled());
+                if (request.hasTtsField()) {
                     hasTtsField = true;
-                    ttsEnabled = jsonNode.get("ttsEnabled").asBoolean();
-                    // 新增：保存 TTS 状态到 Session，供语音输入流程使用
+                    // 保存 TTS 状态到 Session，供语音输入流程使用
                     session.getAttributes().put(SessionAttributeKeys.TTS_ENABLED, ttsEnabled);
                     logger.info("[{}] TTS状态已更新到Session: {}", sessionId, ttsEnabled);
                 }
-
                 logger.debug("会话 {} 解析 JSON 消息成功，content: {}, ttsEnabled: {}", sessionId, userInput, ttsEnabled);
-            } catch (Exception e) {
-                // JSON 解析失败，回退到纯文本模式
-                userInput = textPayload;
-                ttsEnabled = false; // 纯文本模式默认不启用 TTS
-                // 保存TTS状态到Session
-                session.getAttributes().put(SessionAttributeKeys.TTS_ENABLED, ttsEnabled);
-                logger.debug("会话 {} JSON 解析失败，回退到纯文本模式，TTS状态设置为: {}", sessionId, ttsEnabled);
+            } else {
+                // 纯文本模式默认不启用 TTS
+                userInput = ((InboundMessage.PlainText) inbound).text();
+                ttsEnabled = false;
+                session.getAttributes().put(SessionAttributeKeys.TTS_ENABLED, false);
+                logger.debug("会话 {} 非 JSON 消息，按纯文本处理，TTS状态设置为: false", sessionId);
             }
 
             // 处理纯TTS状态更新消息（无文本内容）
@@ -186,13 +220,13 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
                 return;
             }
 
-            // === 步骤3: 参数校验 ===
+            // === 步骤4: 参数校验 ===
             if (userInput == null || userInput.trim().isEmpty()) {
                 logger.warn("会话 {} 用户消息为空，忽略处理", sessionId);
                 return;
             }
 
-            // === 步骤4: 流式处理文本消息（支持可选 TTS） ===
+            // === 步骤5: 流式处理文本消息（支持可选 TTS） ===
             String personaPrompt = (String) session.getAttributes().get(SessionAttributeKeys.PERSONA_PROMPT);
             String characterName = (String) session.getAttributes().get(SessionAttributeKeys.CHARACTER_NAME);
 
@@ -203,7 +237,7 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
 
         } catch (Exception e) {
             logger.error("处理会话 {} 的文本消息时发生异常", sessionId, e);
-            sendErrorResponse(session, "文本处理失败，请重试");
+            sendErrorResponse(session, ErrorMessageConstants.TEXT_PROCESS_ERROR);
         }
     }
 
@@ -235,6 +269,97 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
 
         // 清理会话相关资源
         chatService.cleanupSession(session.getId());
+
+        clusterNodeRegistry.sessionClosed();
+        if (session.getAttributes().remove(SessionAttributeKeys.CONVERSATION_LEASED) != null) {
+            conversationOwnershipService.release((String) session.getAttributes().get(SessionAttributeKeys.CONVERSATION_ID));
+        }
+    }
+
+    /**
+     * 通知客户端重连到对话的归属节点并关闭连接
+     * <p>
+     * 浏览器的 WebSocket 不跟随 HTTP 重定向，因此以 redirect 消息下发完整的重连地址
+     * （归属节点地址 + 原路径与查询参数），客户端收到后按该地址重连。
+     * </p>
+     *
+     * @param session WebSocket会话
+     * @param ownerUrl 归属节点的 advertise-url
+     * @param uri 原连接地址
+     */
+    private void redirectToOwner(WebSocketSession session, String ownerUrl, URI uri) {
+        String targetUrl = ownerUrl + (uri != null ? uri.getRawPath() : "/chat")
+            + (uri != null && uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+        try {
+            session.sendMessage(outboundMessageEncoder.redirect(targetUrl, session.getId()));
+            session.close(REDIRECT_CLOSE_STATUS);
+        } catch (Exception e) {
+            logger.error("向会话 {} 发送重定向失败", session.getId(), e);
+        }
+    }
+
+    /**
+     * 协商上下行音频格式
+     * <p>
+     * 客户端通过查询参数 inputFormat / outputFormat 声明音频编码，例如
+     * {@code /chat?inputFormat=adpcm&outputFormat=mp3}。不支持的取值回退为默认格式
+     * （上行 PCM，下行使用 tts.format 配置）。协商成功后回复一条 audio-info 消息告知最终格式。
+     * </p>
+     *
+     * @param session WebSocket会话
+     * @param query 查询字符串
+     */
+    private void negotiateAudioFormats(WebSocketSession session, String query) {
+        String inputParam = extractParameter(query, SessionAttributeKeys.INPUT_AUDIO_FORMAT);
+        String outputParam = extractParameter(query, SessionAttributeKeys.OUTPUT_AUDIO_FORMAT);
+        if (inputParam == null && outputParam == null) {
+            return;
+        }
+
+        AudioFormatEnum inputFormat = AudioFormatEnum.fromCode(inputParam);
+        if (inputFormat == null || !inputFormat.isInputSupported()) {
+            if (inputParam != null) {
+                logger.warn("会话 {} 请求了不支持的上行音频格式: {}，回退为 PCM", session.getId(), inputParam);
+            }
+            inputFormat = AudioFormatEnum.PCM;
+        }
+        session.getAttributes().put(SessionAttributeKeys.INPUT_AUDIO_FORMAT, inputFormat);
+
+        AudioFormatEnum outputFormat = AudioFormatEnum.fromCode(outputParam);
+        if (outputFormat != null && outputFormat.isOutputSupported()) {
+            session.getAttributes().put(SessionAttributeKeys.OUTPUT_AUDIO_FORMAT, outputFormat);
+        } else if (outputParam != null) {
+            logger.warn("会话 {} 请求了不支持的下行音频格式: {}，使用默认格式", session.getId(), outputParam);
+        }
+
+        String audioInfo = SessionAttributeKeys.INPUT_AUDIO_FORMAT + "=" + inputFormat.getCode() + ";"
+            + SessionAttributeKeys.OUTPUT_AUDIO_FORMAT + "=" + (outputFormat != null && outputFormat.isOutputSupported()
+                ? outputFormat.getCode() : "default");
+        logger.info("会话 {} 音频格式协商完成: {}", session.getId(), audioInfo);
+
+        try {
+            session.sendMessage(outboundMessageEncoder.audioInfo(audioInfo, session.getId()));
+        } catch (Exception e) {
+            logger.error("向会话 {} 发送音频格式协商结果失败", session.getId(), e);
+        }
+    }
+
+    /**
+     * 校验客户端携带的对话 ID，无效或缺失时生成新的 ID
+     * <p>
+     * 对话 ID 同时充当读取历史的凭证，只接受足够长的随机串，避免猜测他人的对话。
+     * </p>
+     * @param requested 客户端携带的对话 ID，可为 null
+     * @return 对话 ID
+     */
+    private String resolveConversationId(String requested) {
+        if (requested != null && CONVERSATION_ID_PATTERN.matcher(requested).matches()) {
+            return requested;
+        }
+        if (requested != null) {
+            logger.warn("忽略格式无效的 conversationId: {}", requested);
+        }
+        return UUID.randomUUID().toString();
     }
 
     /**
@@ -271,12 +396,8 @@ public class ChatWebSocketHandler extends AbstractWebSocketHandler {
     private void sendErrorResponse(WebSocketSession session, String errorMessage) {
         try {
             if (session.isOpen()) {
-                // 使用安全的 WebSocketMessageDTO 进行序列化，防止 JSON 注入攻击
-                WebSocketMessageDTO messageDTO = messageFactory.createError(
-                    errorMessage, session.getId());
-                String jsonMessage = objectMapper.writeValueAsString(messageDTO);
-                TextMessage errorMsg = new TextMessage(jsonMessage);
-                session.sendMessage(errorMsg);
+                // 由编码器统一序列化，防止 JSON 注入攻击
+                session.sendMessage(outboundMessageEncoder.error(errorMessage, session.getId()));
             }
         } catch (Exception e) {
             logger.error("发送错误响应失败", e);
@@ -0,0 +1,28 @@
+package com.dotlinea.soulecho.exception;
+
+import lombok.Getter;
+
+/**
+ * 上游熔断异常
+ * <p>
+ * 上游熔断器处于 OPEN 状态（或半开探测名额已用完），本次调用未发往上游。
+ * 调用方应立即降级，不必等待上游超时
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Getter
+public class CircuitOpenException extends RuntimeException {
+
+    /**
+     * 上游名称（llm / asr / tts / retrieval）
+     */
+    private final String upstream;
+
+    public CircuitOpenException(String upstream) {
+        super("上游 " + upstream + " 已熔断");
+        this.upstream = upstream;
+    }
+}
@@ -0,0 +1,28 @@
+package com.dotlinea.soulecho.exception;
+
+import lombok.Getter;
+
+/**
+ * 上游并发已满异常
+ * <p>
+ * 上游调用的并发已达到自适应上限且排队超时，本次调用未发往上游。
+ * 调用方应快速告知客户端繁忙（或降级），而不是重试
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Getter
+public class UpstreamBusyException extends RuntimeException {
+
+    /**
+     * 上游名称（llm / asr / tts）
+     */
+    private final String upstream;
+
+    public UpstreamBusyException(String upstream) {
+        super("上游 " + upstream + " 并发已满");
+        this.upstream = upstream;
+    }
+}
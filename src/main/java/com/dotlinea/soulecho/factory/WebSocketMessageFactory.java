@@ -98,4 +98,52 @@ public class WebSocketMessageFactory {
         dto.setTimestamp(System.currentTimeMillis());
         return dto;
     }
-}
\ No newline at end of file
+
+    /**
+     * 创建对话信息消息
+     *
+     * @param conversationId 对话 ID
+     * @param sessionId 会话 ID
+     * @return WebSocket消息 DTO
+     */
+    public WebSocketMessageDTO createConversationInfo(String conversationId, String sessionId) {
+        WebSocketMessageDTO dto = new WebSocketMessageDTO();
+        dto.setType(MessageTypeConstants.CONVERSATION_INFO);
+        dto.setContent(conversationId);
+        dto.setSessionId(sessionId);
+        dto.setTimestamp(System.currentTimeMillis());
+        return dto;
+    }
+
+    /**
+     * 创建重定向消息
+     *
+     * @param targetUrl 应重连的地址
+     * @param sessionId 会话 ID
+     * @return WebSocket消息 DTO
+     */
+    public WebSocketMessageDTO createRedirect(String targetUrl, String sessionId) {
+        WebSocketMessageDTO dto = new WebSocketMessageDTO();
+        dto.setType(MessageTypeConstants.REDIRECT);
+        dto.setContent(targetUrl);
+        dto.setSessionId(sessionId);
+        dto.setTimestamp(System.currentTimeMillis());
+        return dto;
+    }
+
+    /**
+     * 创建本轮耗时摘要消息
+     *
+     * @param summaryJson 各阶段耗时摘要（JSON）
+     * @param sessionId 会话 ID
+     * @return WebSocket消息 DTO
+     */
+    public WebSocketMessageDTO createTurnTrace(String summaryJson, String sessionId) {
+        WebSocketMessageDTO dto = new WebSocketMessageDTO();
+        dto.setType(MessageTypeConstants.TURN_TRACE);
+        dto.setContent(summaryJson);
+        dto.setSessionId(sessionId);
+        dto.setTimestamp(System.currentTimeMillis());
+        return dto;
+    }
+}
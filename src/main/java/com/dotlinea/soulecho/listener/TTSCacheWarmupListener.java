@@ -0,0 +1,88 @@
+package com.dotlinea.soulecho.listener;
+
+import com.dotlinea.soulecho.client.TTSAudioCache;
+import com.dotlinea.soulecho.client.TTSClient;
+import com.dotlinea.soulecho.client.VoiceProfile;
+import com.dotlinea.soulecho.entity.Character;
+import com.dotlinea.soulecho.repository.CharacterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * TTS 音频缓存预热监听器
+ * <p>
+ * 应用启动完成后，为每个角色的发音人预先合成兜底回复和配置的常用短句，
+ * 使首次出错或问候时也能直接命中 {@link TTSAudioCache}。
+ * 预热在后台线程执行，单条失败不影响其他短句，也不影响启动。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Slf4j
+@Component
+public class TTSCacheWarmupListener {
+
+    @Value("${tts.cache.warmup.enabled:false}")
+    private boolean warmupEnabled;
+
+    @Autowired
+    private TTSClient ttsClient;
+
+    @Autowired
+    private TTSAudioCache audioCache;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    /**
+     * 预热 TTS 音频缓存
+     *
+     * @param event 应用就绪事件
+     */
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (!warmupEnabled) {
+            return;
+        }
+
+        // 兜底回复与 tts.cache.warmup.phrases，由缓存统一登记
+        Set<String> phrases = audioCache.getRegisteredPhrases();
+
+        // 默认发音人 + 各角色发音人（去重）
+        Set<String> voices = new LinkedHashSet<>();
+        voices.add("");
+        for (Character character : characterRepository.findAll()) {
+            if (character.getVoiceId() != null && !character.getVoiceId().isBlank()) {
+                voices.add(character.getVoiceId().trim());
+            }
+        }
+
+        int synthesized = 0;
+        for (String voiceId : voices) {
+            VoiceProfile profile = ttsClient.resolveVoiceProfile(voiceId, null);
+            for (String phrase : phrases) {
+                if (!audioCache.isCacheable(phrase) || audioCache.contains(profile, phrase)) {
+                    continue;
+                }
+                try {
+                    ttsClient.synthesize(phrase, profile, audio -> { });
+                    synthesized++;
+                } catch (Exception e) {
+                    log.warn("TTS 缓存预热失败，发音人: {}，短句: {}", profile.voice(), phrase, e);
+                }
+            }
+        }
+        log.info("TTS 缓存预热完成，发音人数: {}，新合成短句: {}", voices.size(), synthesized);
+    }
+}
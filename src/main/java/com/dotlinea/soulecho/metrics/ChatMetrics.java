@@ -0,0 +1,292 @@
+package com.dotlinea.soulecho.metrics;
+
+import com.dotlinea.soulecho.resilience.AdaptiveConcurrencyLimiter;
+import com.dotlinea.soulecho.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 实时聊天业务指标
+ * <p>
+ * 集中定义 WebSocket 聊天层的计数器与分布统计，业务代码只调用语义化的记录方法，不直接依赖指标名称。
+ * 所有指标以 {@code soulecho.} 为前缀，通过 Actuator 的 metrics / prometheus 端点暴露。
+ * </p>
+ * <p>
+ * 记录方法在热路径上调用（每个音频帧、每个文本块），按「指标名称 + 标签值」缓存已注册的计数器与计时器，
+ * 每次记录只做一次 Map 查找，不重复构建和注册。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次 TTS 熔断（本轮后续片段不再合成，对应前端收到 TTS_BROKEN）
+     */
+    public void recordTtsBreakerTrip() {
+        counter("soulecho.tts.breaker.trips", () -> meterRegistry.counter("soulecho.tts.breaker.trips")).increment();
+    }
+
+    /**
+     * 记录一次 ASR 识别失败
+     *
+     * @param statusCode ASRException 状态码，非 ASR 异常传 null
+     */
+    public void recordAsrFailure(Integer statusCode) {
+        String code = statusCode != null ? String.valueOf(statusCode) : "other";
+        counter("soulecho.asr.failures|" + code, () -> Counter.builder("soulecho.asr.failures")
+            .description("ASR 识别失败次数")
+            .tag("code", code)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * 记录下行发送的字节数
+     *
+     * @param messageType 消息类型（text / binary）
+     * @param bytes 字节数
+     */
+    public void recordOutboundBytes(String messageType, long bytes) {
+        counter("soulecho.ws.outbound.bytes|" + messageType, () -> Counter.builder("soulecho.ws.outbound.bytes")
+            .description("WebSocket 下行字节数")
+            .baseUnit("bytes")
+            .tag("type", messageType)
+            .register(meterRegistry))
+            .increment(bytes);
+    }
+
+    /**
+     * 记录因下行拥塞被丢弃的音频字节数
+     *
+     * @param bytes 丢弃的字节数
+     */
+    public void recordOutboundShed(long bytes) {
+        counter("soulecho.ws.outbound.shed.bytes", () -> Counter.builder("soulecho.ws.outbound.shed.bytes")
+            .description("下行拥塞时丢弃的 TTS 音频字节数")
+            .baseUnit("bytes")
+            .register(meterRegistry))
+            .increment(bytes);
+    }
+
+    /**
+     * 记录一次因客户端无法跟上下行而关闭连接
+     *
+     * @param reason 原因（buffer-size-limit / send-time-limit / send-error / writer-rejected）
+     */
+    public void recordSlowClientClose(String reason) {
+        counter("soulecho.ws.outbound.terminations|" + reason, () -> Counter.builder("soulecho.ws.outbound.terminations")
+            .description("因下行缓冲溢出或写出超时关闭的连接数")
+            .tag("reason", reason)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * 注册下行缓冲总字节数
+     *
+     * @param sessions 带下行队列的会话表
+     * @param totalBytes 计算缓冲总字节数的函数
+     * @param <T> 会话表类型
+     */
+    public <T extends Map<String, ?>> void gaugeOutboundBuffers(T sessions, ToDoubleFunction<T> totalBytes) {
+        Gauge.builder("soulecho.ws.outbound.buffered.bytes", sessions, totalBytes)
+            .description("所有会话尚未写出的下行字节数")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 会话关闭时记录该会话的下行总字节数
+     *
+     * @param bytes 会话生命周期内的下行字节数
+     */
+    public void recordSessionOutboundBytes(long bytes) {
+        summaries.computeIfAbsent("soulecho.ws.session.outbound.bytes", name -> DistributionSummary.builder(name)
+            .description("单个 WebSocket 会话的下行总字节数")
+            .baseUnit("bytes")
+            .publishPercentileHistogram()
+            .register(meterRegistry))
+            .record(bytes);
+    }
+
+    /**
+     * 注册活跃 WebSocket 会话数
+     *
+     * @param sessions 活跃会话表
+     */
+    public void gaugeActiveSessions(Map<String, ?> sessions) {
+        Gauge.builder("soulecho.ws.sessions.active", sessions, Map::size)
+            .description("当前活跃的 WebSocket 会话数")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 注册音频缓冲区指标：缓冲中的会话数与缓冲总字节数
+     *
+     * @param audioBuffers 会话音频缓冲区
+     * @param totalBytes 计算缓冲总字节数的函数
+     * @param <T> 缓冲区表类型
+     */
+    public <T extends Map<String, ?>> void gaugeAudioBuffers(T audioBuffers, ToDoubleFunction<T> totalBytes) {
+        Gauge.builder("soulecho.audio.buffers", audioBuffers, Map::size)
+            .description("正在缓冲上行音频的会话数")
+            .register(meterRegistry);
+        Gauge.builder("soulecho.audio.buffered.bytes", audioBuffers, totalBytes)
+            .description("上行音频缓冲区总字节数")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 记录上游并发许可的排队耗时
+     *
+     * @param upstream 上游名称（llm / asr / tts）
+     * @param acquired 是否获得许可（false 表示排队超时被拒绝）
+     * @param nanos 排队耗时（纳秒）
+     */
+    public void recordUpstreamQueueTime(String upstream, boolean acquired, long nanos) {
+        String outcome = acquired ? "acquired" : "rejected";
+        timer("soulecho.upstream.limiter.queue.time|" + upstream + '|' + outcome,
+            () -> Timer.builder("soulecho.upstream.limiter.queue.time")
+                .description("上游并发许可排队耗时")
+                .tag("upstream", upstream)
+                .tag("outcome", outcome)
+                .register(meterRegistry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 注册上游并发限制器的当前上限与进行中调用数
+     *
+     * @param limiter 并发限制器
+     */
+    public void gaugeUpstreamLimiter(AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("soulecho.upstream.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+            .description("上游自适应并发上限")
+            .tag("upstream", limiter.getName())
+            .register(meterRegistry);
+        Gauge.builder("soulecho.upstream.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+            .description("上游进行中的调用数")
+            .tag("upstream", limiter.getName())
+            .register(meterRegistry);
+    }
+
+    /**
+     * 注册上游熔断器状态（0 关闭、1 半开、2 熔断）
+     *
+     * @param breaker 熔断器
+     */
+    public void gaugeCircuitBreaker(CircuitBreaker breaker) {
+        Gauge.builder("soulecho.upstream.breaker.state", breaker, b -> b.getState().getCode())
+            .description("上游熔断器状态：0 关闭，1 半开，2 熔断")
+            .tag("upstream", breaker.getName())
+            .register(meterRegistry);
+    }
+
+    /**
+     * 记录一次熔断器状态变化
+     *
+     * @param upstream 上游名称
+     * @param state 新状态（CLOSED / HALF_OPEN / OPEN）
+     */
+    public void recordBreakerTransition(String upstream, String state) {
+        counter("soulecho.upstream.breaker.transitions|" + upstream + '|' + state,
+            () -> Counter.builder("soulecho.upstream.breaker.transitions")
+                .description("上游熔断器状态变化次数")
+                .tag("upstream", upstream)
+                .tag("state", state)
+                .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * 记录一次 LLM 模型路由结果
+     *
+     * @param model 本轮首选模型
+     * @param reason 选择原因（default / short / premium / failover / latency）
+     */
+    public void recordModelRoute(String model, String reason) {
+        counter("soulecho.llm.route|" + model + '|' + reason, () -> Counter.builder("soulecho.llm.route")
+            .description("LLM 模型路由次数")
+            .tag("model", model)
+            .tag("reason", reason)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * 记录 LLM 模型的首包耗时
+     *
+     * @param model 模型名称
+     * @param nanos 从发起请求到收到第一个文本块的耗时（纳秒）
+     */
+    public void recordModelFirstChunk(String model, long nanos) {
+        timer("soulecho.llm.first.chunk|" + model, () -> Timer.builder("soulecho.llm.first.chunk")
+            .description("LLM 模型首包耗时")
+            .tag("model", model)
+            .publishPercentiles(0.5, 0.95)
+            .register(meterRegistry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次 LLM 对冲请求的决策或结果
+     *
+     * @param outcome started（发起）/ won（对冲请求先返回首包）/ skipped_budget / skipped_saturated
+     */
+    public void recordLlmHedge(String outcome) {
+        counter("soulecho.llm.hedge|" + outcome, () -> Counter.builder("soulecho.llm.hedge")
+            .description("LLM 对冲请求次数")
+            .tag("outcome", outcome)
+            .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * 按缓存键取得计数器，首次使用时注册
+     *
+     * @param key 指标名称与标签值组成的缓存键
+     * @param registration 注册计数器
+     * @return 计数器
+     */
+    private Counter counter(String key, Supplier<Counter> registration) {
+        Counter counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> registration.get());
+    }
+
+    /**
+     * 按缓存键取得计时器，首次使用时注册
+     *
+     * @param key 指标名称与标签值组成的缓存键
+     * @param registration 注册计时器
+     * @return 计时器
+     */
+    private Timer timer(String key, Supplier<Timer> registration) {
+        Timer timer = timers.get(key);
+        return timer != null ? timer : timers.computeIfAbsent(key, k -> registration.get());
+    }
+}
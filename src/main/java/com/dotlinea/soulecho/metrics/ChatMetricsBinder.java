@@ -0,0 +1,136 @@
+package com.dotlinea.soulecho.metrics;
+
+import com.dotlinea.soulecho.client.ASRConnectionManager;
+import com.dotlinea.soulecho.client.LLMResponseCache;
+import com.dotlinea.soulecho.client.TTSAudioCache;
+import com.dotlinea.soulecho.client.token.NlsTokenService;
+import com.dotlinea.soulecho.config.AsyncConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+
+/**
+ * 聊天链路容量指标绑定器
+ * <p>
+ * 线程池的活跃线程数、队列深度等由 Spring Boot 自动为 ThreadPoolTaskExecutor 注册
+ * （{@code executor.active}、{@code executor.queued}，标签 name 为 Bean 名称）。
+ * 这里补充自动配置覆盖不到的容量信号：
+ * <ul>
+ * <li>线程池拒绝后降级到调用线程执行（CallerRuns）的次数</li>
+ * <li>ASR 识别会话配额的占用、等待耗时与等待超时次数</li>
+ * <li>NLS Token 的剩余有效期与获取失败次数</li>
+ * <li>TTS 音频缓存的命中、未命中与内存占用</li>
+ * <li>LLM 回复缓存的命中、未命中与条目数</li>
+ * </ul>
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatMetricsBinder implements MeterBinder {
+
+    private final Map<String, Executor> executors;
+    private final ASRConnectionManager asrConnectionManager;
+    private final NlsTokenService nlsTokenService;
+    private final TTSAudioCache ttsAudioCache;
+    private final LLMResponseCache llmResponseCache;
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        bindCallerRunsFallbacks(registry);
+        bindAsrSessions(registry);
+        bindNlsToken(registry);
+        bindTtsCache(registry);
+        bindLlmCache(registry);
+    }
+
+    private void bindCallerRunsFallbacks(MeterRegistry registry) {
+        executors.forEach((name, executor) -> {
+            if (!(executor instanceof ThreadPoolTaskExecutor taskExecutor)) {
+                return;
+            }
+            RejectedExecutionHandler handler = taskExecutor.getThreadPoolExecutor().getRejectedExecutionHandler();
+            if (handler instanceof AsyncConfig.CountingCallerRunsPolicy policy) {
+                FunctionCounter.builder("soulecho.executor.caller.runs", policy,
+                        AsyncConfig.CountingCallerRunsPolicy::getCallerRunsCount)
+                    .description("线程池饱和后降级到调用线程执行的任务数")
+                    .tag("name", name)
+                    .register(registry);
+            }
+        });
+    }
+
+    private void bindAsrSessions(MeterRegistry registry) {
+        Gauge.builder("soulecho.asr.sessions.active", asrConnectionManager, ASRConnectionManager::getActiveSessions)
+            .description("进行中的 ASR 识别会话数")
+            .register(registry);
+        Gauge.builder("soulecho.asr.sessions.available", asrConnectionManager,
+                ASRConnectionManager::getAvailableSessions)
+            .description("剩余可用的 ASR 识别会话配额")
+            .register(registry);
+        FunctionCounter.builder("soulecho.asr.sessions.acquire.timeouts", asrConnectionManager,
+                ASRConnectionManager::getTimeoutCount)
+            .description("等待 ASR 识别会话配额超时的次数")
+            .register(registry);
+        Gauge.builder("soulecho.asr.sessions.wait.avg", asrConnectionManager, ASRConnectionManager::getAverageWaitMillis)
+            .description("ASR 识别会话配额的平均等待耗时")
+            .baseUnit("milliseconds")
+            .register(registry);
+        Gauge.builder("soulecho.asr.sessions.wait.max", asrConnectionManager, ASRConnectionManager::getMaxWaitMillis)
+            .description("ASR 识别会话配额的最大等待耗时")
+            .baseUnit("milliseconds")
+            .register(registry);
+    }
+
+    private void bindNlsToken(MeterRegistry registry) {
+        Gauge.builder("soulecho.nls.token.expiry", nlsTokenService, NlsTokenService::getSecondsUntilExpiry)
+            .description("NLS Token 剩余有效期")
+            .baseUnit("seconds")
+            .register(registry);
+        FunctionCounter.builder("soulecho.nls.token.fetch.failures", nlsTokenService,
+                NlsTokenService::getFetchFailureCount)
+            .description("NLS Token 获取失败次数")
+            .register(registry);
+    }
+
+    private void bindTtsCache(MeterRegistry registry) {
+        FunctionCounter.builder("soulecho.tts.cache.requests", ttsAudioCache, TTSAudioCache::getHitCount)
+            .description("TTS 音频缓存查询次数")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("soulecho.tts.cache.requests", ttsAudioCache, TTSAudioCache::getMissCount)
+            .description("TTS 音频缓存查询次数")
+            .tag("result", "miss")
+            .register(registry);
+        Gauge.builder("soulecho.tts.cache.memory", ttsAudioCache, TTSAudioCache::getMemoryBytes)
+            .description("TTS 音频缓存内存占用")
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    private void bindLlmCache(MeterRegistry registry) {
+        FunctionCounter.builder("soulecho.llm.cache.requests", llmResponseCache, LLMResponseCache::getHitCount)
+            .description("LLM 回复缓存查询次数")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("soulecho.llm.cache.requests", llmResponseCache, LLMResponseCache::getMissCount)
+            .description("LLM 回复缓存查询次数")
+            .tag("result", "miss")
+            .register(registry);
+        Gauge.builder("soulecho.llm.cache.entries", llmResponseCache, LLMResponseCache::size)
+            .description("LLM 回复缓存条目数")
+            .register(registry);
+    }
+}
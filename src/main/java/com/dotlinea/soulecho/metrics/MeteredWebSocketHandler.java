@@ -0,0 +1,92 @@
+package com.dotlinea.soulecho.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带指标统计的 WebSocket 处理器装饰器
+ * <p>
+ * 为每个连接创建一个统计下行字节数的会话装饰器，并在该连接的所有回调中传递同一个装饰器，
+ * 因此业务层通过 session.sendMessage 发出的消息都会被计数。同时以活跃会话表提供会话数指标，
+ * 连接关闭时记录该会话的下行总字节数。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class MeteredWebSocketHandler extends WebSocketHandlerDecorator {
+
+    private final ChatMetrics chatMetrics;
+
+    private final Map<String, MeteredSession> sessions = new ConcurrentHashMap<>();
+
+    public MeteredWebSocketHandler(WebSocketHandler delegate, ChatMetrics chatMetrics) {
+        super(delegate);
+        this.chatMetrics = chatMetrics;
+        chatMetrics.gaugeActiveSessions(sessions);
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NotNull WebSocketSession session) throws Exception {
+        super.afterConnectionEstablished(sessions.computeIfAbsent(session.getId(), id -> new MeteredSession(session)));
+    }
+
+    @Override
+    public void handleMessage(@NotNull WebSocketSession session, @NotNull WebSocketMessage<?> message) throws Exception {
+        super.handleMessage(metered(session), message);
+    }
+
+    @Override
+    public void handleTransportError(@NotNull WebSocketSession session, @NotNull Throwable exception) throws Exception {
+        super.handleTransportError(metered(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(@NotNull WebSocketSession session, @NotNull CloseStatus closeStatus) throws Exception {
+        MeteredSession metered = sessions.remove(session.getId());
+        try {
+            super.afterConnectionClosed(metered != null ? metered : session, closeStatus);
+        } finally {
+            if (metered != null) {
+                chatMetrics.recordSessionOutboundBytes(metered.outboundBytes.get());
+            }
+        }
+    }
+
+    private WebSocketSession metered(WebSocketSession session) {
+        MeteredSession metered = sessions.get(session.getId());
+        return metered != null ? metered : session;
+    }
+
+    /**
+     * 统计下行字节数的会话装饰器
+     */
+    private final class MeteredSession extends WebSocketSessionDecorator {
+
+        private final AtomicLong outboundBytes = new AtomicLong();
+
+        private MeteredSession(WebSocketSession delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void sendMessage(@NotNull WebSocketMessage<?> message) throws IOException {
+            int bytes = message.getPayloadLength();
+            super.sendMessage(message);
+            outboundBytes.addAndGet(bytes);
+            chatMetrics.recordOutboundBytes(message instanceof BinaryMessage ? "binary" : "text", bytes);
+        }
+    }
+}
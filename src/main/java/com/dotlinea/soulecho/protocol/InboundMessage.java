@@ -0,0 +1,50 @@
+package com.dotlinea.soulecho.protocol;
+
+/**
+ * WebSocket 上行文本消息
+ * <p>
+ * 由 {@link InboundMessageParser} 一次解析得到，处理器按具体类型分派：
+ * <ul>
+ * <li>{@link Ping}：应用层心跳 {@code {"type":"ping"}}</li>
+ * <li>{@link ChatRequest}：JSON 聊天消息 {@code {"message":"...","ttsEnabled":true}}，
+ *     message 缺失时读取 content，两者都缺失且带 ttsEnabled 时为纯 TTS 状态更新</li>
+ * <li>{@link PlainText}：非 JSON 或无法解析的负载，整体视为用户文本</li>
+ * </ul>
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public sealed interface InboundMessage
+        permits InboundMessage.Ping, InboundMessage.ChatRequest, InboundMessage.PlainText {
+
+    /**
+     * 心跳消息（无状态，共享单例）
+     */
+    record Ping() implements InboundMessage {
+
+        public static final Ping INSTANCE = new Ping();
+    }
+
+    /**
+     * JSON 聊天消息
+     *
+     * @param text 用户文本，可能为 null
+     * @param ttsEnabled TTS 开关，消息未携带该字段时为 null
+     */
+    record ChatRequest(String text, Boolean ttsEnabled) implements InboundMessage {
+
+        public boolean hasTtsField() {
+            return ttsEnabled != null;
+        }
+    }
+
+    /**
+     * 纯文本消息
+     *
+     * @param text 原始负载
+     */
+    record PlainText(String text) implements InboundMessage {
+    }
+}
@@ -0,0 +1,115 @@
+package com.dotlinea.soulecho.protocol;
+
+import com.dotlinea.soulecho.constants.MessageTypeConstants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * WebSocket 上行文本消息解析器
+ * <p>
+ * 以流式 {@link JsonParser} 单次扫描负载，只读取 type / message / content / ttsEnabled 四个字段，
+ * 不构建 JsonNode 树。首个非空白字符不是 '{' 的负载直接视为纯文本，不进入 JSON 解析，
+ * 也不依赖异常做分支判断（仅以 '{' 开头但格式错误的负载会回退为纯文本）。
+ * </p>
+ * <p>
+ * 字段取值规则与原 readTree 实现一致：message 仅接受字符串，content 接受任意标量，
+ * ttsEnabled 按 JsonNode.asBoolean 的语义转换，重复字段以最后一次出现为准。线程安全。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+public class InboundMessageParser {
+
+    private final JsonFactory jsonFactory;
+
+    public InboundMessageParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * 解析上行文本消息
+     *
+     * @param payload 文本负载
+     * @return 解析结果，不为 null
+     */
+    public InboundMessage parse(String payload) {
+        if (payload == null || !startsWithObject(payload)) {
+            return new InboundMessage.PlainText(payload);
+        }
+
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new InboundMessage.PlainText(payload);
+            }
+
+            boolean ping = false;
+            String message = null;
+            String content = null;
+            Boolean ttsEnabled = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "type" -> ping = value == JsonToken.VALUE_STRING
+                        && MessageTypeConstants.PING.equals(parser.getText());
+                    case "message" -> message = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    case "content" -> content = scalarText(parser, value);
+                    case "ttsEnabled" -> ttsEnabled = booleanValue(parser, value);
+                    default -> {
+                        // 忽略未知字段
+                    }
+                }
+                parser.skipChildren();
+            }
+
+            if (ping) {
+                return InboundMessage.Ping.INSTANCE;
+            }
+            return new InboundMessage.ChatRequest(message != null ? message : content, ttsEnabled);
+        } catch (IOException e) {
+            // 以 '{' 开头但不是合法 JSON，按纯文本处理
+            return new InboundMessage.PlainText(payload);
+        }
+    }
+
+    private static boolean startsWithObject(String payload) {
+        for (int i = 0; i < payload.length(); i++) {
+            char c = payload.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '{';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 等价于 JsonNode.asText()：标量返回文本，null 返回 "null"，对象与数组返回空串
+     */
+    private static String scalarText(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return "null";
+        }
+        return value.isScalarValue() ? parser.getText() : "";
+    }
+
+    /**
+     * 等价于 JsonNode.asBoolean()：布尔原值，非零整数为 true，字符串 "true" 为 true，其余为 false
+     */
+    private static boolean booleanValue(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_TRUE -> true;
+            case VALUE_NUMBER_INT -> parser.getBigIntegerValue().signum() != 0;
+            case VALUE_STRING -> "true".equals(parser.getText().trim());
+            default -> false;
+        };
+    }
+}
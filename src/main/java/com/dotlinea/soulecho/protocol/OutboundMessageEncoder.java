@@ -0,0 +1,220 @@
+package com.dotlinea.soulecho.protocol;
+
+import com.dotlinea.soulecho.constants.ErrorMessageConstants;
+import com.dotlinea.soulecho.constants.MessageTypeConstants;
+import com.dotlinea.soulecho.dto.WebSocketMessageDTO;
+import com.dotlinea.soulecho.factory.WebSocketMessageFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebSocket 下行文本消息编码器
+ * <p>
+ * 统一生成所有下行文本帧，客户端按 type 字段区分 AI 文本与控制消息：
+ * <ul>
+ * <li>pong、busy 与 {@link ErrorMessageConstants} 中的固定错误提示在启动时预编码为共享帧，发送时零分配。
+ *     预编码帧不含 sessionId 与 timestamp</li>
+ * <li>AI 文本块编码为 {@code {"type":"ai-chunk","seq":0,"delta":"..."}}，直接拼接字符串，
+ *     不经过 DTO 与 ObjectMapper；本轮结束时发送 {@code {"type":"ai-end","seq":N}}</li>
+ * <li>其余控制消息仍由 {@link WebSocketMessageFactory} 创建 DTO，使用预先构建的 ObjectWriter 序列化</li>
+ * </ul>
+ * </p>
+ * <p>
+ * 帧对象不可变，可在会话与线程间共享。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+public class OutboundMessageEncoder {
+
+    private static final String AI_CHUNK_PREFIX = "{\"type\":\"" + MessageTypeConstants.AI_CHUNK + "\",\"seq\":";
+    private static final String AI_END_PREFIX = "{\"type\":\"" + MessageTypeConstants.AI_END + "\",\"seq\":";
+    private static final String DELTA_FIELD = ",\"delta\":\"";
+
+    private final WebSocketMessageFactory messageFactory;
+    private final ObjectWriter messageWriter;
+    private final ObjectWriter summaryWriter;
+
+    private final TextMessage pongFrame;
+    private final TextMessage busyFrame;
+    private final Map<String, TextMessage> constantErrorFrames;
+
+    public OutboundMessageEncoder(ObjectMapper objectMapper, WebSocketMessageFactory messageFactory) {
+        this.messageFactory = messageFactory;
+        this.messageWriter = objectMapper.writerFor(WebSocketMessageDTO.class);
+        this.summaryWriter = objectMapper.writerFor(new TypeReference<Map<String, Object>>() {
+        });
+
+        WebSocketMessageDTO pong = new WebSocketMessageDTO();
+        pong.setType(MessageTypeConstants.PONG);
+        this.pongFrame = preEncode(pong);
+
+        WebSocketMessageDTO busy = new WebSocketMessageDTO();
+        busy.setType(MessageTypeConstants.BUSY);
+        busy.setContent(ErrorMessageConstants.SYSTEM_BUSY);
+        this.busyFrame = preEncode(busy);
+
+        Map<String, TextMessage> errorFrames = new HashMap<>();
+        for (String errorMessage : ErrorMessageConstants.ALL) {
+            WebSocketMessageDTO error = new WebSocketMessageDTO();
+            error.setType(MessageTypeConstants.ERROR);
+            error.setContent(errorMessage);
+            errorFrames.put(errorMessage, preEncode(error));
+        }
+        this.constantErrorFrames = Map.copyOf(errorFrames);
+    }
+
+    /**
+     * 心跳响应帧（共享实例）
+     */
+    public TextMessage pong() {
+        return pongFrame;
+    }
+
+    /**
+     * 繁忙帧（共享实例）
+     */
+    public TextMessage busy() {
+        return busyFrame;
+    }
+
+    /**
+     * 错误帧，固定提示直接返回预编码帧
+     *
+     * @param errorMessage 错误提示
+     * @param sessionId    会话 ID
+     * @return 文本帧
+     * @throws JsonProcessingException 序列化失败
+     */
+    public TextMessage error(String errorMessage, String sessionId) throws JsonProcessingException {
+        TextMessage constantFrame = constantErrorFrames.get(errorMessage);
+        if (constantFrame != null) {
+            return constantFrame;
+        }
+        return encode(messageFactory.createError(errorMessage, sessionId));
+    }
+
+    /**
+     * 带错误码的错误帧
+     *
+     * @param errorMessage 错误提示
+     * @param errorCode    错误码
+     * @param sessionId    会话 ID
+     * @return 文本帧
+     * @throws JsonProcessingException 序列化失败
+     */
+    public TextMessage errorWithCode(String errorMessage, String errorCode, String sessionId)
+            throws JsonProcessingException {
+        return encode(messageFactory.createErrorWithCode(errorMessage, errorCode, sessionId));
+    }
+
+    /**
+     * 用户转写回显帧
+     *
+     * @param transcribedText 转写文本
+     * @param sessionId       会话 ID
+     * @return 文本帧
+     * @throws JsonProcessingException 序列化失败
+     */
+    public TextMessage userTranscription(String transcribedText, String sessionId) throws JsonProcessingException {
+        return encode(messageFactory.createUserTranscription(transcribedText, sessionId));
+    }
+
+    /**
+     * 音频格式协商结果帧
+     *
+     * @param audioInfo 音频信息
+     * @param sessionId 会话 ID
+     * @return 文本帧
+     * @throws JsonProcessingException 序列化失败
+     */
+    public TextMessage audioInfo(String audioInfo, String sessionId) throws JsonProcessingException {
+        return encode(messageFactory.createAudioInfo(audioInfo, sessionId));
+    }
+
+    /**
+     * 对话信息帧
+     *
+     * @param conversationId 对话 ID
+     * @param sessionId      会话 ID
+     * @return 文本帧
+     * @throws JsonProcessingException 序列化失败
+     */
+    public TextMessage conversationInfo(String conversationId, String sessionId) throws JsonProcessingException {
+        return encode(messageFactory.createConversationInfo(conversationId, sessionId));
+    }
+
+    /**
+     * 重定向帧
+     *
+     * @param targetUrl 应重连的地址
+     * @param sessionId 会话 ID
+     * @return 文本帧
+     * @throws JsonProcessingException 序列化失败
+     */
+    public TextMessage redirect(String targetUrl, String sessionId) throws JsonProcessingException {
+        return encode(messageFactory.createRedirect(targetUrl, sessionId));
+    }
+
+    /**
+     * 本轮耗时摘要帧
+     *
+     * @param summary   各阶段耗时摘要
+     * @param sessionId 会话 ID
+     * @return 文本帧
+     * @throws JsonProcessingException 序列化失败
+     */
+    public TextMessage turnTrace(Map<String, Object> summary, String sessionId) throws JsonProcessingException {
+        return encode(messageFactory.createTurnTrace(summaryWriter.writeValueAsString(summary), sessionId));
+    }
+
+    /**
+     * AI 文本块帧
+     *
+     * @param seq   本轮内的文本块序号，从 0 开始
+     * @param delta 增量文本
+     * @return 文本帧
+     */
+    public TextMessage aiChunk(long seq, String delta) {
+        StringBuilder json = new StringBuilder(AI_CHUNK_PREFIX.length() + DELTA_FIELD.length() + delta.length() + 24);
+        json.append(AI_CHUNK_PREFIX).append(seq).append(DELTA_FIELD);
+        JsonStringEncoder.getInstance().quoteAsString(delta, json);
+        json.append("\"}");
+        return new TextMessage(json);
+    }
+
+    /**
+     * AI 回复结束帧
+     *
+     * @param chunkCount 本轮已发送的文本块数
+     * @return 文本帧
+     */
+    public TextMessage aiEnd(long chunkCount) {
+        return new TextMessage(AI_END_PREFIX + chunkCount + "}");
+    }
+
+    private TextMessage encode(WebSocketMessageDTO message) throws JsonProcessingException {
+        return new TextMessage(messageWriter.writeValueAsString(message));
+    }
+
+    private TextMessage preEncode(WebSocketMessageDTO message) {
+        try {
+            // 以字节数组构造，发送与统计字节数时无需再次编码
+            return new TextMessage(messageWriter.writeValueAsString(message).getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("预编码下行消息失败: " + message.getType(), e);
+        }
+    }
+}
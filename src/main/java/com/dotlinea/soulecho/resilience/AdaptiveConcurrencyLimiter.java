@@ -0,0 +1,178 @@
+package com.dotlinea.soulecho.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD 自适应并发限制器
+ * <p>
+ * 限制同时进行中的上游调用数，并按调用结果调整上限：
+ * <ul>
+ * <li>加性增：调用成功且并发已用到上限一半以上时，上限增加 1/limit（约每个窗口增加 1）</li>
+ * <li>乘性减：上游失败（限流、超时、服务端错误）时，上限乘以 backoffRatio</li>
+ * </ul>
+ * 上限在 [minLimit, maxLimit] 之间浮动。达到上限后，调用方最多排队等待 maxWait，仍无空位时返回 null，
+ * 由调用方快速拒绝，而不是让线程堆积在上游。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    /**
+     * 当前上限（小数部分累积加性增量），由 lock 保护
+     */
+    private double limit;
+    private int inFlight;
+
+    /**
+     * @param name 上游名称
+     * @param initialLimit 初始上限
+     * @param minLimit 最小上限
+     * @param maxLimit 最大上限
+     * @param backoffRatio 失败时的上限缩减比例（0-1）
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * 获取调用许可，并发已满时最多等待 maxWaitMillis
+     *
+     * @param maxWaitMillis 最长排队时间（毫秒），0 表示不等待
+     * @return 许可；排队超时返回 null
+     * @throws InterruptedException 排队时被中断
+     */
+    public Permit acquire(long maxWaitMillis) throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = released.awaitNanos(remainingNanos);
+            }
+            inFlight++;
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 并发是否已达上限
+     */
+    public boolean isSaturated() {
+        lock.lock();
+        try {
+            return inFlight >= (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 上游名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前上限
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 进行中的调用数
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onRelease(boolean upstreamFailed) {
+        lock.lock();
+        try {
+            if (upstreamFailed) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight * 2 >= limit) {
+                // 仅在并发确实用到上限附近时增长，避免空闲期上限无限膨胀
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onCancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 调用许可，调用结束后必须且只需释放一次
+     */
+    public final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        /**
+         * 释放许可并反馈调用结果
+         *
+         * @param upstreamFailed 上游是否失败（限流、超时或服务端错误），失败时缩减上限
+         */
+        public void release(boolean upstreamFailed) {
+            if (released.compareAndSet(false, true)) {
+                onRelease(upstreamFailed);
+            }
+        }
+
+        /**
+         * 释放许可但不反馈结果，用于拿到许可后并未真正调用上游的情况，上限保持不变
+         */
+        public void cancel() {
+            if (released.compareAndSet(false, true)) {
+                onCancel();
+            }
+        }
+    }
+}
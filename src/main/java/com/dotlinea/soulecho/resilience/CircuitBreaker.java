@@ -0,0 +1,247 @@
+package com.dotlinea.soulecho.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 上游熔断器
+ * <p>
+ * 以最近 windowSize 次调用结果组成的滑动窗口计算失败率与慢调用率：
+ * <ul>
+ * <li>CLOSED：正常放行。窗口内调用数达到 minimumCalls 且失败率或慢调用率超过阈值时转为 OPEN</li>
+ * <li>OPEN：直接拒绝，调用方立即降级而不必等待上游失败。持续 openDuration 后转为 HALF_OPEN</li>
+ * <li>HALF_OPEN：只放行 halfOpenCalls 次探测调用，全部成功（且不慢）后恢复 CLOSED，任一失败重新 OPEN</li>
+ * </ul>
+ * 获得许可的调用必须通过 {@link #onResult} 上报结果；状态变化通过回调通知（用于指标与日志）。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED(0), HALF_OPEN(1), OPEN(2);
+
+        private final int code;
+
+        State(int code) {
+            this.code = code;
+        }
+
+        /**
+         * 指标中使用的状态值
+         */
+        public int getCode() {
+            return code;
+        }
+    }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final Consumer<State> transitionListener;
+    private final LongSupplier nanoClock;
+
+    /**
+     * 滑动窗口：每个槽位记录一次调用是否失败、是否慢调用，由 this 锁保护
+     */
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int windowCount;
+    private int windowIndex;
+    private int failureCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+
+    /**
+     * @param name 上游名称
+     * @param windowSize 滑动窗口大小（调用次数）
+     * @param minimumCalls 计算比率所需的最少调用数
+     * @param failureRateThreshold 失败率阈值（0-1）
+     * @param slowCallRateThreshold 慢调用率阈值（0-1）
+     * @param slowCallDurationMs 慢调用耗时阈值（毫秒），0 表示不统计慢调用
+     * @param openDurationMs OPEN 状态持续时间（毫秒）
+     * @param halfOpenCalls HALF_OPEN 状态放行的探测调用数
+     * @param transitionListener 状态变化回调
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          double slowCallRateThreshold, long slowCallDurationMs, long openDurationMs,
+                          int halfOpenCalls, Consumer<State> transitionListener) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallDurationMs,
+            openDurationMs, halfOpenCalls, transitionListener, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                   double slowCallRateThreshold, long slowCallDurationMs, long openDurationMs,
+                   int halfOpenCalls, Consumer<State> transitionListener, LongSupplier nanoClock) {
+        this.name = name;
+        this.failures = new boolean[Math.max(1, windowSize)];
+        this.slowCalls = new boolean[failures.length];
+        this.minimumCalls = Math.min(Math.max(1, minimumCalls), failures.length);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = slowCallDurationMs > 0 ? TimeUnit.MILLISECONDS.toNanos(slowCallDurationMs) : Long.MAX_VALUE;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.transitionListener = transitionListener;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @return true 表示可以调用上游，调用结束后必须上报结果；false 表示熔断中，应立即降级
+     */
+    public boolean tryAcquirePermission() {
+        State transitioned = null;
+        boolean permitted;
+        synchronized (this) {
+            if (state == State.OPEN && nanoClock.getAsLong() - openedAtNanos >= openDurationNanos) {
+                transitioned = transitionTo(State.HALF_OPEN);
+            }
+            permitted = switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (halfOpenPermitted < halfOpenCalls) {
+                        halfOpenPermitted++;
+                        yield true;
+                    }
+                    yield false;
+                }
+            };
+        }
+        notifyTransition(transitioned);
+        return permitted;
+    }
+
+    /**
+     * 归还一次未使用的调用许可（放行后没有真正调用上游），不计入结果
+     * <p>
+     * 半开状态下归还探测名额，避免探测许可被占用后迟迟得不到结果。
+     * </p>
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermitted > halfOpenSucceeded) {
+            halfOpenPermitted--;
+        }
+    }
+
+    /**
+     * 当前是否处于熔断中（不消耗探测许可）
+     * <p>
+     * OPEN 已超过 openDuration 时返回 false，让下一次调用进入半开探测。
+     * </p>
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && nanoClock.getAsLong() - openedAtNanos < openDurationNanos;
+    }
+
+    /**
+     * 上报一次已放行调用的结果
+     *
+     * @param durationNanos 调用耗时（纳秒）
+     * @param failed 是否失败
+     */
+    public void onResult(long durationNanos, boolean failed) {
+        boolean slow = durationNanos >= slowCallDurationNanos;
+        State transitioned = null;
+        synchronized (this) {
+            switch (state) {
+                case HALF_OPEN -> {
+                    if (failed || slow) {
+                        transitioned = transitionTo(State.OPEN);
+                    } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                        transitioned = transitionTo(State.CLOSED);
+                    }
+                }
+                case CLOSED -> {
+                    record(failed, slow);
+                    if (windowCount >= minimumCalls
+                        && (failureCount >= failureRateThreshold * windowCount
+                            || slowCount >= slowCallRateThreshold * windowCount)) {
+                        transitioned = transitionTo(State.OPEN);
+                    }
+                }
+                case OPEN -> {
+                    // 熔断前放行的调用在熔断后才结束，结果不再计入
+                }
+            }
+        }
+        notifyTransition(transitioned);
+    }
+
+    /**
+     * 上游名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前状态
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (windowCount == failures.length) {
+            // 窗口已满，覆盖最旧的记录
+            if (failures[windowIndex]) {
+                failureCount--;
+            }
+            if (slowCalls[windowIndex]) {
+                slowCount--;
+            }
+        } else {
+            windowCount++;
+        }
+        failures[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+        if (failed) {
+            failureCount++;
+        }
+        if (slow) {
+            slowCount++;
+        }
+        windowIndex = (windowIndex + 1) % failures.length;
+    }
+
+    private State transitionTo(State target) {
+        state = target;
+        halfOpenPermitted = 0;
+        halfOpenSucceeded = 0;
+        if (target == State.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+        }
+        if (target == State.CLOSED) {
+            // 恢复后重新统计，避免熔断前的失败立即再次触发
+            windowCount = 0;
+            windowIndex = 0;
+            failureCount = 0;
+            slowCount = 0;
+        }
+        return target;
+    }
+
+    private void notifyTransition(State transitioned) {
+        if (transitioned != null && transitionListener != null) {
+            transitionListener.accept(transitioned);
+        }
+    }
+}
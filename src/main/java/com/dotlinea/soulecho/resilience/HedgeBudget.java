@@ -0,0 +1,53 @@
+package com.dotlinea.soulecho.resilience;
+
+/**
+ * 对冲请求预算
+ * <p>
+ * 令牌桶：每个普通请求存入 ratio 个令牌（不超过 maxBurst），每次对冲消耗 1 个令牌，
+ * 长期看对冲请求数不超过普通请求数的 ratio 倍。上游整体变慢时对冲会很快耗尽预算，
+ * 不会把流量放大一倍压垮上游。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class HedgeBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+
+    /**
+     * 当前令牌数，由 this 锁保护
+     */
+    private double tokens;
+
+    /**
+     * @param ratio 对冲请求占普通请求的最大比例（0-1）
+     * @param maxBurst 允许连续对冲的最大次数
+     */
+    public HedgeBudget(double ratio, int maxBurst) {
+        this.ratio = Math.max(0, ratio);
+        this.maxTokens = Math.max(1, maxBurst);
+    }
+
+    /**
+     * 记录一次普通请求，存入令牌
+     */
+    public synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * 申请一次对冲
+     *
+     * @return false 表示预算不足，不应发起对冲
+     */
+    public synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
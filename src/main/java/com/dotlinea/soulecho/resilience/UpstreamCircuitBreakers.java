@@ -0,0 +1,170 @@
+package com.dotlinea.soulecho.resilience;
+
+import com.dotlinea.soulecho.exception.CircuitOpenException;
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 上游熔断器注册表
+ * <p>
+ * 为 LLM、ASR、TTS 与百炼知识库检索各维护一个进程级 {@link CircuitBreaker}，窗口与阈值共用 upstream.breaker.* 配置，
+ * 慢调用阈值按上游分别配置。各客户端在访问上游前申请许可、结束后上报结果；
+ * 聊天流程在熔断期间直接跳过 TTS 与检索，不再让每一轮都等待上游失败。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpstreamCircuitBreakers {
+
+    /**
+     * 百炼知识库检索
+     */
+    public static final String RETRIEVAL = "retrieval";
+
+    private final ChatMetrics chatMetrics;
+
+    /**
+     * 滑动窗口大小（最近调用次数）
+     */
+    @Value("${upstream.breaker.window-size:20}")
+    private int windowSize;
+
+    /**
+     * 计算失败率所需的最少调用数
+     */
+    @Value("${upstream.breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    /**
+     * 失败率阈值（0-1）
+     */
+    @Value("${upstream.breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    /**
+     * 慢调用率阈值（0-1）
+     */
+    @Value("${upstream.breaker.slow-call-rate-threshold:0.8}")
+    private double slowCallRateThreshold;
+
+    /**
+     * 熔断持续时间（毫秒），之后进入半开探测
+     */
+    @Value("${upstream.breaker.open-duration-ms:10000}")
+    private long openDurationMs;
+
+    /**
+     * 半开状态放行的探测调用数
+     */
+    @Value("${upstream.breaker.half-open-calls:2}")
+    private int halfOpenCalls;
+
+    /**
+     * LLM 慢调用阈值（毫秒），流式总耗时随回复长度变化，默认不统计
+     */
+    @Value("${upstream.breaker.llm.slow-call-ms:0}")
+    private long llmSlowCallMs;
+
+    @Value("${upstream.breaker.asr.slow-call-ms:8000}")
+    private long asrSlowCallMs;
+
+    @Value("${upstream.breaker.tts.slow-call-ms:5000}")
+    private long ttsSlowCallMs;
+
+    @Value("${upstream.breaker.retrieval.slow-call-ms:3000}")
+    private long retrievalSlowCallMs;
+
+    private Map<String, CircuitBreaker> breakers;
+
+    @PostConstruct
+    public void init() {
+        breakers = Map.of(
+            UpstreamLimiters.LLM, create(UpstreamLimiters.LLM, llmSlowCallMs),
+            UpstreamLimiters.ASR, create(UpstreamLimiters.ASR, asrSlowCallMs),
+            UpstreamLimiters.TTS, create(UpstreamLimiters.TTS, ttsSlowCallMs),
+            RETRIEVAL, create(RETRIEVAL, retrievalSlowCallMs));
+        breakers.values().forEach(chatMetrics::gaugeCircuitBreaker);
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @param upstream 上游名称
+     * @throws CircuitOpenException 熔断中
+     */
+    public void acquirePermission(String upstream) {
+        if (!breakers.get(upstream).tryAcquirePermission()) {
+            throw new CircuitOpenException(upstream);
+        }
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @param upstream 上游名称
+     * @return false 表示熔断中，应立即降级
+     */
+    public boolean tryAcquirePermission(String upstream) {
+        return breakers.get(upstream).tryAcquirePermission();
+    }
+
+    /**
+     * 上报已放行调用的结果
+     *
+     * @param upstream 上游名称
+     * @param startNanos 调用开始时间（System.nanoTime）
+     * @param failed 是否失败
+     */
+    public void onResult(String upstream, long startNanos, boolean failed) {
+        breakers.get(upstream).onResult(System.nanoTime() - startNanos, failed);
+    }
+
+    /**
+     * 归还未使用的调用许可（放行后没有真正调用上游），不计入结果
+     *
+     * @param upstream 上游名称
+     */
+    public void releasePermission(String upstream) {
+        breakers.get(upstream).releasePermission();
+    }
+
+    /**
+     * 上游是否熔断中（不消耗半开探测名额）
+     *
+     * @param upstream 上游名称
+     * @return true 表示应跳过该上游
+     */
+    public boolean isOpen(String upstream) {
+        return breakers.get(upstream).isOpen();
+    }
+
+    /**
+     * 按 upstream.breaker.* 配置创建熔断器（用于按模型等更细粒度的熔断）
+     *
+     * @param upstream 熔断器名称，同时用作指标标签
+     * @param slowCallMs 慢调用阈值（毫秒），0 表示不统计慢调用
+     * @return 新的熔断器，不加入注册表
+     */
+    public CircuitBreaker create(String upstream, long slowCallMs) {
+        return new CircuitBreaker(upstream, windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+            slowCallMs, openDurationMs, halfOpenCalls, state -> {
+                chatMetrics.recordBreakerTransition(upstream, state.name());
+                if (state == CircuitBreaker.State.OPEN) {
+                    log.warn("上游 {} 熔断，{} ms 后半开探测", upstream, openDurationMs);
+                } else {
+                    log.info("上游 {} 熔断器状态: {}", upstream, state);
+                }
+            });
+    }
+}
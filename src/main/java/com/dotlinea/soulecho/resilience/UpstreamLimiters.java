@@ -0,0 +1,135 @@
+package com.dotlinea.soulecho.resilience;
+
+import com.dotlinea.soulecho.exception.UpstreamBusyException;
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 上游并发限制器注册表
+ * <p>
+ * 为 LLM、ASR、TTS 三个上游各维护一个 {@link AdaptiveConcurrencyLimiter}，由各客户端在真正访问上游前获取许可。
+ * 排队耗时按 upstream 与结果（acquired / rejected）记录到 soulecho.upstream.limiter.queue.time，
+ * 当前上限与进行中调用数以 gauge 暴露。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UpstreamLimiters {
+
+    public static final String LLM = "llm";
+    public static final String ASR = "asr";
+    public static final String TTS = "tts";
+
+    private final ChatMetrics chatMetrics;
+
+    /**
+     * 并发已满时的最长排队时间（毫秒），超过后快速拒绝
+     */
+    @Value("${upstream.limit.max-queue-ms:200}")
+    private long maxQueueMs;
+
+    /**
+     * 上游失败时的上限缩减比例
+     */
+    @Value("${upstream.limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${upstream.limit.llm.initial:20}")
+    private int llmInitialLimit;
+
+    @Value("${upstream.limit.llm.min:2}")
+    private int llmMinLimit;
+
+    @Value("${upstream.limit.llm.max:100}")
+    private int llmMaxLimit;
+
+    @Value("${upstream.limit.asr.initial:20}")
+    private int asrInitialLimit;
+
+    @Value("${upstream.limit.asr.min:2}")
+    private int asrMinLimit;
+
+    @Value("${upstream.limit.asr.max:100}")
+    private int asrMaxLimit;
+
+    @Value("${upstream.limit.tts.initial:20}")
+    private int ttsInitialLimit;
+
+    @Value("${upstream.limit.tts.min:2}")
+    private int ttsMinLimit;
+
+    @Value("${upstream.limit.tts.max:100}")
+    private int ttsMaxLimit;
+
+    private Map<String, AdaptiveConcurrencyLimiter> limiters;
+
+    @PostConstruct
+    public void init() {
+        limiters = Map.of(
+            LLM, new AdaptiveConcurrencyLimiter(LLM, llmInitialLimit, llmMinLimit, llmMaxLimit, backoffRatio),
+            ASR, new AdaptiveConcurrencyLimiter(ASR, asrInitialLimit, asrMinLimit, asrMaxLimit, backoffRatio),
+            TTS, new AdaptiveConcurrencyLimiter(TTS, ttsInitialLimit, ttsMinLimit, ttsMaxLimit, backoffRatio));
+        limiters.values().forEach(chatMetrics::gaugeUpstreamLimiter);
+    }
+
+    /**
+     * 获取上游调用许可
+     *
+     * @param upstream 上游名称（{@link #LLM} / {@link #ASR} / {@link #TTS}）
+     * @return 许可，调用结束后必须释放
+     * @throws UpstreamBusyException 并发已满且排队超时
+     */
+    public AdaptiveConcurrencyLimiter.Permit acquire(String upstream) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(upstream);
+        long startNanos = System.nanoTime();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = limiter.acquire(maxQueueMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        }
+        chatMetrics.recordUpstreamQueueTime(upstream, permit != null, System.nanoTime() - startNanos);
+        if (permit == null) {
+            log.warn("上游 {} 并发已达上限 {}，拒绝本次调用", upstream, limiter.getLimit());
+            throw new UpstreamBusyException(upstream);
+        }
+        return permit;
+    }
+
+    /**
+     * 不排队地获取上游调用许可（用于对冲等可选的额外调用）
+     *
+     * @param upstream 上游名称
+     * @return 许可，并发已满时返回 null
+     */
+    public AdaptiveConcurrencyLimiter.Permit tryAcquire(String upstream) {
+        try {
+            return limiters.get(upstream).acquire(0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 上游并发是否已达上限
+     *
+     * @param upstream 上游名称
+     * @return true 表示新调用需要排队
+     */
+    public boolean isSaturated(String upstream) {
+        return limiters.get(upstream).isSaturated();
+    }
+}
@@ -11,6 +11,7 @@ import com.dotlinea.soulecho.service.KnowledgeService;
 import com.dotlinea.soulecho.entity.KnowledgeBase;
 import com.dotlinea.soulecho.event.KnowledgeUploadEvent;
 import com.dotlinea.soulecho.repository.KnowledgeBaseRepository;
+import com.dotlinea.soulecho.resilience.UpstreamCircuitBreakers;
 import lombok.RequiredArgsConstructor;
 import okhttp3.*;
 import org.slf4j.Logger;
@@ -62,6 +63,7 @@ public class KnowledgeServiceImpl implements KnowledgeService {
     private final KnowledgeBaseRepository repository;
     private final ApplicationEventPublisher eventPublisher;
     private final com.dotlinea.soulecho.repository.CharacterRepository characterRepository;
+    private final UpstreamCircuitBreakers circuitBreakers;
 
     /**
      * 初始化上传路径
@@ -342,8 +344,22 @@ public class KnowledgeServiceImpl implements KnowledgeService {
                     .setDenseSimilarityTopK(5)
                     .setEnableRewrite(true);
 
+            // 检索熔断期间直接返回空结果，对话不等待检索超时
+            if (!circuitBreakers.tryAcquirePermission(UpstreamCircuitBreakers.RETRIEVAL)) {
+                logger.debug("知识库检索已熔断，跳过检索");
+                return new ArrayList<>();
+            }
+
             // 发起调用
-            RetrieveResponse retrieveResponse = bailianClient.retrieveWithOptions(workspaceId, retrieveRequest, new HashMap<>(), new RuntimeOptions());
+            long startNanos = System.nanoTime();
+            RetrieveResponse retrieveResponse;
+            try {
+                retrieveResponse = bailianClient.retrieveWithOptions(workspaceId, retrieveRequest, new HashMap<>(), new RuntimeOptions());
+            } catch (Exception e) {
+                circuitBreakers.onResult(UpstreamCircuitBreakers.RETRIEVAL, startNanos, true);
+                throw e;
+            }
+            circuitBreakers.onResult(UpstreamCircuitBreakers.RETRIEVAL, startNanos, false);
 
             // 校检响应基础结构
             if (retrieveResponse == null || retrieveResponse.getBody() == null || retrieveResponse.getBody().getData() == null || retrieveResponse.getBody().getData().getNodes() == null) {
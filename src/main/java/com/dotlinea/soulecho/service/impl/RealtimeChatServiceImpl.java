@@ -1,33 +1,53 @@
 package com.dotlinea.soulecho.service.impl;
 
+import com.dotlinea.soulecho.audio.ImaAdpcmCodec;
+import com.dotlinea.soulecho.chat.SentenceSegmenter;
+import com.dotlinea.soulecho.chat.TextChunkCoalescer;
 import com.dotlinea.soulecho.client.ASRClient;
 import com.dotlinea.soulecho.client.LLMClient;
 import com.dotlinea.soulecho.client.TTSClient;
+import com.dotlinea.soulecho.client.VoiceProfile;
+import com.dotlinea.soulecho.constants.AudioFormatEnum;
+import com.dotlinea.soulecho.constants.ErrorMessageConstants;
+import com.dotlinea.soulecho.constants.FallbackReplyConstants;
 import com.dotlinea.soulecho.constants.MessageTypeConstants;
 import com.dotlinea.soulecho.constants.PersonaPromptConstants;
 import com.dotlinea.soulecho.constants.RedisKeyConstants;
 import com.dotlinea.soulecho.constants.SessionAttributeKeys;
-import com.dotlinea.soulecho.dto.WebSocketMessageDTO;
 import com.dotlinea.soulecho.exception.ASRException;
-import com.dotlinea.soulecho.factory.WebSocketMessageFactory;
+import com.dotlinea.soulecho.exception.CircuitOpenException;
+import com.dotlinea.soulecho.exception.UpstreamBusyException;
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import com.dotlinea.soulecho.protocol.OutboundMessageEncoder;
+import com.dotlinea.soulecho.resilience.UpstreamCircuitBreakers;
+import com.dotlinea.soulecho.resilience.UpstreamLimiters;
 import com.dotlinea.soulecho.service.RealtimeChatService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.dotlinea.soulecho.trace.TurnStage;
+import com.dotlinea.soulecho.trace.TurnTrace;
+import com.dotlinea.soulecho.trace.TurnTraceHolder;
+import com.dotlinea.soulecho.trace.TurnTraceRecorder;
+import com.dotlinea.soulecho.websocket.BufferedOutboundSession;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.redisson.api.RBatch;
 import org.redisson.api.RList;
+import org.redisson.api.RListAsync;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.BinaryMessage;
-import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.function.Consumer;
@@ -72,12 +92,19 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
      */
     private static final int MIN_AUDIO_CHUNK_SIZE = 0;
 
+    /**
+     * 会话历史最大条数（用户输入与 AI 回复各计一条）
+     */
+    private static final int MAX_HISTORY_SIZE = 20;
+
     private final ASRClient asrClient;
     private final LLMClient llmClient;
     private final TTSClient ttsClient;
-    private final ObjectMapper objectMapper;
-    private final WebSocketMessageFactory messageFactory;
+    private final OutboundMessageEncoder outboundMessageEncoder;
     private final RedissonClient redissonClient;
+    private final TurnTraceRecorder turnTraceRecorder;
+    private final ChatMetrics chatMetrics;
+    private final UpstreamCircuitBreakers circuitBreakers;
 
     /**
      * 异步处理线程池（由 Spring 管理，避免 OOM）
@@ -86,6 +113,60 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
     @Qualifier("chatExecutor")
     private final Executor chatExecutor;
 
+    /**
+     * 共享调度器，用于文本块合并的定时输出
+     */
+    @Qualifier("timeoutScheduler")
+    private final TaskScheduler timeoutScheduler;
+
+    /**
+     * 调试模式：每轮结束后向前端发送 turn-trace 耗时摘要帧
+     */
+    @Value("${chat.trace.debug-frame:false}")
+    private boolean turnTraceDebugFrame;
+
+    /**
+     * 对话历史过期时间（秒），从最后一次写入开始计算
+     */
+    @Value("${soul-echo.session-timeout:1800}")
+    private long sessionTimeoutSeconds;
+
+    /**
+     * TTS 分句阈值：首片段在弱标点处切分的最小长度（越小首句语音越快）
+     */
+    @Value("${tts.segment.first-min-length:6}")
+    private int segmentFirstMinLength;
+
+    /**
+     * TTS 分句阈值：后续片段在弱标点处切分的最小长度
+     */
+    @Value("${tts.segment.weak-min-length:20}")
+    private int segmentWeakMinLength;
+
+    /**
+     * TTS 分句阈值：片段最大长度，超过后强制切分
+     */
+    @Value("${tts.segment.max-length:120}")
+    private int segmentMaxLength;
+
+    /**
+     * 文本块合并：暂存文本的最长等待时间（毫秒），0 表示逐块发送
+     */
+    @Value("${chat.coalesce.max-delay-ms:40}")
+    private long coalesceMaxDelayMs;
+
+    /**
+     * 文本块合并：单帧最多合并的字符数
+     */
+    @Value("${chat.coalesce.max-chars:32}")
+    private int coalesceMaxChars;
+
+    /**
+     * 文本块合并：每轮开头不合并、直接发送的增量数（保证首字延迟）
+     */
+    @Value("${chat.coalesce.immediate-chunks:1}")
+    private int coalesceImmediateChunks;
+
     /**
      * 音频缓冲区 - 存储每个会话正在接收的音频数据
      * 保留在本地内存，因为音频流是高频小包，且 WebSocket 连接是粘性的
@@ -97,6 +178,15 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
      */
     private final ScheduledExecutorService scheduledExecutor = Executors.newScheduledThreadPool(4);
 
+    /**
+     * 注册音频缓冲区指标（缓冲中的会话数与总字节数）
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        chatMetrics.gaugeAudioBuffers(audioBuffers,
+            buffers -> buffers.values().stream().mapToLong(AudioBuffer::size).sum());
+    }
+
     @Override
     public void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
         String sessionId = session.getId();
@@ -105,10 +195,22 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
         ByteBuffer audioPayload = cloneAudioBuffer(message.getPayload());
         if (audioPayload == null || !audioPayload.hasRemaining()) {
             logger.warn("会话 {} 收到的音频数据为空或不可用", sessionId);
-            sendErrorMessage(session, "音频数据无效，请重试");
+            sendErrorMessage(session, ErrorMessageConstants.AUDIO_INVALID);
             return;
         }
 
+        // 压缩格式在进入缓冲区前解码为 PCM，ASR 始终接收 16kHz PCM
+        if (getInputAudioFormat(session) == AudioFormatEnum.ADPCM) {
+            try {
+                audioPayload = ByteBuffer.wrap(ImaAdpcmCodec.decode(
+                    audioPayload.array(), audioPayload.position(), audioPayload.remaining()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("会话 {} ADPCM 音频块解码失败: {}", sessionId, e.getMessage());
+                sendErrorMessage(session, ErrorMessageConstants.AUDIO_INVALID);
+                return;
+            }
+        }
+
         int dataSize = audioPayload.remaining();
 
         // 获取或创建会话的音频缓冲区
@@ -163,7 +265,9 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
         logger.info("会话 {} 检测到说话结束，音频数据大小: {} bytes", sessionId, audioData.length);
 
         // 异步处理完整的音频数据（使用 Spring 管理的线程池）
-        chatExecutor.execute(() -> processAudioMessage(session, audioData));
+        // 以说话结束为起点追踪本轮耗时
+        TurnTrace trace = TurnTrace.startVoiceTurn(sessionId);
+        chatExecutor.execute(() -> processAudioMessage(session, audioData, trace));
     }
 
     /**
@@ -175,8 +279,9 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
      *
      * @param session WebSocket 会话
      * @param audioData 完整的音频数据
+     * @param trace 本轮对话的耗时追踪
      */
-    private void processAudioMessage(WebSocketSession session, byte[] audioData) {
+    private void processAudioMessage(WebSocketSession session, byte[] audioData, TurnTrace trace) {
         String sessionId = session.getId();
         RLock sessionLock = getSessionLock(sessionId);
 
@@ -193,7 +298,7 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
         } catch (InterruptedException e) {
             logger.warn("会话 {} 尝试获取锁时被中断", sessionId);
             Thread.currentThread().interrupt();
-            sendErrorMessage(session, "系统繁忙，请稍后重试");
+            sendErrorMessage(session, ErrorMessageConstants.SYSTEM_BUSY);
             return;
         }
 
@@ -208,15 +313,16 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
             ByteArrayInputStream audioInputStream = new ByteArrayInputStream(audioData);
 
             // 关键变更：获取ASR Future后立即释放锁
-            CompletableFuture<String> asrFuture = asrClient.recognizeAsync(audioInputStream);
+            CompletableFuture<String> asrFuture = asrClient.recognizeAsync(audioInputStream, trace);
 
             // 立即释放锁（在主线程）
             sessionLock.unlock();
             logger.info("[{}] 立即释放分布式锁(异步启动前)", sessionId);
 
-            // 异步处理链（无锁状态）
+            // 异步处理链（无锁状态）：识别结果在 ASR 资源释放后交付，
+            // 后续 LLM 与 TTS 在 chat 线程池中执行，不占用 NLS SDK 回调线程
             asrFuture
-                    .thenAccept(recognizedText -> {
+                    .thenAcceptAsync(recognizedText -> {
                         // ASR 成功回调
                         if (recognizedText == null || recognizedText.trim().isEmpty()) {
                             logger.info("会话 {} ASR返回空结果或null，结束处理", sessionId);
@@ -249,20 +355,31 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
                             boolean actualTtsState = (ttsEnabled != null) ? ttsEnabled : false;
 
                             logger.debug("会话 {} 从 Session 读取 TTS 状态: {}", sessionId, actualTtsState);
-                            streamLlmResponseWithTts(personaPrompt, recognizedText, sessionId, characterName, actualTtsState, session);
+                            streamLlmResponseWithTts(personaPrompt, recognizedText, sessionId, characterName, actualTtsState, session, trace);
                             logger.info("会话 {} 完整音频处理流程结束", sessionId);
                         } catch (Exception e) {
                             logger.error("会话 {} LLM流式对话处理失败", sessionId, e);
-                            sendErrorMessage(session, "生成回复时发生错误，请稍后重试");
+                            sendErrorMessage(session, ErrorMessageConstants.REPLY_GENERATION_ERROR);
                         }
-                    })
+                    }, chatExecutor)
                     .exceptionally(throwable -> {
                         // 全链路异常处理，根据异常类型给出不同的用户提示
                         Throwable rootCause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                        if (rootCause instanceof UpstreamBusyException) {
+                            logger.warn("会话 {} ASR 并发已满，本轮快速返回繁忙", sessionId);
+                            sendBusyMessage(session);
+                            return null;
+                        }
+                        if (rootCause instanceof CircuitOpenException) {
+                            logger.warn("会话 {} ASR 已熔断，本轮未识别", sessionId);
+                            sendErrorMessage(session, ErrorMessageConstants.ASR_UNAVAILABLE);
+                            return null;
+                        }
                         logger.error("会话 {} 异步处理音频消息时发生异常", sessionId, throwable);
 
                         // 判断异常类型，给出相应的用户提示
                         String userMessage;
+                        chatMetrics.recordAsrFailure(resolveAsrStatusCode(rootCause));
                         if (rootCause instanceof ASRException asrEx) {
                             userMessage = asrEx.getUserFriendlyMessage();
 
@@ -276,7 +393,7 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
                             userMessage = asrEx.getUserFriendlyMessage();
                         } else {
                             // 其他未知异常，使用通用提示
-                            userMessage = "处理您的消息时发生错误，请稍后重试。";
+                            userMessage = ErrorMessageConstants.MESSAGE_PROCESS_ERROR;
                         }
 
                         sendErrorMessage(session, userMessage);
@@ -285,7 +402,7 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
 
         } catch (Exception e) {
             logger.error("会话 {} 启动异步处理时发生异常", sessionId, e);
-            sendErrorMessage(session, "处理您的消息时发生错误，请稍后重试。");
+            sendErrorMessage(session, ErrorMessageConstants.MESSAGE_PROCESS_ERROR);
 
             // 异常情况下释放锁
             try {
@@ -341,19 +458,13 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
             // LLM 流式生成完成后，更新会话历史
             String response = fullResponse.toString();
             if (!response.trim().isEmpty()) {
-                history.add(userInput);
-                history.add(response);
-
-                // 限制历史长度，避免内存过度使用
-                if (history.size() > 20) {
-                    history.subList(0, history.size() - 20).clear();
-                }
+                appendHistory(sessionId, userInput, response);
             }
 
         } catch (Exception e) {
             logger.error("会话 {} 流式文本对话处理失败", sessionId, e);
             if (chunkConsumer != null) {
-                chunkConsumer.accept("抱歉，处理您的消息时遇到了问题。");
+                chunkConsumer.accept(FallbackReplyConstants.CHAT_PROCESS_ERROR);
             }
         }
     }
@@ -373,12 +484,6 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
             // StringBuilder 用于累积完整的 LLM 响应
             StringBuilder fullResponse = new StringBuilder();
 
-            // 句子级 TTS 缓冲区（仅当 enableTts=true 时使用）
-            StringBuilder sentenceBuffer = enableTts ? new StringBuilder() : null;
-            java.util.regex.Pattern pattern = enableTts
-                ? java.util.regex.Pattern.compile("[^.!?。！？]+[.!?。！？]")
-                : null;
-
             // 定义 LLM 文本块处理器
             Consumer<String> llmChunkHandler = chunk -> {
                 // 1. 累积完整响应
@@ -392,7 +497,7 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
                 // 3. 如果启用 TTS，检测完整句子并触发语音合成
                 // 注意：此方法无 session 参数，因此无法发送音频响应或错误通知
                 // 此处仅展示逻辑框架，实际使用中应通过 WebSocket 调用 streamLlmResponseWithTts
-                if (enableTts && sentenceBuffer != null && pattern != null) {
+                if (enableTts) {
                     logger.warn("processTextChatStream(Consumer, enableTts=true) 模式下不支持 TTS，" +
                               "请通过 WebSocket 使用 streamLlmResponseWithTts 方法");
                 }
@@ -408,19 +513,13 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
             // 更新会话历史
             String response = fullResponse.toString();
             if (!response.trim().isEmpty()) {
-                history.add(userInput);
-                history.add(response);
-
-                // 限制历史长度
-                if (history.size() > 20) {
-                    history.subList(0, history.size() - 20).clear();
-                }
+                appendHistory(sessionId, userInput, response);
             }
 
         } catch (Exception e) {
             logger.error("会话 {} 流式文本对话处理失败", sessionId, e);
             if (chunkConsumer != null) {
-                chunkConsumer.accept("抱歉，处理您的消息时遇到了问题。");
+                chunkConsumer.accept(FallbackReplyConstants.CHAT_PROCESS_ERROR);
             }
         }
     }
@@ -432,7 +531,8 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
         String characterName = (String) session.getAttributes().get(SessionAttributeKeys.CHARACTER_NAME);
 
         // 直接调用流式处理方法（支持 TTS）
-        streamLlmResponseWithTts(personaPrompt, userInput, session.getId(), characterName, enableTts, session);
+        streamLlmResponseWithTts(personaPrompt, userInput, session.getId(), characterName, enableTts, session,
+            TurnTrace.startTextTurn(session.getId()));
     }
 
     /**
@@ -440,9 +540,10 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
      * <p>
      * 核心逻辑：
      * 1. 调用 LLM 流式生成文本
-     * 2. 实时将文本块推送给前端
-     * 3. 如果 enableTts=true，累积文本并检测完整句子，调用 TTS
+     * 2. 经 {@link TextChunkCoalescer} 合并后编码为 ai-chunk 帧推送给前端，结束时发送 ai-end 帧
+     * 3. 如果 enableTts=true，通过 {@link SentenceSegmenter} 增量切分片段并调用 TTS
      * 4. TTS 失败时只记录日志并发送错误通知，不阻断文本生成
+     * 5. 结束后记录本轮各阶段耗时（LLM 与逐句 TTS 在当前线程同步执行，通过 {@link TurnTraceHolder} 传递追踪）
      * </p>
      *
      * @param personaPrompt 角色设定
@@ -451,6 +552,7 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
      * @param characterName 角色名称（用于知识库检索，可为 null）
      * @param enableTts 是否启用 TTS 语音合成
      * @param session WebSocket 会话（用于发送响应，enableTts=true 时必填）
+     * @param trace 本轮对话的耗时追踪
      */
     private void streamLlmResponseWithTts(
             String personaPrompt,
@@ -458,182 +560,213 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
             String sessionId,
             String characterName,
             boolean enableTts,
-            WebSocketSession session) {
+            WebSocketSession session,
+            TurnTrace trace) {
 
         if (userInput == null || userInput.trim().isEmpty()) {
             return;
         }
 
-        // TTS 熔断标志位：记录 TTS 服务是否已损坏
-        final boolean[] ttsCircuitBreaker = {false};
+        // 本轮 TTS 停止标志位：失败或降级后本轮剩余片段不再合成（跨轮次的熔断由 UpstreamCircuitBreakers 负责）
+        final boolean[] ttsStopped = {false};
+        // 本轮 TTS 合成真正失败的标志位；因并发已满或熔断主动降级为纯文本时不置位，回复仍完整保存到历史
+        final boolean[] ttsFailed = {false};
         // 标志位：记录是否已发送过错误通知（避免重复发送）
         final boolean[] errorSent = {false};
-
+        // 本轮已发送的文本块数（同时作为下一个 ai-chunk 的 seq）
+        final long[] chunkSeq = {0};
+        // 文本块合并器：首个增量立即发送，其余按时间、长度或句末标点合并成帧
+        TextChunkCoalescer coalescer = new TextChunkCoalescer(
+            text -> sendAiChunk(session, chunkSeq, text),
+            timeoutScheduler, coalesceMaxDelayMs, coalesceMaxChars, coalesceImmediateChunks);
+
+        TurnTraceHolder.set(trace);
         try {
-            // 获取或创建会话历史
-            List<String> history = getSessionHistory(sessionId);
+            // 获取或创建会话历史（按对话 ID 存储，断线重连后可继续）
+            String conversationId = getConversationId(session);
+            List<String> history = getSessionHistory(conversationId);
             StringBuilder fullResponse = new StringBuilder();
 
-            // 句子级 TTS 缓冲区（仅当 enableTts=true 时使用）
-            StringBuilder sentenceBuffer = enableTts ? new StringBuilder() : null;
-            java.util.regex.Pattern pattern = enableTts
-                ? java.util.regex.Pattern.compile("[^.!?。！？]+[.!?。！？]")
-                : null;
+            // TTS 已熔断时本轮直接以纯文本回复，不再等待上游失败
+            boolean ttsAvailable = enableTts && !circuitBreakers.isOpen(UpstreamLimiters.TTS);
+            if (enableTts && !ttsAvailable) {
+                logger.info("会话 {} TTS 已熔断，本轮以纯文本回复", sessionId);
+                errorSent[0] = true;
+                sendTtsErrorMessage(session, ErrorMessageConstants.TTS_DEGRADED);
+            }
 
-            // 定义 LLM 文本块处理器
-            Consumer<String> llmChunkHandler = chunk -> {
-                // 1. 累积完整响应（用于更新会话历史）
-                fullResponse.append(chunk);
+            // 增量分句器（仅当 TTS 可用时使用）
+            SentenceSegmenter segmenter = ttsAvailable
+                ? new SentenceSegmenter(segmentFirstMinLength, segmentWeakMinLength, segmentMaxLength)
+                : null;
+            // 会话的语音配置（角色发音人 + 协商的下行格式），仅在 TTS 可用时解析
+            VoiceProfile voiceProfile = ttsAvailable ? getVoiceProfile(session) : null;
 
-                // 2. 实时推送文本块到前端（无论 TTS 是否失败都要发送文字）
+            // 定义片段合成器：强制异常隔离，TTS 异常不阻断 LLM 文本流式推送
+            Consumer<String> segmentSynthesizer = segment -> {
+                if (ttsStopped[0]) {
+                    return;
+                }
+                logger.debug("会话 {} 提取合成片段: {}", sessionId, segment);
                 try {
-                    if (session != null && session.isOpen()) {
-                        session.sendMessage(new TextMessage(chunk));
-                        logger.trace("向会话 {} 发送文本块: {}", sessionId, chunk);
+                    // 首个音频帧在真正写出到客户端后才记录，而不是入队时
+                    ttsClient.synthesize(segment, voiceProfile, audioChunk ->
+                        sendAudioResponse(session, audioChunk, () -> trace.mark(TurnStage.FIRST_AUDIO_SENT)));
+                } catch (UpstreamBusyException e) {
+                    // TTS 并发已满：本轮降级为纯文本，不计入熔断
+                    ttsStopped[0] = true;
+                    logger.warn("会话 {} TTS 并发已满，本轮降级为纯文本", sessionId);
+                    if (!errorSent[0]) {
+                        errorSent[0] = true;
+                        sendErrorMessage(session, ErrorMessageConstants.TTS_DEGRADED);
+                    }
+                } catch (CircuitOpenException e) {
+                    // 本轮进行中 TTS 熔断（或半开探测名额已被占用）：剩余片段不再合成
+                    ttsStopped[0] = true;
+                    logger.warn("会话 {} TTS 已熔断，本轮剩余片段不再合成", sessionId);
+                    if (!errorSent[0]) {
+                        errorSent[0] = true;
+                        sendTtsErrorMessage(session, ErrorMessageConstants.TTS_DEGRADED);
+                    }
+                } catch (com.dotlinea.soulecho.exception.TTSException e) {
+                    // 本轮停止合成，失败同时计入 TTS 熔断器的滑动窗口
+                    ttsStopped[0] = true;
+                    ttsFailed[0] = true;
+                    chatMetrics.recordTtsBreakerTrip();
+                    // 只在第一次失败时发送错误通知（避免刷屏）
+                    if (!errorSent[0]) {
+                        // 根据异常类型提供精确的用户提示
+                        String userMessage = e.getUserFriendlyMessage();
+                        logger.warn("会话 {} TTS 合成失败: {}", sessionId, userMessage, e);
+                        errorSent[0] = true;
+                        sendTtsErrorMessage(session, userMessage);
+                    }
+                    // 绝对禁止再次 throw e，吞掉异常让代码继续执行
+                } catch (Exception e) {
+                    // 其他未预期的异常
+                    logger.error("会话 {} TTS处理时发生未预期异常", sessionId, e);
+                    ttsStopped[0] = true;
+                    ttsFailed[0] = true;
+                    chatMetrics.recordTtsBreakerTrip();
+                    if (!errorSent[0]) {
+                        errorSent[0] = true;
+                        sendErrorMessage(session, ErrorMessageConstants.TTS_DEGRADED);
                     }
-                } catch (IOException e) {
-                    logger.error("向会话 {} 发送文本块失败", sessionId, e);
                 }
+            };
 
-                // 3. 如果启用 TTS，检测完整句子并触发语音合成
-                if (enableTts && sentenceBuffer != null && pattern != null && !ttsCircuitBreaker[0]) {
-                    sentenceBuffer.append(chunk);
-                    String bufferedText = sentenceBuffer.toString();
-                    java.util.regex.Matcher matcher = pattern.matcher(bufferedText);
-
-                    int lastMatchEnd = 0;
-                    while (matcher.find() && !ttsCircuitBreaker[0]) {
-                        String completeSentence = matcher.group();
-                        lastMatchEnd = matcher.end();
-
-                        logger.debug("会话 {} 提取完整句子: {}", sessionId, completeSentence);
+            // 定义 LLM 文本块处理器
+            Consumer<String> llmChunkHandler = chunk -> {
+                // 1. 累积完整响应（用于更新会话历史）
+                fullResponse.append(chunk);
+                trace.mark(TurnStage.LLM_FIRST_TOKEN);
+                trace.markLatest(TurnStage.LLM_LAST_TOKEN);
 
-                        // 强制异常隔离：TTS 异常不阻断 LLM 文本流式推送
-                        try {
-                            ttsClient.synthesize(completeSentence, audioChunk ->
-                                sendAudioResponse(session, audioChunk)
-                            );
-                        } catch (com.dotlinea.soulecho.exception.TTSException e) {
-                            // 触发熔断
-                            ttsCircuitBreaker[0] = true;
-                            // 只在第一次熔断时发送错误通知（避免刷屏）
-                            if (!errorSent[0]) {
-                                // 根据异常类型提供精确的用户提示
-                                String userMessage = e.getUserFriendlyMessage();
-                                logger.warn("会话 {} TTS 合成失败: {}", sessionId, userMessage, e);
-                                errorSent[0] = true;
-                                // 构造标准错误消息并发送
-                                try {
-                                    WebSocketMessageDTO errorMessage = messageFactory.createErrorWithCode(
-                                        userMessage,
-                                        MessageTypeConstants.TTS_BROKEN,
-                                        sessionId
-                                    );
-                                    String jsonMessage = objectMapper.writeValueAsString(errorMessage);
-                                    session.sendMessage(new TextMessage(jsonMessage));
-                                } catch (IOException ioException) {
-                                    logger.error("向会话 {} 发送 TTS 熔断通知失败", sessionId, ioException);
-                                }
-                            }
-                            // 绝对禁止再次 throw e，吞掉异常让代码继续执行
-                        } catch (Exception e) {
-                            // 其他未预期的异常
-                            logger.error("会话 {} TTS处理时发生未预期异常", sessionId, e);
-                            ttsCircuitBreaker[0] = true;
-                            if (!errorSent[0]) {
-                                errorSent[0] = true;
-                                sendErrorMessage(session, "语音服务异常，已切换至文字模式");
-                            }
-                        }
-                    }
+                // 2. 推送文本块到前端（无论 TTS 是否失败都要发送文字），由合并器决定何时成帧
+                coalescer.feed(chunk);
 
-                    // 移除已处理的句子，保留未完成的部分
-                    if (lastMatchEnd > 0) {
-                        sentenceBuffer.delete(0, lastMatchEnd);
-                    }
+                // 3. 如果启用 TTS，增量切分出完整片段并触发语音合成
+                if (segmenter != null && !ttsStopped[0]) {
+                    segmenter.feed(chunk, segmentSynthesizer);
                 }
             };
 
             // 调用 LLM 流式生成
+            trace.mark(TurnStage.LLM_REQUEST);
             if (characterName != null && !characterName.trim().isEmpty()) {
                 llmClient.chatStream(personaPrompt, history, userInput, characterName, llmChunkHandler);
             } else {
                 llmClient.chatStream(personaPrompt, history, userInput, llmChunkHandler);
             }
+            // 文本已全部到达，立即发出暂存部分，不等待剩余片段的语音合成
+            coalescer.flush();
 
             // 处理剩余的不成句内容（TTS 模式下）
-            if (enableTts && sentenceBuffer != null && !ttsCircuitBreaker[0]) {
-                String remainingText = sentenceBuffer.toString().trim();
-                if (!remainingText.isEmpty()) {
-                    logger.debug("会话 {} 处理剩余文本: {}", sessionId, remainingText);
-
-                    // 强制异常隔离：TTS 异常不阻断 LLM 文本流式推送
-                    try {
-                        ttsClient.synthesize(remainingText, audioChunk ->
-                            sendAudioResponse(session, audioChunk)
-                        );
-                    } catch (com.dotlinea.soulecho.exception.TTSException e) {
-                        // 触发熔断
-                        ttsCircuitBreaker[0] = true;
-                        // 只在第一次熔断时发送错误通知（避免刷屏）
-                        if (!errorSent[0]) {
-                            // 根据异常类型提供精确的用户提示
-                            String userMessage = e.getUserFriendlyMessage();
-                            logger.warn("会话 {} TTS 合成剩余文本失败: {}", sessionId, userMessage, e);
-                            errorSent[0] = true;
-                            // 构造标准错误消息并发送
-                            try {
-                                WebSocketMessageDTO errorMessage = messageFactory.createErrorWithCode(
-                                    userMessage,
-                                    MessageTypeConstants.TTS_BROKEN,
-                                    sessionId
-                                );
-                                String jsonMessage = objectMapper.writeValueAsString(errorMessage);
-                                session.sendMessage(new TextMessage(jsonMessage));
-                            } catch (IOException ioException) {
-                                logger.error("向会话 {} 发送 TTS 熔断通知失败", sessionId, ioException);
-                            }
-                        }
-                        // 绝对禁止再次 throw e，吞掉异常让代码继续执行
-                    } catch (Exception e) {
-                        // 其他未预期的异常
-                        logger.error("会话 {} TTS处理时发生未预期异常", sessionId, e);
-                        ttsCircuitBreaker[0] = true;
-                        if (!errorSent[0]) {
-                            errorSent[0] = true;
-                            sendErrorMessage(session, "语音服务异常，已切换至文字模式");
-                        }
-                    }
+            if (segmenter != null && !ttsStopped[0]) {
+                String remainingText = segmenter.flush();
+                if (remainingText != null) {
+                    segmentSynthesizer.accept(remainingText);
                 }
             }
 
-            // 如果 TTS 失败，从历史记录中移除本次回复（避免显示不完整的对话）
-            if (ttsCircuitBreaker[0]) {
+            // 如果 TTS 失败，从历史记录中移除本次回复（避免显示不完整的对话）；降级为纯文本的回复照常保存
+            if (ttsFailed[0]) {
                 logger.warn("会话 {} TTS 失败，不保存本次对话到历史记录", sessionId);
             } else {
                 // 更新会话历史
                 String response = fullResponse.toString();
                 if (!response.trim().isEmpty()) {
-                    history.add(userInput);
-                    history.add(response);
-
-                    // 限制历史长度，避免内存过度使用
-                    if (history.size() > 20) {
-                        history.subList(0, history.size() - 20).clear();
-                    }
+                    appendHistory(conversationId, userInput, response);
                 }
             }
 
+        } catch (UpstreamBusyException e) {
+            logger.warn("会话 {} LLM 并发已满，本轮快速返回繁忙", sessionId);
+            sendBusyMessage(session);
         } catch (Exception e) {
             logger.error("会话 {} 流式文本对话处理失败", sessionId, e);
             // 向前端发送友好错误提示
             try {
                 if (session != null && session.isOpen()) {
-                    session.sendMessage(new TextMessage("抱歉，处理您的消息时遇到了问题。"));
+                    session.sendMessage(outboundMessageEncoder.error(FallbackReplyConstants.CHAT_PROCESS_ERROR, sessionId));
                 }
             } catch (IOException ioException) {
                 logger.error("向会话 {} 发送错误提示失败", sessionId, ioException);
             }
+        } finally {
+            TurnTraceHolder.clear();
+            coalescer.close();
+            sendAiEnd(session, chunkSeq[0]);
+            finishTurnTrace(session, trace);
+        }
+    }
+
+    /**
+     * 发送合并后的 AI 文本块（由合并器串行调用）
+     * @param session WebSocket 会话
+     * @param chunkSeq 本轮文本块计数
+     * @param text 合并后的文本
+     */
+    private void sendAiChunk(WebSocketSession session, long[] chunkSeq, String text) {
+        try {
+            if (session != null && session.isOpen()) {
+                session.sendMessage(outboundMessageEncoder.aiChunk(chunkSeq[0]++, text));
+                logger.trace("向会话 {} 发送文本块: {}", session.getId(), text);
+            }
+        } catch (IOException e) {
+            logger.error("向会话 {} 发送文本块失败", session.getId(), e);
+        }
+    }
+
+    /**
+     * 发送本轮回复结束帧（文本与同步合成的语音均已发出）
+     * @param session WebSocket 会话
+     * @param chunkCount 本轮已发送的文本块数
+     */
+    private void sendAiEnd(WebSocketSession session, long chunkCount) {
+        try {
+            if (session != null && session.isOpen()) {
+                session.sendMessage(outboundMessageEncoder.aiEnd(chunkCount));
+            }
+        } catch (IOException e) {
+            logger.error("向会话 {} 发送回复结束帧失败", session.getId(), e);
+        }
+    }
+
+    /**
+     * 记录本轮耗时指标，调试模式下向前端发送耗时摘要
+     * @param session WebSocket 会话
+     * @param trace 本轮对话的耗时追踪
+     */
+    private void finishTurnTrace(WebSocketSession session, TurnTrace trace) {
+        try {
+            turnTraceRecorder.record(trace);
+            if (turnTraceDebugFrame && session != null && session.isOpen()) {
+                session.sendMessage(outboundMessageEncoder.turnTrace(trace.toSummary(), session.getId()));
+            }
+            logger.debug("会话 {} 本轮耗时: {}", trace.getSessionId(), trace.toSummary());
+        } catch (Exception e) {
+            logger.warn("会话 {} 记录本轮耗时失败", trace.getSessionId(), e);
         }
     }
 
@@ -641,11 +774,7 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
     public void cleanupSession(String sessionId) {
         logger.info("清理会话 {} 的资源", sessionId);
 
-        // 清理 Redis 中的会话历史
-        String historyKey = RedisKeyConstants.SESSION_HISTORY_PREFIX + sessionId;
-        RList<String> sessionHistory = redissonClient.getList(historyKey);
-        sessionHistory.delete();
-        logger.debug("已删除会话 {} 的 Redis 历史记录", sessionId);
+        // 对话历史按对话 ID 存储并设置过期时间，断线时不删除，客户端重连（可连到任意节点）后继续使用
 
         // 清理 Redis 中的会话锁（如果存在且未被占用）
         String lockKey = RedisKeyConstants.SESSION_LOCK_PREFIX + sessionId;
@@ -696,16 +825,93 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
         return PersonaPromptConstants.DEFAULT_CHARACTER_NAME;
     }
 
+    /**
+     * 获取会话协商的上行音频格式
+     * @param session WebSocket 会话
+     * @return 上行音频格式，未协商时为 PCM
+     */
+    private AudioFormatEnum getInputAudioFormat(WebSocketSession session) {
+        Object format = session.getAttributes().get(SessionAttributeKeys.INPUT_AUDIO_FORMAT);
+        return format instanceof AudioFormatEnum audioFormat ? audioFormat : AudioFormatEnum.PCM;
+    }
+
+    /**
+     * 获取会话协商的下行音频格式
+     * @param session WebSocket 会话
+     * @return 下行音频格式，未协商时返回 null（使用 TTS 默认格式）
+     */
+    private AudioFormatEnum getOutputAudioFormat(WebSocketSession session) {
+        if (session == null) {
+            return null;
+        }
+        Object format = session.getAttributes().get(SessionAttributeKeys.OUTPUT_AUDIO_FORMAT);
+        return format instanceof AudioFormatEnum audioFormat ? audioFormat : null;
+    }
+
+    /**
+     * 获取会话的 TTS 语音配置
+     * <p>
+     * 每个会话只解析一次（角色发音人 + 协商的下行格式），结果缓存在会话属性中
+     * </p>
+     *
+     * @param session WebSocket 会话
+     * @return 语音配置，session 为空时返回 null（使用 TTS 默认配置）
+     */
+    private VoiceProfile getVoiceProfile(WebSocketSession session) {
+        if (session == null) {
+            return null;
+        }
+        Object profile = session.getAttributes().computeIfAbsent(SessionAttributeKeys.VOICE_PROFILE, key -> {
+            Object voiceId = session.getAttributes().get(SessionAttributeKeys.CHARACTER_VOICE_ID);
+            VoiceProfile resolved = ttsClient.resolveVoiceProfile(
+                voiceId instanceof String voiceString ? voiceString : null,
+                getOutputAudioFormat(session));
+            logger.info("会话 {} 解析语音配置: {}", session.getId(), resolved);
+            return resolved;
+        });
+        return profile instanceof VoiceProfile voiceProfile ? voiceProfile : null;
+    }
+
     /**
      * 获取或创建会话历史（从 Redis）
-     * @param sessionId 会话 ID
+     * @param conversationId 对话 ID（WebSocket 会话为客户端持有的 conversationId）
      * @return 会话历史列表（RList，支持分布式存储）
      */
-    private RList<String> getSessionHistory(String sessionId) {
-        String redisKey = RedisKeyConstants.SESSION_HISTORY_PREFIX + sessionId;
+    private RList<String> getSessionHistory(String conversationId) {
+        String redisKey = RedisKeyConstants.SESSION_HISTORY_PREFIX + conversationId;
         return redissonClient.getList(redisKey);
     }
 
+    /**
+     * 追加一轮对话到历史，裁剪长度并刷新过期时间
+     * <p>
+     * 三个操作合并为一次批量请求，只产生一次 Redis 往返。历史在最后一次写入后
+     * soul-echo.session-timeout 秒过期，不在断线时删除。
+     * </p>
+     * @param conversationId 对话 ID
+     * @param userInput 用户输入
+     * @param response AI 回复
+     */
+    private void appendHistory(String conversationId, String userInput, String response) {
+        RBatch batch = redissonClient.createBatch();
+        RListAsync<String> history = batch.getList(RedisKeyConstants.SESSION_HISTORY_PREFIX + conversationId);
+        history.addAllAsync(List.of(userInput, response));
+        // 限制历史长度，避免内存过度使用
+        history.trimAsync(-MAX_HISTORY_SIZE, -1);
+        history.expireAsync(Duration.ofSeconds(sessionTimeoutSeconds));
+        batch.execute();
+    }
+
+    /**
+     * 获取会话的对话 ID，未设置时使用会话 ID
+     * @param session WebSocket 会话
+     * @return 对话 ID
+     */
+    private String getConversationId(WebSocketSession session) {
+        Object conversationId = session.getAttributes().get(SessionAttributeKeys.CONVERSATION_ID);
+        return conversationId instanceof String id ? id : session.getId();
+    }
+
     /**
      * 获取会话锁（从 Redis）
      * @param sessionId 会话 ID
@@ -716,16 +922,37 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
         return redissonClient.getLock(redisKey);
     }
 
+    /**
+     * 从异常链中解析 ASR 状态码
+     * @param throwable 异常
+     * @return ASRException 的状态码，非 ASR 异常返回 null
+     */
+    private Integer resolveAsrStatusCode(Throwable throwable) {
+        if (throwable instanceof ASRException asrEx) {
+            return asrEx.getStatusCode();
+        }
+        if (throwable instanceof CompletionException && throwable.getCause() instanceof ASRException asrEx) {
+            return asrEx.getStatusCode();
+        }
+        return null;
+    }
+
     /**
      * 发送音频响应
      * @param session WebSocket 会话
      * @param audioData 音频数据
+     * @param onWritten 写出到客户端后的回调（经下行队列时在写线程上执行）
      */
-    private void sendAudioResponse(WebSocketSession session, ByteBuffer audioData) {
+    private void sendAudioResponse(WebSocketSession session, ByteBuffer audioData, Runnable onWritten) {
         try {
             if (session.isOpen()) {
                 BinaryMessage response = new BinaryMessage(audioData);
-                session.sendMessage(response);
+                if (session instanceof BufferedOutboundSession buffered) {
+                    buffered.sendMessage(response, onWritten);
+                } else {
+                    session.sendMessage(response);
+                    onWritten.run();
+                }
                 logger.trace("向会话 {} 发送音频响应，大小: {} bytes",
                         session.getId(), audioData.remaining());
             } else {
@@ -744,12 +971,8 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
     private void sendErrorMessage(WebSocketSession session, String errorMessage) {
         try {
             if (session.isOpen()) {
-                // 使用安全的 WebSocketMessageDTO 进行序列化，防止 JSON 注入攻击
-                WebSocketMessageDTO messageDTO = messageFactory.createError(
-                    errorMessage, session.getId());
-                String jsonMessage = objectMapper.writeValueAsString(messageDTO);
-                TextMessage message = new TextMessage(jsonMessage);
-                session.sendMessage(message);
+                // 由编码器统一序列化，防止 JSON 注入攻击
+                session.sendMessage(outboundMessageEncoder.error(errorMessage, session.getId()));
                 logger.debug("向会话 {} 发送错误消息: {}", session.getId(), errorMessage);
             }
         } catch (IOException e) {
@@ -760,17 +983,29 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
     }
 
     /**
-     * 发送 TTS 错误通知到前端
+     * 发送繁忙消息（上游并发已满，本轮未处理）
+     * @param session WebSocket 会话
+     */
+    private void sendBusyMessage(WebSocketSession session) {
+        try {
+            if (session != null && session.isOpen()) {
+                session.sendMessage(outboundMessageEncoder.busy());
+            }
+        } catch (IOException e) {
+            logger.error("向会话 {} 发送繁忙消息失败", session.getId(), e);
+        }
+    }
+
+    /**
+     * 发送 TTS 错误通知到前端（携带 TTS_BROKEN 错误码，前端据此切换为文字模式）
      * @param session WebSocket 会话
      * @param errorMessage 错误消息
      */
     private void sendTtsErrorMessage(WebSocketSession session, String errorMessage) {
         try {
             if (session != null && session.isOpen()) {
-                WebSocketMessageDTO messageDTO = messageFactory.createError(
-                    errorMessage, session.getId());
-                String jsonMessage = objectMapper.writeValueAsString(messageDTO);
-                session.sendMessage(new TextMessage(jsonMessage));
+                session.sendMessage(outboundMessageEncoder.errorWithCode(
+                    errorMessage, MessageTypeConstants.TTS_BROKEN, session.getId()));
                 logger.debug("已向会话 {} 发送 TTS 错误通知", session.getId());
             }
         } catch (Exception e) {
@@ -786,12 +1021,8 @@ public class RealtimeChatServiceImpl implements RealtimeChatService {
     private void sendUserTranscriptionEcho(WebSocketSession session, String transcribedText) {
         try {
             if (session.isOpen()) {
-                // 使用安全的 WebSocketMessageDTO 进行序列化，防止 JSON 注入攻击
-                WebSocketMessageDTO messageDTO = messageFactory.createUserTranscription(
-                    transcribedText, session.getId());
-                String jsonMessage = objectMapper.writeValueAsString(messageDTO);
-                TextMessage message = new TextMessage(jsonMessage);
-                session.sendMessage(message);
+                // 由编码器统一序列化，防止 JSON 注入攻击
+                session.sendMessage(outboundMessageEncoder.userTranscription(transcribedText, session.getId()));
                 logger.debug("向会话 {} 发送用户转写回显: {}", session.getId(), transcribedText);
             }
         } catch (IOException e) {
@@ -0,0 +1,74 @@
+package com.dotlinea.soulecho.trace;
+
+import lombok.Getter;
+
+/**
+ * 对话轮次的关键时间点
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Getter
+public enum TurnStage {
+
+    /**
+     * 检测到用户说话结束（静默超时触发）
+     */
+    SPEECH_END("speechEnd", "说话结束"),
+
+    /**
+     * ASR 首个识别结果（中间结果或句子结果）
+     */
+    ASR_FIRST_RESULT("asrFirstResult", "ASR 首个结果"),
+
+    /**
+     * ASR 最终结果
+     */
+    ASR_FINAL_RESULT("asrFinalResult", "ASR 最终结果"),
+
+    /**
+     * 知识库检索开始
+     */
+    RETRIEVAL_START("retrievalStart", "检索开始"),
+
+    /**
+     * 知识库检索结束
+     */
+    RETRIEVAL_END("retrievalEnd", "检索结束"),
+
+    /**
+     * 发起 LLM 请求
+     */
+    LLM_REQUEST("llmRequest", "LLM 请求"),
+
+    /**
+     * LLM 首个文本块
+     */
+    LLM_FIRST_TOKEN("llmFirstToken", "LLM 首个文本块"),
+
+    /**
+     * LLM 最后一个文本块
+     */
+    LLM_LAST_TOKEN("llmLastToken", "LLM 最后文本块"),
+
+    /**
+     * 首个音频帧写出到客户端（下行写线程完成写出时记录，不是入队时）
+     */
+    FIRST_AUDIO_SENT("firstAudioSent", "首个音频帧发送");
+
+    /**
+     * 时间点代码（用于调试帧）
+     */
+    private final String code;
+
+    /**
+     * 时间点描述
+     */
+    private final String description;
+
+    TurnStage(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+}
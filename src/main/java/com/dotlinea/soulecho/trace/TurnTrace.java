@@ -0,0 +1,206 @@
+package com.dotlinea.soulecho.trace;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单轮对话的耗时追踪
+ * <p>
+ * 以创建时刻为起点，记录 ASR → 检索 → LLM → TTS → WebSocket 各关键时间点相对起点的纳秒偏移。
+ * 时间点可能由不同线程（NLS 回调线程、聊天线程池）写入，因此使用原子数组存储；
+ * 每句 TTS 合成单独记录为一个 {@link TtsSpan}。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class TurnTrace {
+
+    private static final long UNSET = -1;
+
+    private final String sessionId;
+
+    private final long originNanos;
+
+    private final AtomicLongArray stageOffsets = new AtomicLongArray(TurnStage.values().length);
+
+    private final List<TtsSpan> ttsSpans = new CopyOnWriteArrayList<>();
+
+    /**
+     * 是否为语音轮次（由说话结束触发，包含 ASR 阶段）
+     */
+    private final boolean voiceTurn;
+
+    private TurnTrace(String sessionId, boolean voiceTurn) {
+        this.sessionId = sessionId;
+        this.voiceTurn = voiceTurn;
+        this.originNanos = System.nanoTime();
+        for (int i = 0; i < stageOffsets.length(); i++) {
+            stageOffsets.set(i, UNSET);
+        }
+    }
+
+    /**
+     * 创建语音轮次追踪（以说话结束为起点）
+     *
+     * @param sessionId 会话ID
+     * @return 追踪对象
+     */
+    public static TurnTrace startVoiceTurn(String sessionId) {
+        TurnTrace trace = new TurnTrace(sessionId, true);
+        trace.mark(TurnStage.SPEECH_END);
+        return trace;
+    }
+
+    /**
+     * 创建文本轮次追踪（以收到文本请求为起点）
+     *
+     * @param sessionId 会话ID
+     * @return 追踪对象
+     */
+    public static TurnTrace startTextTurn(String sessionId) {
+        return new TurnTrace(sessionId, false);
+    }
+
+    /**
+     * 记录时间点（仅记录首次）
+     *
+     * @param stage 时间点
+     */
+    public void mark(TurnStage stage) {
+        stageOffsets.compareAndSet(stage.ordinal(), UNSET, System.nanoTime() - originNanos);
+    }
+
+    /**
+     * 记录时间点（覆盖之前的值，用于"最后一个"类时间点）
+     *
+     * @param stage 时间点
+     */
+    public void markLatest(TurnStage stage) {
+        stageOffsets.set(stage.ordinal(), System.nanoTime() - originNanos);
+    }
+
+    /**
+     * 开始一句 TTS 合成
+     *
+     * @param textLength 句子长度
+     * @return 句子合成区间
+     */
+    public TtsSpan beginTtsSentence(int textLength) {
+        TtsSpan span = new TtsSpan(textLength, System.nanoTime() - originNanos);
+        ttsSpans.add(span);
+        return span;
+    }
+
+    /**
+     * 获取时间点相对起点的偏移
+     *
+     * @param stage 时间点
+     * @return 纳秒偏移，未记录时返回 -1
+     */
+    public long offsetNanos(TurnStage stage) {
+        return stageOffsets.get(stage.ordinal());
+    }
+
+    /**
+     * 两个时间点之间的间隔
+     *
+     * @param from 起始时间点
+     * @param to 结束时间点
+     * @return 纳秒间隔，任一时间点未记录时返回 -1
+     */
+    public long betweenNanos(TurnStage from, TurnStage to) {
+        long start = offsetNanos(from);
+        long end = offsetNanos(to);
+        return start < 0 || end < 0 ? UNSET : end - start;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public boolean isVoiceTurn() {
+        return voiceTurn;
+    }
+
+    public List<TtsSpan> getTtsSpans() {
+        return ttsSpans;
+    }
+
+    /**
+     * 生成摘要（各时间点相对起点的毫秒数），用于调试帧
+     *
+     * @return 有序摘要
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (TurnStage stage : TurnStage.values()) {
+            long offset = offsetNanos(stage);
+            if (offset >= 0) {
+                summary.put(stage.getCode(), offset / 1_000_000);
+            }
+        }
+        if (!ttsSpans.isEmpty()) {
+            summary.put("ttsSentences", ttsSpans.stream().map(TtsSpan::toSummary).toList());
+        }
+        return summary;
+    }
+
+    /**
+     * 单句 TTS 合成区间
+     */
+    public final class TtsSpan {
+
+        private final int textLength;
+        private final long startOffset;
+        private volatile long firstByteOffset = UNSET;
+        private volatile long completeOffset = UNSET;
+
+        private TtsSpan(int textLength, long startOffset) {
+            this.textLength = textLength;
+            this.startOffset = startOffset;
+        }
+
+        /**
+         * 记录收到首个音频字节（仅记录首次）
+         */
+        public void markFirstByte() {
+            if (firstByteOffset == UNSET) {
+                firstByteOffset = System.nanoTime() - originNanos;
+            }
+        }
+
+        /**
+         * 记录合成完成
+         */
+        public void markComplete() {
+            markFirstByte();
+            completeOffset = System.nanoTime() - originNanos;
+        }
+
+        public long firstByteNanos() {
+            return firstByteOffset == UNSET ? UNSET : firstByteOffset - startOffset;
+        }
+
+        public long synthesisNanos() {
+            return completeOffset == UNSET ? UNSET : completeOffset - startOffset;
+        }
+
+        private Map<String, Object> toSummary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("length", textLength);
+            summary.put("start", startOffset / 1_000_000);
+            if (firstByteOffset != UNSET) {
+                summary.put("firstByte", firstByteOffset / 1_000_000);
+            }
+            if (completeOffset != UNSET) {
+                summary.put("complete", completeOffset / 1_000_000);
+            }
+            return summary;
+        }
+    }
+}
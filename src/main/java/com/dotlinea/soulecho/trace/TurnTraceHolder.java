@@ -0,0 +1,57 @@
+package com.dotlinea.soulecho.trace;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * 当前线程的对话轮次追踪
+ * <p>
+ * LLM 流式调用与逐句 TTS 合成在同一线程中同步执行，通过 ThreadLocal 让
+ * LLMClientImpl、TTSClientImpl 等下游组件无需修改接口即可记录时间点。
+ * 跨线程的回调（如 NLS 监听器）需在调用线程中提前取出追踪对象。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TurnTraceHolder {
+
+    private static final ThreadLocal<TurnTrace> CURRENT = new ThreadLocal<>();
+
+    public static void set(TurnTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    public static TurnTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 记录当前线程追踪的时间点（无追踪时忽略）
+     *
+     * @param stage 时间点
+     */
+    public static void mark(TurnStage stage) {
+        TurnTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.mark(stage);
+        }
+    }
+
+    /**
+     * 开始一句 TTS 合成（无追踪时返回 null）
+     *
+     * @param textLength 句子长度
+     * @return 句子合成区间
+     */
+    public static TurnTrace.TtsSpan beginTtsSentence(int textLength) {
+        TurnTrace trace = CURRENT.get();
+        return trace != null ? trace.beginTtsSentence(textLength) : null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.dotlinea.soulecho.trace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对话轮次耗时记录器
+ * <p>
+ * 将 {@link TurnTrace} 拆分为各阶段耗时，记录到 Micrometer 计时器
+ * {@code soulecho.turn.latency}（标签 phase、mode），通过 Actuator 的 metrics / prometheus 端点暴露。
+ * 计时器开启百分位直方图，便于按 P50/P95/P99 观察。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+public class TurnTraceRecorder {
+
+    /**
+     * 计时器名称
+     */
+    public static final String TIMER_NAME = "soulecho.turn.latency";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一轮对话的各阶段耗时
+     *
+     * @param trace 轮次追踪
+     */
+    public void record(TurnTrace trace) {
+        String mode = trace.isVoiceTurn() ? "voice" : "text";
+
+        if (trace.isVoiceTurn()) {
+            recordBetween("asr_first_result", mode, trace, TurnStage.SPEECH_END, TurnStage.ASR_FIRST_RESULT);
+            recordBetween("asr_final", mode, trace, TurnStage.SPEECH_END, TurnStage.ASR_FINAL_RESULT);
+        }
+        recordBetween("retrieval", mode, trace, TurnStage.RETRIEVAL_START, TurnStage.RETRIEVAL_END);
+        recordBetween("llm_first_token", mode, trace, TurnStage.LLM_REQUEST, TurnStage.LLM_FIRST_TOKEN);
+        recordBetween("llm_stream", mode, trace, TurnStage.LLM_FIRST_TOKEN, TurnStage.LLM_LAST_TOKEN);
+        recordOffset("first_text", mode, trace.offsetNanos(TurnStage.LLM_FIRST_TOKEN));
+        recordOffset("first_audio", mode, trace.offsetNanos(TurnStage.FIRST_AUDIO_SENT));
+
+        for (TurnTrace.TtsSpan span : trace.getTtsSpans()) {
+            recordOffset("tts_first_byte", mode, span.firstByteNanos());
+            recordOffset("tts_synthesis", mode, span.synthesisNanos());
+        }
+    }
+
+    private void recordBetween(String phase, String mode, TurnTrace trace, TurnStage from, TurnStage to) {
+        recordOffset(phase, mode, trace.betweenNanos(from, to));
+    }
+
+    private void recordOffset(String phase, String mode, long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        timer(phase, mode).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String phase, String mode) {
+        return timers.computeIfAbsent(phase + ':' + mode, key -> Timer.builder(TIMER_NAME)
+            .description("对话轮次各阶段耗时")
+            .tag("phase", phase)
+            .tag("mode", mode)
+            .publishPercentileHistogram()
+            .maximumExpectedValue(Duration.ofSeconds(30))
+            .register(meterRegistry));
+    }
+}
@@ -0,0 +1,347 @@
+package com.dotlinea.soulecho.websocket;
+
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带下行队列的 WebSocket 会话装饰器
+ * <p>
+ * 底层会话不支持并发发送，而 LLM 线程、TTS 回调线程、心跳与错误通知都可能同时调用 sendMessage。
+ * 本装饰器把发送改为入队：调用方只做内存操作后立即返回，由写线程池中的单个任务按入队顺序逐条写出，
+ * 同一会话任意时刻最多只有一个写线程，慢客户端只会占住写线程，不会阻塞业务线程。
+ * </p>
+ * <p>
+ * 背压策略（缓冲字节数包含正在写出的消息）：
+ * <ul>
+ * <li>音频帧：缓冲超过 audioShedThreshold 后丢弃，并持续丢弃到队列清空为止，避免音频断断续续；
+ *     缓冲为空时总是接收，单个超过阈值的整句音频也能送达</li>
+ * <li>文本帧：缓冲超过 bufferSizeLimit 时先清除队列中尚未写出的音频帧腾出空间；仍然放不下说明客户端已无法跟上，
+ *     以 SESSION_NOT_RELIABLE 关闭连接。文本帧不会被静默丢弃，保证回复内容完整</li>
+ * <li>单条消息写出时间超过 sendTimeLimit 同样关闭连接，由调度器定期检查，不依赖后续入队</li>
+ * <li>写线程池拒绝写任务时关闭连接，而不是让已入队的消息（如本轮最后的 ai-end）滞留到下一次发送</li>
+ * </ul>
+ * 因背压关闭连接时，底层 close 交给写线程池执行（被拒绝时交给调度器），不占用调用 sendMessage 的业务线程，
+ * 也不会让调度器线程等待卡住的写出。连接关闭后的发送静默忽略，调用方仍可通过 isOpen 判断。业务层主动 close 时先写完已入队的消息再关闭，
+ * 保证关闭前的最后一条通知（如重定向）送达。
+ * </p>
+ * <p>
+ * 需要知道消息何时真正写出（如首个音频帧的耗时统计）时使用 {@link #sendMessage(WebSocketMessage, Runnable)}，
+ * 回调在写线程上、写出成功后执行；被丢弃或连接关闭的消息不会回调。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class BufferedOutboundSession extends WebSocketSessionDecorator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferedOutboundSession.class);
+
+    private final Executor writerExecutor;
+    private final TaskScheduler scheduler;
+    private final ChatMetrics chatMetrics;
+    private final long sendTimeLimitNanos;
+    private final int bufferSizeLimit;
+    private final int audioShedThreshold;
+
+    /**
+     * 待写出消息队列，以自身作为锁保护队列及以下状态
+     */
+    private final Deque<Outbound> queue = new ArrayDeque<>();
+    private int bufferedBytes;
+    private boolean writerActive;
+    private boolean sheddingAudio;
+
+    /**
+     * 业务层请求关闭时写线程仍在工作，待队列写完后以该状态关闭
+     */
+    private CloseStatus pendingClose;
+
+    /**
+     * 当前消息开始写出的时间（System.nanoTime），空闲时为 0
+     */
+    private volatile long sendStartNanos;
+
+    private volatile boolean terminated;
+
+    /**
+     * 写出时间检查任务，连接关闭时取消
+     */
+    private final ScheduledFuture<?> sendTimeCheck;
+
+    /**
+     * 待写出的消息及写出成功后的回调
+     */
+    private record Outbound(WebSocketMessage<?> message, Runnable onWritten) {
+    }
+
+    /**
+     * @param delegate 底层会话
+     * @param writerExecutor 写线程池
+     * @param scheduler 检查写出时间的调度器
+     * @param chatMetrics 指标
+     * @param sendTimeLimitMs 单条消息写出时间上限（毫秒）
+     * @param bufferSizeLimit 缓冲字节数上限
+     * @param audioShedThreshold 开始丢弃音频帧的缓冲字节数
+     */
+    public BufferedOutboundSession(WebSocketSession delegate, Executor writerExecutor, TaskScheduler scheduler,
+                                   ChatMetrics chatMetrics, long sendTimeLimitMs, int bufferSizeLimit,
+                                   int audioShedThreshold) {
+        super(delegate);
+        this.writerExecutor = writerExecutor;
+        this.scheduler = scheduler;
+        this.chatMetrics = chatMetrics;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.audioShedThreshold = Math.min(audioShedThreshold, bufferSizeLimit);
+        // 每半个上限检查一次，写出卡住后最迟 1.5 倍上限内关闭连接
+        Duration checkInterval = Duration.ofMillis(Math.max(1, sendTimeLimitMs / 2));
+        this.sendTimeCheck = scheduler.scheduleWithFixedDelay(this::checkSendTime,
+            Instant.now().plus(checkInterval), checkInterval);
+    }
+
+    @Override
+    public void sendMessage(@NotNull WebSocketMessage<?> message) {
+        sendMessage(message, null);
+    }
+
+    /**
+     * 入队一条消息，写出成功后在写线程上执行回调
+     *
+     * @param message 消息
+     * @param onWritten 写出成功后的回调，可为 null；消息被丢弃或连接关闭时不执行
+     */
+    public void sendMessage(WebSocketMessage<?> message, Runnable onWritten) {
+        if (terminated) {
+            return;
+        }
+        synchronized (queue) {
+            if (pendingClose != null) {
+                return;
+            }
+        }
+
+        int size = message.getPayloadLength();
+        boolean audio = message instanceof BinaryMessage;
+        int shedBytes = 0;
+        boolean overflow = false;
+        boolean startWriter = false;
+
+        synchronized (queue) {
+            if (bufferedBytes == 0) {
+                // 没有排队或正在写出的消息：上一段积压已写完，恢复接收音频
+                sheddingAudio = false;
+            }
+            if (audio && bufferedBytes > 0 && (sheddingAudio || bufferedBytes + size > audioShedThreshold)) {
+                sheddingAudio = true;
+                shedBytes = size;
+            } else {
+                if (!audio && bufferedBytes > 0 && bufferedBytes + size > bufferSizeLimit) {
+                    // 文本优先：先丢弃排队中的音频
+                    shedBytes = evictQueuedAudio();
+                    sheddingAudio = true;
+                    overflow = bufferedBytes + size > bufferSizeLimit;
+                }
+                if (!overflow) {
+                    queue.add(new Outbound(message, onWritten));
+                    bufferedBytes += size;
+                    if (!writerActive) {
+                        writerActive = true;
+                        startWriter = true;
+                    }
+                }
+            }
+        }
+
+        if (shedBytes > 0) {
+            chatMetrics.recordOutboundShed(shedBytes);
+        }
+        if (overflow) {
+            terminate("buffer-size-limit");
+        } else if (startWriter) {
+            startWriter();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(CloseStatus.NORMAL);
+    }
+
+    @Override
+    public void close(@NotNull CloseStatus status) throws IOException {
+        synchronized (queue) {
+            if (writerActive) {
+                pendingClose = status;
+                return;
+            }
+        }
+        super.close(status);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !terminated && super.isOpen();
+    }
+
+    /**
+     * 当前缓冲的字节数（含正在写出的消息）
+     *
+     * @return 字节数
+     */
+    public int getBufferedBytes() {
+        synchronized (queue) {
+            return bufferedBytes;
+        }
+    }
+
+    /**
+     * 连接关闭时丢弃尚未写出的消息
+     */
+    public void release() {
+        terminated = true;
+        sendTimeCheck.cancel(false);
+        synchronized (queue) {
+            queue.clear();
+            bufferedBytes = 0;
+        }
+    }
+
+    private void startWriter() {
+        try {
+            writerExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            // 写线程池饱和：已入队的消息可能是本轮最后一条，不能指望下一次发送来补发，直接关闭连接
+            synchronized (queue) {
+                writerActive = false;
+            }
+            terminate("writer-rejected");
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Outbound outbound;
+            CloseStatus closeStatus = null;
+            synchronized (queue) {
+                outbound = queue.poll();
+                if (outbound == null || terminated) {
+                    writerActive = false;
+                    sheddingAudio = false;
+                    closeStatus = terminated ? null : pendingClose;
+                }
+            }
+            if (outbound == null || terminated) {
+                if (closeStatus != null) {
+                    closeDelegate(closeStatus);
+                }
+                return;
+            }
+
+            WebSocketMessage<?> message = outbound.message();
+            sendStartNanos = System.nanoTime();
+            try {
+                getDelegate().sendMessage(message);
+            } catch (Exception e) {
+                logger.warn("会话 {} 下行消息写出失败: {}", getId(), e.getMessage());
+                synchronized (queue) {
+                    writerActive = false;
+                }
+                terminate("send-error");
+                return;
+            } finally {
+                sendStartNanos = 0;
+                synchronized (queue) {
+                    // release 已将缓冲清零
+                    if (!terminated) {
+                        bufferedBytes -= message.getPayloadLength();
+                    }
+                }
+            }
+            if (outbound.onWritten() != null) {
+                try {
+                    outbound.onWritten().run();
+                } catch (Exception e) {
+                    logger.warn("会话 {} 下行写出回调失败", getId(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 由调度器执行：当前消息写出时间超过上限时关闭连接，只读状态，不做阻塞操作
+     */
+    private void checkSendTime() {
+        long startNanos = sendStartNanos;
+        if (startNanos != 0 && System.nanoTime() - startNanos > sendTimeLimitNanos) {
+            terminate("send-time-limit");
+        }
+    }
+
+    /**
+     * 从队列中移除所有尚未写出的音频帧
+     *
+     * @return 移除的字节数
+     */
+    private int evictQueuedAudio() {
+        int evicted = 0;
+        Iterator<Outbound> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            WebSocketMessage<?> queued = iterator.next().message();
+            if (queued instanceof BinaryMessage) {
+                iterator.remove();
+                evicted += queued.getPayloadLength();
+            }
+        }
+        bufferedBytes -= evicted;
+        return evicted;
+    }
+
+    private void closeDelegate(CloseStatus status) {
+        try {
+            getDelegate().close(status);
+        } catch (Exception e) {
+            logger.debug("会话 {} 关闭失败: {}", getId(), e.getMessage());
+        }
+    }
+
+    private void terminate(String reason) {
+        synchronized (queue) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            queue.clear();
+            bufferedBytes = 0;
+        }
+        sendTimeCheck.cancel(false);
+        chatMetrics.recordSlowClientClose(reason);
+        logger.warn("会话 {} 下行无法跟上（{}），关闭连接", getId(), reason);
+        // 写线程可能仍卡在慢客户端上，关闭可能同样阻塞：不在业务线程或调度器检查任务中直接执行
+        Runnable close = () -> closeDelegate(CloseStatus.SESSION_NOT_RELIABLE);
+        try {
+            writerExecutor.execute(close);
+        } catch (RejectedExecutionException e) {
+            scheduler.schedule(close, Instant.now());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.dotlinea.soulecho.websocket;
+
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 下行队列处理器装饰器
+ * <p>
+ * 为每个连接创建一个 {@link BufferedOutboundSession}，并在该连接的所有回调中传递同一个装饰器，
+ * 业务层通过 session.sendMessage 发出的消息都经由下行队列串行写出。连接关闭时丢弃未写出的消息。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public class BufferedOutboundWebSocketHandler extends WebSocketHandlerDecorator {
+
+    private final Executor writerExecutor;
+    private final TaskScheduler scheduler;
+    private final ChatMetrics chatMetrics;
+    private final long sendTimeLimitMs;
+    private final int bufferSizeLimit;
+    private final int audioShedThreshold;
+
+    private final Map<String, BufferedOutboundSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate 业务处理器
+     * @param writerExecutor 写线程池
+     * @param scheduler 检查写出时间的调度器
+     * @param chatMetrics 指标
+     * @param sendTimeLimitMs 单条消息写出时间上限（毫秒）
+     * @param bufferSizeLimit 每个会话的缓冲字节数上限
+     * @param audioShedThreshold 开始丢弃音频帧的缓冲字节数
+     */
+    public BufferedOutboundWebSocketHandler(WebSocketHandler delegate, Executor writerExecutor, TaskScheduler scheduler,
+                                            ChatMetrics chatMetrics, long sendTimeLimitMs, int bufferSizeLimit,
+                                            int audioShedThreshold) {
+        super(delegate);
+        this.writerExecutor = writerExecutor;
+        this.scheduler = scheduler;
+        this.chatMetrics = chatMetrics;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.audioShedThreshold = audioShedThreshold;
+        chatMetrics.gaugeOutboundBuffers(sessions,
+            map -> map.values().stream().mapToLong(BufferedOutboundSession::getBufferedBytes).sum());
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NotNull WebSocketSession session) throws Exception {
+        super.afterConnectionEstablished(sessions.computeIfAbsent(session.getId(), id -> new BufferedOutboundSession(
+            session, writerExecutor, scheduler, chatMetrics, sendTimeLimitMs, bufferSizeLimit, audioShedThreshold)));
+    }
+
+    @Override
+    public void handleMessage(@NotNull WebSocketSession session, @NotNull WebSocketMessage<?> message) throws Exception {
+        super.handleMessage(buffered(session), message);
+    }
+
+    @Override
+    public void handleTransportError(@NotNull WebSocketSession session, @NotNull Throwable exception) throws Exception {
+        super.handleTransportError(buffered(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(@NotNull WebSocketSession session, @NotNull CloseStatus closeStatus) throws Exception {
+        BufferedOutboundSession buffered = sessions.remove(session.getId());
+        if (buffered != null) {
+            buffered.release();
+        }
+        super.afterConnectionClosed(buffered != null ? buffered : session, closeStatus);
+    }
+
+    private WebSocketSession buffered(WebSocketSession session) {
+        BufferedOutboundSession buffered = sessions.get(session.getId());
+        return buffered != null ? buffered : session;
+    }
+}
@@ -0,0 +1,87 @@
+package com.dotlinea.soulecho.audio;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ImaAdpcmCodec 单元测试
+ * <p>
+ * 验证数据块格式、压缩率以及编解码往返误差
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class ImaAdpcmCodecTest {
+
+    @Test
+    void testRoundTripSineWave() {
+        // 100ms 440Hz 正弦波 @ 16kHz
+        byte[] pcm = sinePcm(1600, 440, 8000);
+
+        byte[] block = ImaAdpcmCodec.encode(pcm, 0, pcm.length);
+        byte[] decoded = ImaAdpcmCodec.decode(block, 0, block.length);
+
+        // 验证采样数一致
+        assertEquals(pcm.length, decoded.length);
+
+        // 验证压缩率约为 4:1
+        assertTrue(block.length <= pcm.length / 4 + ImaAdpcmCodec.HEADER_SIZE + 1);
+
+        // 验证首个采样无损，整体误差在可接受范围内
+        assertEquals(sample(pcm, 0), sample(decoded, 0));
+        long errorSum = 0;
+        for (int i = 0; i < pcm.length / 2; i++) {
+            errorSum += Math.abs(sample(pcm, i) - sample(decoded, i));
+        }
+        assertTrue(errorSum / (pcm.length / 2) < 200, "平均误差过大: " + errorSum / (pcm.length / 2));
+    }
+
+    @Test
+    void testPaddingNibbleHasNoExtraSample() {
+        // 首个采样存放在块头，偶数个采样时剩余半字节为奇数，末尾填充不应解码出多余采样
+        byte[] pcm = sinePcm(8, 440, 1000);
+        byte[] block = ImaAdpcmCodec.encode(pcm, 0, pcm.length);
+        assertEquals(1, block[3]);
+        assertEquals(pcm.length, ImaAdpcmCodec.decode(block, 0, block.length).length);
+
+        pcm = sinePcm(7, 440, 1000);
+        block = ImaAdpcmCodec.encode(pcm, 0, pcm.length);
+        assertEquals(0, block[3]);
+        assertEquals(pcm.length, ImaAdpcmCodec.decode(block, 0, block.length).length);
+    }
+
+    @Test
+    void testBlocksDecodeIndependently() {
+        // 每个数据块携带自己的预测值和步长索引，可单独解码
+        byte[] pcm = sinePcm(3200, 300, 12000);
+        byte[] second = ImaAdpcmCodec.encode(pcm, 3200, 3200);
+
+        byte[] decodedSecond = ImaAdpcmCodec.decode(second, 0, second.length);
+        assertEquals(3200, decodedSecond.length);
+        assertEquals(sample(pcm, 1600), sample(decodedSecond, 0));
+    }
+
+    @Test
+    void testEmptyAndInvalidInput() {
+        assertEquals(0, ImaAdpcmCodec.encode(new byte[0], 0, 0).length);
+        assertEquals(0, ImaAdpcmCodec.decode(new byte[0], 0, 0).length);
+        assertThrows(IllegalArgumentException.class, () -> ImaAdpcmCodec.decode(new byte[]{1, 2}, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> ImaAdpcmCodec.decode(new byte[]{0, 0, 120, 0}, 0, 4));
+    }
+
+    private static byte[] sinePcm(int samples, double frequency, double amplitude) {
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            int value = (int) (amplitude * Math.sin(2 * Math.PI * frequency * i / 16000.0));
+            pcm[i * 2] = (byte) value;
+            pcm[i * 2 + 1] = (byte) (value >> 8);
+        }
+        return pcm;
+    }
+
+    private static int sample(byte[] pcm, int index) {
+        return (short) ((pcm[index * 2] & 0xFF) | (pcm[index * 2 + 1] << 8));
+    }
+}
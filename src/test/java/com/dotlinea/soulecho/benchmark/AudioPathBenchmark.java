@@ -0,0 +1,109 @@
+package com.dotlinea.soulecho.benchmark;
+
+import com.dotlinea.soulecho.service.impl.RealtimeChatServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上行音频热点路径基准
+ * <p>
+ * 覆盖每个二进制帧都会执行的 cloneAudioBuffer、AudioBuffer.append，
+ * 每轮语音结束时执行的 AudioBuffer.toByteArray，以及 ASR 结果过滤用的 isPunctuationOnly。
+ * 帧大小 3200 字节（16kHz 16bit 单声道 100ms），一轮语音 5 秒即 50 帧。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioPathBenchmark {
+
+    private static final Class<?> AUDIO_BUFFER = BenchmarkSupport.nestedClass(RealtimeChatServiceImpl.class, "AudioBuffer");
+
+    private static final MethodHandle CLONE_AUDIO_BUFFER = BenchmarkSupport.findVirtual(RealtimeChatServiceImpl.class,
+        "cloneAudioBuffer", MethodType.methodType(ByteBuffer.class, ByteBuffer.class));
+
+    private static final MethodHandle IS_PUNCTUATION_ONLY = BenchmarkSupport.findVirtual(RealtimeChatServiceImpl.class,
+        "isPunctuationOnly", MethodType.methodType(boolean.class, String.class));
+
+    private static final MethodHandle NEW_AUDIO_BUFFER;
+    private static final MethodHandle APPEND;
+    private static final MethodHandle TO_BYTE_ARRAY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = BenchmarkSupport.privateLookup(AUDIO_BUFFER);
+            NEW_AUDIO_BUFFER = lookup.findConstructor(AUDIO_BUFFER, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(Object.class));
+            APPEND = lookup.findVirtual(AUDIO_BUFFER, "append", MethodType.methodType(void.class, ByteBuffer.class))
+                .asType(MethodType.methodType(void.class, Object.class, ByteBuffer.class));
+            TO_BYTE_ARRAY = lookup.findVirtual(AUDIO_BUFFER, "toByteArray", MethodType.methodType(byte[].class))
+                .asType(MethodType.methodType(byte[].class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * WebSocket 容器交付的帧缓冲类型
+     */
+    @Param({"heap", "direct"})
+    private String payloadType;
+
+    private RealtimeChatServiceImpl service;
+    private ByteBuffer payload;
+    private final String[] asrTexts = {"。", "？", "好", "你好", "嗯嗯，好的"};
+    private int textIndex;
+
+    @Setup
+    public void setUp() {
+        service = BenchmarkSupport.instantiateWithNullDependencies(RealtimeChatServiceImpl.class);
+        byte[] frame = new byte[3200];
+        ThreadLocalRandom.current().nextBytes(frame);
+        payload = "direct".equals(payloadType) ? ByteBuffer.allocateDirect(frame.length) : ByteBuffer.allocate(frame.length);
+        payload.put(frame).flip();
+    }
+
+    @Benchmark
+    public ByteBuffer cloneAudioBuffer() throws Throwable {
+        return (ByteBuffer) CLONE_AUDIO_BUFFER.invokeExact(service, payload);
+    }
+
+    @Benchmark
+    public byte[] bufferFiveSecondUtterance() throws Throwable {
+        Object buffer = (Object) NEW_AUDIO_BUFFER.invokeExact();
+        for (int i = 0; i < 50; i++) {
+            ByteBuffer frame = (ByteBuffer) CLONE_AUDIO_BUFFER.invokeExact(service, payload);
+            APPEND.invokeExact(buffer, frame);
+        }
+        return (byte[]) TO_BYTE_ARRAY.invokeExact(buffer);
+    }
+
+    @Benchmark
+    public boolean isPunctuationOnly() throws Throwable {
+        String text = asrTexts[textIndex++ % asrTexts.length];
+        return (boolean) IS_PUNCTUATION_ONLY.invokeExact(service, text);
+    }
+}
@@ -0,0 +1,67 @@
+package com.dotlinea.soulecho.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+
+/**
+ * 基准测试辅助方法
+ * <p>
+ * 热点方法多为私有实现，基准通过 private lookup 获取 MethodHandle 直接调用，不修改生产代码的可见性。
+ * MethodHandle 保存在 static final 字段中时会被 JIT 内联，额外开销可忽略。
+ * </p>
+ * <p>
+ * 运行全部基准并统计分配速率（JMH 需要以独立进程启动，才能按同一类路径 fork 测量进程）：
+ * </p>
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main -prof gc"
+ * </pre>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static MethodHandles.Lookup privateLookup(Class<?> targetClass) {
+        try {
+            return MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static MethodHandle findVirtual(Class<?> targetClass, String name, MethodType type) {
+        try {
+            return privateLookup(targetClass).findVirtual(targetClass, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("找不到方法 " + targetClass.getSimpleName() + "." + name, e);
+        }
+    }
+
+    static Class<?> nestedClass(Class<?> outerClass, String simpleName) {
+        try {
+            return Class.forName(outerClass.getName() + "$" + simpleName);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 以 null 依赖调用唯一的构造器创建实例（被测方法不访问这些依赖）
+     */
+    static <T> T instantiateWithNullDependencies(Class<T> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructors()[0];
+            constructor.setAccessible(true);
+            return type.cast(constructor.newInstance(new Object[constructor.getParameterCount()]));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建 " + type.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.dotlinea.soulecho.benchmark;
+
+import com.dotlinea.soulecho.controller.ChatWebSocketHandler;
+import com.dotlinea.soulecho.dto.WebSocketMessageDTO;
+import com.dotlinea.soulecho.factory.WebSocketMessageFactory;
+import com.dotlinea.soulecho.protocol.InboundMessageParser;
+import com.dotlinea.soulecho.protocol.OutboundMessageEncoder;
+import com.dotlinea.soulecho.service.RealtimeChatService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文本帧编解码基准
+ * <p>
+ * 下行：WebSocketMessageFactory 创建 DTO 并由 Jackson 序列化（原实现，作为对照），
+ * 以及 OutboundMessageEncoder 编码 ai-chunk 文本块帧（每个 LLM token 执行一次）与带会话信息的控制帧。
+ * 上行：ChatWebSocketHandler.handleTextMessage 的解析与分派，分别测量 ping 帧、JSON 聊天帧与纯文本帧，
+ * 业务服务替换为空实现，只保留处理器自身的开销。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+    private static final MethodHandle HANDLE_TEXT_MESSAGE = BenchmarkSupport.findVirtual(ChatWebSocketHandler.class,
+        "handleTextMessage", MethodType.methodType(void.class, WebSocketSession.class, TextMessage.class));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WebSocketMessageFactory messageFactory = new WebSocketMessageFactory();
+    private final OutboundMessageEncoder outboundEncoder = new OutboundMessageEncoder(objectMapper, messageFactory);
+
+    private ChatWebSocketHandler handler;
+    private WebSocketSession session;
+    private TextMessage pingMessage;
+    private TextMessage chatMessage;
+    private TextMessage plainTextMessage;
+
+    @Setup
+    public void setUp() {
+        RealtimeChatService noopService = (RealtimeChatService) Proxy.newProxyInstance(
+            RealtimeChatService.class.getClassLoader(), new Class<?>[]{RealtimeChatService.class},
+            (proxy, method, args) -> null);
+        handler = new ChatWebSocketHandler(noopService, null, new InboundMessageParser(objectMapper), outboundEncoder,
+            null, null);
+        session = new DiscardingSession();
+        pingMessage = new TextMessage("{\"type\":\"ping\"}");
+        chatMessage = new TextMessage("{\"message\":\"你好，今天天气怎么样？\",\"ttsEnabled\":true}");
+        plainTextMessage = new TextMessage("你好，今天天气怎么样？");
+    }
+
+    @Benchmark
+    public String serializeUserTranscription() throws Exception {
+        WebSocketMessageDTO dto = messageFactory.createUserTranscription("你好，今天天气怎么样？", "session-1");
+        return objectMapper.writeValueAsString(dto);
+    }
+
+    @Benchmark
+    public String serializeError() throws Exception {
+        WebSocketMessageDTO dto = messageFactory.createErrorWithCode("语音服务异常，已切换至文字模式", "TTS_BROKEN", "session-1");
+        return objectMapper.writeValueAsString(dto);
+    }
+
+    @Benchmark
+    public TextMessage encodeUserTranscription() throws Exception {
+        return outboundEncoder.userTranscription("你好，今天天气怎么样？", "session-1");
+    }
+
+    @Benchmark
+    public TextMessage encodeAiChunk() {
+        return outboundEncoder.aiChunk(42, "今天天气");
+    }
+
+    @Benchmark
+    public void handlePing() throws Throwable {
+        HANDLE_TEXT_MESSAGE.invokeExact(handler, session, pingMessage);
+    }
+
+    @Benchmark
+    public void handleChatMessage() throws Throwable {
+        HANDLE_TEXT_MESSAGE.invokeExact(handler, session, chatMessage);
+    }
+
+    @Benchmark
+    public void handlePlainText() throws Throwable {
+        HANDLE_TEXT_MESSAGE.invokeExact(handler, session, plainTextMessage);
+    }
+
+    /**
+     * 丢弃所有发送内容的会话
+     */
+    private static final class DiscardingSession implements WebSocketSession {
+
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+        @Override
+        public String getId() {
+            return "bench-session";
+        }
+
+        @Override
+        public URI getUri() {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return HttpHeaders.EMPTY;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dotlinea.soulecho.benchmark;
+
+import com.alibaba.dashscope.common.Message;
+import com.dotlinea.soulecho.client.PromptAssembler;
+import com.dotlinea.soulecho.constants.PersonaPromptConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LLM 消息构建基准
+ * <p>
+ * 测量 PromptAssembler.assemble 在 20 / 50 条历史记录、有无知识库片段时的耗时与分配，
+ * 每轮对话请求 LLM 前执行一次。角色设定前缀在预热后命中缓存，不计入每轮的构建开销。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptBuildBenchmark {
+
+    @Param({"20", "50"})
+    private int historySize;
+
+    private PromptAssembler promptAssembler;
+    private List<String> history;
+    private List<String> knowledgeChunks;
+
+    @Setup
+    public void setUp() {
+        promptAssembler = new PromptAssembler(null);
+        ReflectionTestUtils.setField(promptAssembler, "prefixCacheSize", 16);
+        ReflectionTestUtils.setField(promptAssembler, "prefixCacheTtlSeconds", 3600L);
+        history = new ArrayList<>();
+        for (int i = 0; i < historySize; i++) {
+            history.add(i % 2 == 0
+                ? "第 " + i + " 轮用户消息：今天工作有点累，想听你说说话。"
+                : "第 " + i + " 轮回复：辛苦啦！先深呼吸放松一下，我陪你慢慢聊，想从哪里说起都可以。");
+        }
+        knowledgeChunks = List.of("角色设定：性格温柔，喜欢倾听。", "常见问题：如何缓解压力？建议规律作息。",
+            "背景资料：角色来自一座海边小城。");
+    }
+
+    @Benchmark
+    public List<Message> withoutKnowledge() {
+        return promptAssembler.assemble(PersonaPromptConstants.DEFAULT_PERSONA, null, history,
+            null, "那你给我讲个故事吧");
+    }
+
+    @Benchmark
+    public List<Message> withKnowledge() {
+        return promptAssembler.assemble(PersonaPromptConstants.DEFAULT_PERSONA, null, history,
+            knowledgeChunks, "那你给我讲个故事吧");
+    }
+}
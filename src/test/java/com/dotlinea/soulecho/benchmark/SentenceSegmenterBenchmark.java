@@ -0,0 +1,70 @@
+package com.dotlinea.soulecho.benchmark;
+
+import com.dotlinea.soulecho.chat.SentenceSegmenter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LLM 流式回复分句基准
+ * <p>
+ * 模拟 streamLlmResponseWithTts 的逐块处理：把一段约 300 字的回复按 LLM 的增量块大小切开，
+ * 依次 feed 给 {@link SentenceSegmenter} 并 flush，单次调用对应一轮完整回复。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SentenceSegmenterBenchmark {
+
+    private static final String REPLY = "你好呀！今天过得怎么样？我刚刚在想，春天的时候去公园散步真的很舒服，"
+        + "阳光不冷不热，风里还有一点花香。如果你最近工作比较累，可以试着每天留出十分钟，什么都不做，"
+        + "只是安静地呼吸。其实休息也是一种能力，需要慢慢练习。对了，你上次说想学做饭，进展如何？"
+        + "可以先从简单的番茄炒蛋开始，3.5 分钟就能搞定。记得少放盐，多放一点点糖，味道会更柔和。"
+        + "有什么想聊的，随时告诉我，我一直都在。";
+
+    /**
+     * 每个 LLM 增量块的字符数
+     */
+    @Param({"2", "8"})
+    private int chunkSize;
+
+    private List<String> chunks;
+
+    @Setup
+    public void setUp() {
+        chunks = new ArrayList<>();
+        for (int i = 0; i < REPLY.length(); i += chunkSize) {
+            chunks.add(REPLY.substring(i, Math.min(REPLY.length(), i + chunkSize)));
+        }
+    }
+
+    @Benchmark
+    public void segmentReply(Blackhole blackhole) {
+        SentenceSegmenter segmenter = new SentenceSegmenter();
+        for (String chunk : chunks) {
+            segmenter.feed(chunk, blackhole::consume);
+        }
+        blackhole.consume(segmenter.flush());
+    }
+}
@@ -0,0 +1,91 @@
+package com.dotlinea.soulecho.chat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SentenceSegmenter 单元测试
+ * <p>
+ * 验证强/弱标点切分、首片段快速输出、小数点识别以及跨文本块的增量扫描
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class SentenceSegmenterTest {
+
+    @Test
+    void testStrongPunctuationAcrossChunks() {
+        SentenceSegmenter segmenter = new SentenceSegmenter();
+        List<String> segments = new ArrayList<>();
+
+        segmenter.feed("你好", segments::add);
+        segmenter.feed("呀。今天", segments::add);
+        segmenter.feed("天气不错！", segments::add);
+
+        assertEquals(List.of("你好呀。"), segments);
+        assertEquals("今天天气不错！", segmenter.flush());
+    }
+
+    @Test
+    void testFirstSegmentSplitsOnCommaEarly() {
+        SentenceSegmenter segmenter = new SentenceSegmenter(4, 20, 120);
+        List<String> segments = new ArrayList<>();
+
+        segmenter.feed("嗯嗯好的呀，我想想，这个问题其实", segments::add);
+
+        // 首片段达到 4 个字符即可在逗号处切分；后续片段未达到 20 个字符时不在逗号处切分
+        assertEquals(List.of("嗯嗯好的呀，"), segments);
+        assertEquals("我想想，这个问题其实", segmenter.flush());
+    }
+
+    @Test
+    void testDecimalPointIsNotSentenceEnd() {
+        SentenceSegmenter segmenter = new SentenceSegmenter();
+        List<String> segments = new ArrayList<>();
+
+        segmenter.feed("圆周率约等于3.", segments::add);
+        segmenter.feed("14。好", segments::add);
+
+        assertEquals(List.of("圆周率约等于3.14。"), segments);
+    }
+
+    @Test
+    void testConsecutivePunctuationAndClosingQuote() {
+        SentenceSegmenter segmenter = new SentenceSegmenter();
+        List<String> segments = new ArrayList<>();
+
+        segmenter.feed("他说：“真的吗？", segments::add);
+        segmenter.feed("！”然后走了", segments::add);
+
+        assertEquals(List.of("他说：“真的吗？！”"), segments);
+        assertEquals("然后走了", segmenter.flush());
+    }
+
+    @Test
+    void testMaxLengthForcesSplit() {
+        SentenceSegmenter segmenter = new SentenceSegmenter(6, 20, 10);
+        List<String> segments = new ArrayList<>();
+
+        segmenter.feed("一二三四五六七八九十十一", segments::add);
+
+        assertEquals(List.of("一二三四五六七八九十"), segments);
+        assertEquals("十一", segmenter.flush());
+    }
+
+    @Test
+    void testPunctuationOnlySegmentsAreDropped() {
+        SentenceSegmenter segmenter = new SentenceSegmenter();
+        List<String> segments = new ArrayList<>();
+
+        segmenter.feed("。\n\n", segments::add);
+
+        assertTrue(segments.isEmpty());
+        assertNull(segmenter.flush());
+    }
+}
@@ -0,0 +1,99 @@
+package com.dotlinea.soulecho.chat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TextChunkCoalescer 单元测试
+ * <p>
+ * 验证首块直发、按长度与句末标点合并，以及 LLM 停顿时的定时输出
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class TextChunkCoalescerTest {
+
+    private ThreadPoolTaskScheduler scheduler;
+    private final List<String> frames = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testFirstChunkImmediateThenMergeUntilSentenceEnd() {
+        TextChunkCoalescer coalescer = new TextChunkCoalescer(frames::add, scheduler, 10_000, 32, 1);
+
+        coalescer.feed("你");
+        coalescer.feed("好");
+        coalescer.feed("呀");
+        assertEquals(List.of("你"), frames);
+
+        coalescer.feed("。今天");
+        assertEquals(List.of("你", "好呀。今天"), frames);
+
+        coalescer.feed("不错");
+        coalescer.close();
+        assertEquals(List.of("你", "好呀。今天", "不错"), frames);
+    }
+
+    @Test
+    void testMaxCharsFlush() {
+        TextChunkCoalescer coalescer = new TextChunkCoalescer(frames::add, scheduler, 10_000, 4, 0);
+
+        coalescer.feed("一二");
+        coalescer.feed("三");
+        assertTrue(frames.isEmpty());
+
+        coalescer.feed("四五");
+        assertEquals(List.of("一二三四五"), frames);
+    }
+
+    @Test
+    void testZeroDelayDisablesCoalescing() {
+        TextChunkCoalescer coalescer = new TextChunkCoalescer(frames::add, scheduler, 0, 32, 0);
+
+        coalescer.feed("一");
+        coalescer.feed("二");
+
+        assertEquals(List.of("一", "二"), frames);
+    }
+
+    @Test
+    void testTimeoutFlushWhenStreamPauses() throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        TextChunkCoalescer coalescer = new TextChunkCoalescer(text -> {
+            frames.add(text);
+            flushed.countDown();
+        }, scheduler, 20, 32, 0);
+
+        coalescer.feed("等一");
+        coalescer.feed("下");
+
+        assertTrue(flushed.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("等一下"), frames);
+
+        // 定时输出后暂存区为空，close 不应再输出
+        coalescer.close();
+        assertEquals(1, frames.size());
+    }
+}
@@ -0,0 +1,97 @@
+package com.dotlinea.soulecho.client;
+
+import com.dotlinea.soulecho.constants.FallbackReplyConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LLMResponseCache 单元测试
+ * <p>
+ * 验证输入归一化、键的组成、历史深度限制、兜底回复不缓存、LRU 淘汰与分块回放
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class LLMResponseCacheTest {
+
+    private static final String PERSONA = "你是哈利·波特";
+
+    private LLMResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LLMResponseCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxHistoryMessages", 0);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxInputLength", 32);
+        ReflectionTestUtils.setField(cache, "maxResponseLength", 100);
+        ReflectionTestUtils.setField(cache, "replayChunkChars", 2);
+        ReflectionTestUtils.setField(cache, "replayIntervalMs", 1L);
+    }
+
+    @Test
+    void testNormalizedInputsShareKey() {
+        String key = cache.keyOf("qwen-plus", false, "哈利", PERSONA, null, "你好");
+
+        assertEquals(key, cache.keyOf("qwen-plus", false, "哈利", PERSONA, null, " 你好！"));
+        assertEquals(cache.keyOf("qwen-plus", false, "哈利", PERSONA, null, "Hello"),
+            cache.keyOf("qwen-plus", false, "哈利", PERSONA, null, "hello."));
+        assertNotEquals(key, cache.keyOf("qwen-turbo", false, "哈利", PERSONA, null, "你好"));
+        assertNotEquals(key, cache.keyOf("qwen-plus", true, "哈利", PERSONA, null, "你好"));
+        assertNotEquals(key, cache.keyOf("qwen-plus", false, "罗恩", PERSONA, null, "你好"));
+        assertNotEquals(key, cache.keyOf("qwen-plus", false, "哈利", "你是赫敏", null, "你好"));
+        assertNotEquals(key, cache.keyOf("qwen-plus", false, "哈利", PERSONA, List.of("霍格沃茨"), "你好"));
+    }
+
+    @Test
+    void testOnlyShallowTurnsAreCacheable() {
+        assertTrue(cache.isCacheable(List.of(), "你好"));
+        assertFalse(cache.isCacheable(List.of("你好", "你好呀"), "你是谁"));
+
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        assertFalse(cache.isCacheable(List.of(), "你好"));
+    }
+
+    @Test
+    void testFallbackRepliesAreNotCached() {
+        String key = cache.keyOf("qwen-plus", false, "哈利", PERSONA, null, "你好");
+        cache.put(key, FallbackReplyConstants.LLM_API_ERROR);
+
+        assertNull(cache.get(key));
+
+        cache.put(key, "你好，我是哈利。");
+        assertEquals("你好，我是哈利。", cache.get(key));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.get("a");
+        cache.put("c", "C");
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals("A", cache.get("a"));
+    }
+
+    @Test
+    void testReplaySplitsIntoChunks() {
+        List<String> chunks = new ArrayList<>();
+        cache.replay("你好，我是哈利", chunks::add);
+
+        assertEquals(List.of("你好", "，我", "是哈", "利"), chunks);
+    }
+}
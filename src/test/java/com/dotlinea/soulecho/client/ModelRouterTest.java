@@ -0,0 +1,101 @@
+package com.dotlinea.soulecho.client;
+
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import com.dotlinea.soulecho.resilience.UpstreamCircuitBreakers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ModelRouter 单元测试
+ * <p>
+ * 验证按角色等级、输入长度与历史深度选择模型，模型熔断后切换到备用模型，首包变慢时降级，
+ * 以及未开启路由时不创建按模型的熔断器
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class ModelRouterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ModelRouter router;
+
+    @BeforeEach
+    void setUp() {
+        ChatMetrics chatMetrics = new ChatMetrics(meterRegistry);
+        UpstreamCircuitBreakers circuitBreakers = new UpstreamCircuitBreakers(chatMetrics);
+        ReflectionTestUtils.setField(circuitBreakers, "windowSize", 4);
+        ReflectionTestUtils.setField(circuitBreakers, "minimumCalls", 2);
+        ReflectionTestUtils.setField(circuitBreakers, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(circuitBreakers, "slowCallRateThreshold", 1.0);
+        ReflectionTestUtils.setField(circuitBreakers, "openDurationMs", 60_000L);
+        ReflectionTestUtils.setField(circuitBreakers, "halfOpenCalls", 1);
+
+        router = new ModelRouter(circuitBreakers, chatMetrics);
+        ReflectionTestUtils.setField(router, "enabled", true);
+        ReflectionTestUtils.setField(router, "defaultModel", "qwen-plus");
+        ReflectionTestUtils.setField(router, "fastModel", "qwen-turbo");
+        ReflectionTestUtils.setField(router, "premiumModel", "qwen-max");
+        ReflectionTestUtils.setField(router, "premiumCharacters", "哈利");
+        ReflectionTestUtils.setField(router, "fallbackModels", "qwen-turbo");
+        ReflectionTestUtils.setField(router, "shortInputLength", 4);
+        ReflectionTestUtils.setField(router, "shortHistoryMessages", 0);
+        ReflectionTestUtils.setField(router, "slowFirstChunkMs", 1000L);
+        ReflectionTestUtils.setField(router, "latencySampleTtlMs", 60_000L);
+        router.init();
+    }
+
+    @Test
+    void testRoutesByRules() {
+        assertEquals(List.of("qwen-turbo", "qwen-plus"), router.route(null, List.of(), "你好").models());
+        assertEquals("qwen-plus", router.route(null, List.of("你好", "你好呀"), "你好").primary());
+        assertEquals("qwen-plus", router.route(null, List.of(), "给我讲一个很长的故事").primary());
+        assertEquals(List.of("qwen-max", "qwen-plus", "qwen-turbo"),
+            router.route("哈利", List.of(), "给我讲一个很长的故事").models());
+    }
+
+    @Test
+    void testFailsOverWhenModelBreakerOpens() {
+        for (int i = 0; i < 2; i++) {
+            assertTrue(router.tryAcquire("qwen-plus"));
+            router.onResult("qwen-plus", System.nanoTime(), true);
+        }
+
+        assertEquals(List.of("qwen-turbo"), router.route(null, List.of(), "给我讲一个很长的故事").models());
+        assertFalse(router.tryAcquire("qwen-plus"));
+    }
+
+    @Test
+    void testSlowPrimaryIsDemoted() {
+        router.onFirstChunk("qwen-plus", System.nanoTime() - 5_000_000_000L);
+
+        assertEquals(List.of("qwen-turbo", "qwen-plus"), router.route(null, List.of(), "给我讲一个很长的故事").models());
+    }
+
+    @Test
+    void testDisabledRouterUsesDefaultModel() {
+        ReflectionTestUtils.setField(router, "enabled", false);
+
+        ModelRouter.Route route = router.route("哈利", List.of(), "你好");
+        assertEquals(List.of("qwen-plus"), route.models());
+        assertFalse(route.fastOpener());
+
+        // 不创建按模型的熔断器，失败只计入全局熔断器
+        for (int i = 0; i < 4; i++) {
+            assertTrue(router.tryAcquire("qwen-plus"));
+            router.onResult("qwen-plus", System.nanoTime(), true);
+        }
+        router.onFirstChunk("qwen-plus", System.nanoTime() - 5_000_000L);
+        assertTrue(router.tryAcquire("qwen-plus"));
+        assertFalse(Double.isNaN(router.getFirstChunkPercentileMs("qwen-plus", 0.5, 1)));
+        assertNull(meterRegistry.find("soulecho.upstream.breaker.state").tag("upstream", "llm:qwen-plus").gauge());
+    }
+}
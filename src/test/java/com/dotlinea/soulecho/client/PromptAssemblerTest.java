@@ -0,0 +1,79 @@
+package com.dotlinea.soulecho.client;
+
+import com.alibaba.dashscope.common.Message;
+import com.alibaba.dashscope.common.Role;
+import com.dotlinea.soulecho.entity.Character;
+import com.dotlinea.soulecho.repository.CharacterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PromptAssembler 单元测试
+ * <p>
+ * 验证消息顺序（角色设定、固定知识、历史、本轮检索、用户输入）、前缀实例复用与上下文缓存参数解析
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class PromptAssemblerTest {
+
+    private static final String PERSONA = "你是哈利·波特";
+
+    private final CharacterRepository characterRepository = Mockito.mock(CharacterRepository.class);
+
+    private PromptAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        assembler = new PromptAssembler(characterRepository);
+        ReflectionTestUtils.setField(assembler, "pinDescription", true);
+        ReflectionTestUtils.setField(assembler, "prefixCacheSize", 16);
+        ReflectionTestUtils.setField(assembler, "prefixCacheTtlSeconds", 60L);
+
+        Character character = new Character();
+        character.setName("哈利");
+        character.setDescription("霍格沃茨格兰芬多学院的学生");
+        Mockito.when(characterRepository.findByName("哈利")).thenReturn(character);
+    }
+
+    @Test
+    void testStablePrefixLayout() {
+        List<Message> messages = assembler.assemble(PERSONA, "哈利", List.of("你好", "你好呀"),
+            List.of("魁地奇是巫师的运动"), "你会飞吗");
+
+        assertEquals(6, messages.size());
+        assertEquals(PERSONA, messages.get(0).getContent());
+        assertTrue(messages.get(1).getContent().contains("格兰芬多"));
+        assertEquals(Role.USER.getValue(), messages.get(2).getRole());
+        assertEquals(Role.ASSISTANT.getValue(), messages.get(3).getRole());
+        assertEquals(Role.SYSTEM.getValue(), messages.get(4).getRole());
+        assertTrue(messages.get(4).getContent().contains("魁地奇"));
+        assertEquals("你会飞吗", messages.get(5).getContent());
+    }
+
+    @Test
+    void testPrefixMessagesAreReused() {
+        List<Message> first = assembler.assemble(PERSONA, "哈利", List.of(), null, "你好");
+        List<Message> second = assembler.assemble(PERSONA, "哈利", List.of("你好", "你好呀"), null, "你是谁");
+
+        assertSame(first.get(0), second.get(0));
+        assertSame(first.get(1), second.get(1));
+        Mockito.verify(characterRepository, Mockito.times(1)).findByName("哈利");
+    }
+
+    @Test
+    void testParseContextCacheParameters() {
+        assertEquals(Map.of("enable_cache", true, "cache_scope", "persona"),
+            PromptAssembler.parseParameters(" enable_cache=true, cache_scope = persona ,invalid"));
+        assertTrue(PromptAssembler.parseParameters("").isEmpty());
+    }
+}
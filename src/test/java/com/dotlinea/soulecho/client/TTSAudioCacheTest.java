@@ -0,0 +1,100 @@
+package com.dotlinea.soulecho.client;
+
+import com.dotlinea.soulecho.constants.AudioFormatEnum;
+import com.dotlinea.soulecho.constants.FallbackReplyConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TTSAudioCache 单元测试
+ * <p>
+ * 验证登记短句直接准入、其余短句按未命中次数准入，以及磁盘层超过容量时按 LRU 删除文件
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class TTSAudioCacheTest {
+
+    private static final VoiceProfile PROFILE = new VoiceProfile("xiaoyun", 0, 0, AudioFormatEnum.WAV, 16000);
+
+    @TempDir
+    Path diskDir;
+
+    private TTSAudioCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TTSAudioCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxMemoryBytes", 1024L);
+        ReflectionTestUtils.setField(cache, "maxTextLength", 64);
+        ReflectionTestUtils.setField(cache, "diskPath", diskDir.toString());
+        ReflectionTestUtils.setField(cache, "diskMaxBytes", 20L);
+        ReflectionTestUtils.setField(cache, "admitAfterMisses", 2);
+        ReflectionTestUtils.setField(cache, "admissionWindow", 16);
+        ReflectionTestUtils.setField(cache, "warmupPhrases", "你好呀");
+        cache.init();
+    }
+
+    @Test
+    void testRegisteredPhrasesAreAdmitted() {
+        assertTrue(cache.shouldAdmit(PROFILE, FallbackReplyConstants.LLM_API_ERROR));
+        assertTrue(cache.shouldAdmit(PROFILE, "你好呀"));
+
+        cache.put(PROFILE, "你好呀", new byte[4]);
+        assertNotNull(cache.get(PROFILE, "你好呀"));
+    }
+
+    @Test
+    void testOtherSentencesAreAdmittedAfterRepeatedMisses() {
+        assertNull(cache.get(PROFILE, "今天天气不错"));
+        cache.put(PROFILE, "今天天气不错", new byte[4]);
+        assertFalse(cache.contains(PROFILE, "今天天气不错"));
+
+        assertNull(cache.get(PROFILE, "今天天气不错"));
+        assertTrue(cache.shouldAdmit(PROFILE, "今天天气不错"));
+        cache.put(PROFILE, "今天天气不错", new byte[4]);
+        assertTrue(cache.contains(PROFILE, "今天天气不错"));
+    }
+
+    @Test
+    void testDiskTierEvictsLeastRecentlyUsed() throws Exception {
+        cache.put(PROFILE, "你好呀", new byte[8]);
+        cache.put(PROFILE, FallbackReplyConstants.LLM_API_ERROR, new byte[8]);
+        // 读取第一条，使其成为最近使用
+        ReflectionTestUtils.invokeMethod(cache, "readFromDisk", keyOf("你好呀"));
+        cache.put(PROFILE, FallbackReplyConstants.LLM_UNKNOWN_ERROR, new byte[8]);
+
+        assertEquals(16, cache.getDiskBytes());
+        assertTrue(Files.exists(diskDir.resolve(keyOf("你好呀") + ".audio")));
+        assertFalse(Files.exists(diskDir.resolve(keyOf(FallbackReplyConstants.LLM_API_ERROR) + ".audio")));
+
+        // 重启后从文件重建索引
+        TTSAudioCache restarted = new TTSAudioCache();
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.setField(restarted, "diskPath", diskDir.toString());
+        ReflectionTestUtils.setField(restarted, "diskMaxBytes", 20L);
+        ReflectionTestUtils.setField(restarted, "maxTextLength", 64);
+        ReflectionTestUtils.setField(restarted, "warmupPhrases", "");
+        restarted.init();
+        assertEquals(16, restarted.getDiskBytes());
+        assertTrue(restarted.contains(PROFILE, "你好呀"));
+        try (Stream<Path> files = Files.list(diskDir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    private static String keyOf(String text) {
+        return ReflectionTestUtils.invokeMethod(TTSAudioCache.class, "keyOf", PROFILE, text);
+    }
+}
@@ -0,0 +1,110 @@
+package com.dotlinea.soulecho.client.impl;
+
+import io.reactivex.Flowable;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LLMClientImpl 对冲竞速单元测试
+ * <p>
+ * 以 PublishProcessor 代替上游流式请求、TestScheduler 控制对冲延迟，验证只有数据决定胜负、
+ * 胜出一路的错误会传递、原请求提前失败时等待已发起的对冲请求
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class LLMClientImplTest {
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private final PublishProcessor<String> primary = PublishProcessor.create();
+    private final PublishProcessor<String> hedge = PublishProcessor.create();
+
+    @Test
+    void testPrimaryFirstChunkCancelsPendingHedge() {
+        TestSubscriber<String> subscriber = race().test();
+
+        primary.onNext("你好");
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        primary.onComplete();
+
+        assertFalse(hedge.hasSubscribers());
+        subscriber.assertValues("你好").assertComplete();
+    }
+
+    @Test
+    void testHedgeWinsThenFailsPropagatesError() {
+        TestSubscriber<String> subscriber = race().test();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        hedge.onNext("你好");
+        assertFalse(primary.hasSubscribers());
+
+        IOException failure = new IOException("connection reset");
+        hedge.onError(failure);
+
+        subscriber.assertValues("你好").assertError(failure);
+    }
+
+    @Test
+    void testPrimaryFailsEarlyWaitsForRunningHedge() {
+        TestSubscriber<String> subscriber = race().test();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        primary.onError(new IOException("timeout"));
+        subscriber.assertNoErrors().assertNotComplete();
+
+        hedge.onNext("你好");
+        hedge.onComplete();
+
+        subscriber.assertValues("你好").assertComplete();
+    }
+
+    @Test
+    void testPrimaryFailsBeforeHedgeStartsPropagatesImmediately() {
+        TestSubscriber<String> subscriber = race().test();
+
+        IOException failure = new IOException("bad gateway");
+        primary.onError(failure);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertFalse(hedge.hasSubscribers());
+        subscriber.assertNoValues().assertError(failure);
+    }
+
+    @Test
+    void testHedgeFailingBeforeOutputIsIgnored() {
+        TestSubscriber<String> subscriber = race().test();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        hedge.onError(new IOException("rate limited"));
+        primary.onNext("你好");
+        primary.onComplete();
+
+        subscriber.assertValues("你好").assertComplete();
+    }
+
+    @Test
+    void testBothFailPropagatesPrimaryError() {
+        TestSubscriber<String> subscriber = race().test();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        IOException failure = new IOException("timeout");
+        primary.onError(failure);
+        hedge.onError(new IOException("rate limited"));
+
+        subscriber.assertError(failure);
+    }
+
+    private Flowable<String> race() {
+        return LLMClientImpl.raceWithHedge(primary, hedge, 100, scheduler);
+    }
+}
@@ -0,0 +1,159 @@
+package com.dotlinea.soulecho.client.token;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * NlsTokenService 单元测试
+ * <p>
+ * 使用本地 HTTP 服务模拟 Token 端点，离线验证 Token 解析、单飞刷新、提前刷新，以及强制刷新不复用普通刷新
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class NlsTokenServiceTest {
+
+    private HttpServer server;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    /**
+     * 模拟端点返回的 Token 有效期（秒）
+     */
+    private volatile long tokenLifetimeSeconds = 3600;
+
+    private NlsTokenService tokenService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/token", exchange -> {
+            int n = requestCount.incrementAndGet();
+            try {
+                // 模拟网络耗时，放大并发刷新的竞争窗口
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long expireTime = System.currentTimeMillis() / 1000 + tokenLifetimeSeconds;
+            byte[] body = ("{\"Token\":{\"Id\":\"token-" + n + "\",\"ExpireTime\":" + expireTime + "}}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        String endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/token";
+        NlsTokenFetcher fetcher = new HttpNlsTokenFetcher(new OkHttpClient(), new ObjectMapper(), endpoint, "test-key");
+        tokenService = new NlsTokenService(fetcher, null);
+        ReflectionTestUtils.setField(tokenService, "refreshMarginSeconds", 600L);
+        ReflectionTestUtils.setField(tokenService, "redisEnabled", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenService.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void testFetchFromLocalEndpoint() {
+        String token = tokenService.getValidToken();
+
+        assertEquals("token-1", token);
+        assertTrue(tokenService.isTokenValid());
+        assertTrue(tokenService.getSecondsUntilExpiry() > 3500);
+        assertEquals(1, tokenService.getFetchCount());
+
+        // 有效期内再次获取不会请求端点
+        assertEquals("token-1", tokenService.getValidToken());
+        assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    void testConcurrentCallersShareSingleRefresh() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return tokenService.getValidToken();
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("token-1", result.get());
+        }
+        pool.shutdown();
+
+        // 16 个并发调用只触发一次端点请求
+        assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    void testRefreshInBackgroundWithinMargin() throws Exception {
+        // 端点返回的 Token 有效期小于提前刷新窗口，第一次获取后即进入刷新窗口
+        tokenLifetimeSeconds = 300;
+        assertEquals("token-1", tokenService.getValidToken());
+
+        // 未过期时立即返回旧 Token，同时触发后台刷新
+        assertEquals("token-1", tokenService.getValidToken());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (requestCount.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    void testForceRefreshDoesNotJoinOrdinaryRefresh() {
+        tokenLifetimeSeconds = 300;
+        assertEquals("token-1", tokenService.getValidToken());
+
+        // 进入刷新窗口，触发后台普通刷新；强制刷新在其之后再换新一次
+        tokenService.getValidToken();
+        tokenService.forceRefresh();
+
+        assertEquals(3, requestCount.get());
+        assertEquals("token-3", tokenService.getValidToken());
+    }
+
+    @Test
+    void testEndpointErrorIsCounted() {
+        server.removeContext("/token");
+        server.createContext("/token", exchange -> {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+        });
+
+        assertThrows(RuntimeException.class, () -> tokenService.getValidToken());
+        assertEquals(1, tokenService.getFetchFailureCount());
+    }
+}
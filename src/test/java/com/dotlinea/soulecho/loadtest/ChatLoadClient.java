@@ -0,0 +1,270 @@
+package com.dotlinea.soulecho.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 单个压测会话
+ * <p>
+ * 使用 JDK WebSocket 客户端连接 /chat，按顺序执行若干轮对话，记录每轮的：
+ * <ul>
+ * <li>transcription：语音结束（最后一个音频包发出）到收到 user-transcription 回显，包含服务端静默检测时长</li>
+ * <li>first_text：请求发出（语音轮次为语音结束）到首个文本块</li>
+ * <li>first_audio：请求发出到首个音频包</li>
+ * <li>turn_total：请求发出到最后一个文本块或音频包</li>
+ * </ul>
+ * 文本块为 ai-chunk 帧，轮次结束以 ai-end 帧为准（未收到时以静默期判定）。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+final class ChatLoadClient implements WebSocket.Listener {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final LoadTestConfig config;
+    private final LatencyStats stats;
+    private final int clientIndex;
+
+    private WebSocket webSocket;
+    private final StringBuilder textFragment = new StringBuilder();
+
+    private volatile Turn currentTurn;
+
+    ChatLoadClient(LoadTestConfig config, LatencyStats stats, int clientIndex) {
+        this.config = config;
+        this.stats = stats;
+        this.clientIndex = clientIndex;
+    }
+
+    /**
+     * 建立连接并执行全部轮次
+     *
+     * @param httpClient 共享的 HTTP 客户端
+     */
+    void run(HttpClient httpClient) {
+        try {
+            webSocket = httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofMillis(config.connectTimeoutMs()))
+                .buildAsync(URI.create(config.url()), this)
+                .get(config.connectTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            stats.recordError("connect");
+            return;
+        }
+
+        try {
+            if (config.ttsEnabled()) {
+                sendJson(Map.of("ttsEnabled", true));
+            }
+            for (int i = 0; i < config.turnsPerSession(); i++) {
+                boolean voice = config.isVoiceTurn(clientIndex + i);
+                runTurn(voice, i);
+                Thread.sleep(config.thinkTimeMs());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+    }
+
+    private void runTurn(boolean voice, int turnIndex) throws InterruptedException {
+        Turn turn = new Turn();
+        stats.recordTurn();
+        try {
+            if (voice) {
+                byte[] pcm = config.pcmSample(clientIndex + turnIndex);
+                int chunkBytes = 16000 * 2 * config.audioChunkMs() / 1000;
+                for (int offset = 0; offset < pcm.length; offset += chunkBytes) {
+                    int length = Math.min(chunkBytes, pcm.length - offset);
+                    webSocket.sendBinary(ByteBuffer.wrap(pcm, offset, length), true).join();
+                    Thread.sleep(config.audioChunkMs());
+                }
+            } else {
+                currentTurn = turn;
+                turn.startNanos = System.nanoTime();
+                sendJson(Map.of("message", config.textMessage(clientIndex + turnIndex), "ttsEnabled", config.ttsEnabled()));
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            stats.recordError("send");
+            return;
+        }
+        if (voice) {
+            // 以最后一个音频包发出的时刻作为语音结束
+            turn.startNanos = System.nanoTime();
+            currentTurn = turn;
+        }
+
+        String failure = awaitTurn(turn);
+        currentTurn = null;
+        if (failure != null) {
+            stats.recordError(failure);
+        }
+        if (voice) {
+            stats.record("transcription", turn.millis(turn.transcriptionNanos));
+        }
+        stats.record("first_text", turn.millis(turn.firstTextNanos));
+        stats.record("first_audio", turn.millis(turn.firstAudioNanos));
+        if (failure == null) {
+            stats.record("turn_total", turn.millis(turn.lastContentNanos));
+        }
+    }
+
+    /**
+     * 等待轮次结束
+     *
+     * @return 失败原因，成功返回 null
+     */
+    private String awaitTurn(Turn turn) throws InterruptedException {
+        long deadline = turn.startNanos + TimeUnit.MILLISECONDS.toNanos(config.turnTimeoutMs());
+        long quietNanos = TimeUnit.MILLISECONDS.toNanos(config.quietMs());
+        while (true) {
+            try {
+                turn.done.get(50, TimeUnit.MILLISECONDS);
+                return turn.error;
+            } catch (TimeoutException ignored) {
+                // 继续检查静默期与超时
+            } catch (ExecutionException e) {
+                return "client";
+            }
+            long now = System.nanoTime();
+            if (turn.lastContentNanos > 0 && now - turn.lastContentNanos > quietNanos) {
+                return turn.error;
+            }
+            if (now > deadline) {
+                return turn.lastContentNanos > 0 ? "timeout-partial" : "timeout";
+            }
+        }
+    }
+
+    private void sendJson(Map<String, Object> message) {
+        try {
+            webSocket.sendText(OBJECT_MAPPER.writeValueAsString(message), true).join();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        textFragment.append(data);
+        if (last) {
+            onTextFrame(textFragment.toString());
+            textFragment.setLength(0);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+        Turn turn = currentTurn;
+        if (turn != null) {
+            long now = System.nanoTime();
+            if (turn.firstAudioNanos == 0) {
+                turn.firstAudioNanos = now;
+            }
+            turn.lastContentNanos = now;
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        Turn turn = currentTurn;
+        if (turn != null) {
+            turn.error = "transport";
+            turn.done.complete(null);
+        } else {
+            stats.recordError("transport");
+        }
+    }
+
+    private void onTextFrame(String text) {
+        Turn turn = currentTurn;
+        if (turn == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        String type = messageType(text);
+        if (type == null) {
+            return;
+        }
+        switch (type) {
+            case "ai-chunk" -> {
+                if (turn.firstTextNanos == 0) {
+                    turn.firstTextNanos = now;
+                }
+                turn.lastContentNanos = now;
+            }
+            case "user-transcription" -> {
+                if (turn.transcriptionNanos == 0) {
+                    turn.transcriptionNanos = now;
+                }
+            }
+            case "error" -> {
+                turn.error = "error-frame";
+                if (turn.lastContentNanos == 0) {
+                    turn.done.complete(null);
+                }
+            }
+            case "busy" -> {
+                turn.error = "busy";
+                turn.done.complete(null);
+            }
+            case "ai-end" -> turn.done.complete(null);
+            default -> {
+                // 其他控制帧不计入延迟
+            }
+        }
+    }
+
+    private static String messageType(String text) {
+        if (text.isEmpty() || text.charAt(0) != '{') {
+            return null;
+        }
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(text);
+            return node.hasNonNull("type") ? node.get("type").asText() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 单轮对话的观测时间点（System.nanoTime，0 表示未观测到）
+     */
+    private static final class Turn {
+
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private volatile long startNanos;
+        private volatile long transcriptionNanos;
+        private volatile long firstTextNanos;
+        private volatile long firstAudioNanos;
+        private volatile long lastContentNanos;
+        private volatile String error;
+
+        private long millis(long eventNanos) {
+            return eventNanos == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(eventNanos - startNanos);
+        }
+    }
+}
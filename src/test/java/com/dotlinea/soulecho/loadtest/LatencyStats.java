@@ -0,0 +1,92 @@
+package com.dotlinea.soulecho.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 压测延迟统计
+ * <p>
+ * 按指标名收集毫秒级样本，结束后计算 P50/P95/P99 并输出文本报表。线程安全。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+final class LatencyStats {
+
+    private final Map<String, List<Long>> samples = new LinkedHashMap<>();
+
+    private final AtomicLong turns = new AtomicLong();
+    private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+
+    /**
+     * 记录一个样本
+     *
+     * @param metric 指标名
+     * @param millis 耗时（毫秒），小于 0 表示未观测到，忽略
+     */
+    synchronized void record(String metric, long millis) {
+        if (millis >= 0) {
+            samples.computeIfAbsent(metric, k -> new ArrayList<>()).add(millis);
+        }
+    }
+
+    void recordTurn() {
+        turns.incrementAndGet();
+    }
+
+    synchronized void recordError(String reason) {
+        errors.computeIfAbsent(reason, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    synchronized boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * 计算百分位（最近秩法）
+     *
+     * @param sorted 升序样本
+     * @param percentile 百分位（0-100）
+     * @return 百分位值
+     */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /**
+     * 生成文本报表
+     *
+     * @param elapsedMillis 压测总时长
+     * @return 报表
+     */
+    synchronized String report(long elapsedMillis) {
+        StringBuilder sb = new StringBuilder();
+        long totalErrors = errors.values().stream().mapToLong(AtomicLong::get).sum();
+        long totalTurns = turns.get();
+        sb.append(String.format("轮次: %d, 失败: %d (%.2f%%), 耗时: %.1f s, 吞吐: %.2f 轮/s%n",
+            totalTurns, totalErrors, totalTurns == 0 ? 0.0 : totalErrors * 100.0 / totalTurns,
+            elapsedMillis / 1000.0, elapsedMillis == 0 ? 0.0 : totalTurns * 1000.0 / elapsedMillis));
+        sb.append(String.format("%-22s %8s %8s %8s %8s %8s%n", "metric (ms)", "count", "p50", "p95", "p99", "max"));
+        samples.forEach((metric, values) -> {
+            long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            sb.append(String.format("%-22s %8d %8d %8d %8d %8d%n", metric, sorted.length,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), sorted[sorted.length - 1]));
+        });
+        if (!errors.isEmpty()) {
+            sb.append("错误分布:").append(System.lineSeparator());
+            errors.forEach((reason, count) -> sb.append(String.format("  %-30s %d%n", reason, count.get())));
+        }
+        return sb.toString();
+    }
+}
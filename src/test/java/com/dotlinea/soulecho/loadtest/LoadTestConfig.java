@@ -0,0 +1,114 @@
+package com.dotlinea.soulecho.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 压测参数
+ * <p>
+ * 全部通过系统属性传入（-Dloadtest.xxx），未提供时使用默认值：
+ * <ul>
+ * <li>loadtest.url：/chat 地址，默认 ws://localhost:8080/chat</li>
+ * <li>loadtest.sessions：并发会话数，默认 50</li>
+ * <li>loadtest.turns：每个会话的轮次数，默认 5</li>
+ * <li>loadtest.mode：text / voice / mixed，默认 text</li>
+ * <li>loadtest.tts：是否开启语音合成，默认 true</li>
+ * <li>loadtest.pcm-files：逗号分隔的 16kHz 16bit 单声道 PCM 文件，未提供时生成 1.5 秒低噪声</li>
+ * <li>loadtest.messages：以 | 分隔的文本消息</li>
+ * <li>loadtest.ramp-up-ms：所有会话在该时间内均匀建立，默认 5000</li>
+ * <li>loadtest.think-time-ms：轮次间隔，默认 500</li>
+ * <li>loadtest.quiet-ms：未收到 ai-end 帧时，最后一帧后静默多久视为轮次结束，默认 2000</li>
+ * <li>loadtest.turn-timeout-ms：单轮超时，默认 30000</li>
+ * </ul>
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+record LoadTestConfig(
+        String url,
+        int sessions,
+        int turnsPerSession,
+        String mode,
+        boolean ttsEnabled,
+        List<byte[]> pcmSamples,
+        List<String> messages,
+        long rampUpMs,
+        long thinkTimeMs,
+        long quietMs,
+        long turnTimeoutMs,
+        long connectTimeoutMs,
+        int audioChunkMs) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+            System.getProperty("loadtest.url", "ws://localhost:8080/chat"),
+            Integer.getInteger("loadtest.sessions", 50),
+            Integer.getInteger("loadtest.turns", 5),
+            System.getProperty("loadtest.mode", "text"),
+            Boolean.parseBoolean(System.getProperty("loadtest.tts", "true")),
+            loadPcmSamples(System.getProperty("loadtest.pcm-files", "")),
+            Arrays.asList(System.getProperty("loadtest.messages", "你好|今天心情不错|给我讲个小故事吧").split("\\|")),
+            Long.getLong("loadtest.ramp-up-ms", 5000),
+            Long.getLong("loadtest.think-time-ms", 500),
+            Long.getLong("loadtest.quiet-ms", 2000),
+            Long.getLong("loadtest.turn-timeout-ms", 30000),
+            Long.getLong("loadtest.connect-timeout-ms", 10000),
+            Integer.getInteger("loadtest.audio-chunk-ms", 100));
+    }
+
+    boolean isVoiceTurn(int index) {
+        return switch (mode) {
+            case "voice" -> true;
+            case "mixed" -> index % 2 == 0;
+            default -> false;
+        };
+    }
+
+    byte[] pcmSample(int index) {
+        return pcmSamples.get(Math.floorMod(index, pcmSamples.size()));
+    }
+
+    String textMessage(int index) {
+        return messages.get(Math.floorMod(index, messages.size()));
+    }
+
+    private static List<byte[]> loadPcmSamples(String files) {
+        List<byte[]> samples = new ArrayList<>();
+        for (String file : files.split(",")) {
+            if (file.isBlank()) {
+                continue;
+            }
+            try {
+                samples.add(Files.readAllBytes(Path.of(file.trim())));
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取 PCM 文件失败: " + file, e);
+            }
+        }
+        if (samples.isEmpty()) {
+            samples.add(generateNoise(1500));
+        }
+        return samples;
+    }
+
+    /**
+     * 生成低幅度噪声 PCM（16kHz 16bit 单声道，小端）
+     */
+    private static byte[] generateNoise(int millis) {
+        Random random = new Random(42);
+        byte[] pcm = new byte[16000 * 2 * millis / 1000];
+        for (int i = 0; i < pcm.length; i += 2) {
+            short sample = (short) (random.nextGaussian() * 300);
+            pcm[i] = (byte) sample;
+            pcm[i + 1] = (byte) (sample >> 8);
+        }
+        return pcm;
+    }
+}
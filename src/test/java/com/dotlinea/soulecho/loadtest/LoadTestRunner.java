@@ -0,0 +1,64 @@
+package com.dotlinea.soulecho.loadtest;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /chat 端到端压测入口
+ * <p>
+ * 打开 N 个并发 WebSocket 会话，按配置回放 PCM 语音与文本消息，统计各阶段延迟的 P50/P95/P99 与错误率。
+ * 建议配合本地替身服务运行，使结果只反映本服务的并发表现：
+ * </p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.dotlinea.soulecho.standin.StandinServer
+ * SPRING_PROFILES_ACTIVE=standin mvn spring-boot:run
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.dotlinea.soulecho.loadtest.LoadTestRunner \
+ *     -Dloadtest.sessions=200 -Dloadtest.mode=mixed
+ * </pre>
+ * <p>
+ * 参数见 {@link LoadTestConfig}。存在失败轮次时进程以非零状态退出，便于在流水线中判定回归。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LatencyStats stats = new LatencyStats();
+        ExecutorService sessionThreads = Executors.newFixedThreadPool(config.sessions());
+        HttpClient httpClient = HttpClient.newHttpClient();
+
+        System.out.printf("压测开始: %s, 会话 %d, 每会话 %d 轮, 模式 %s, TTS %s%n",
+            config.url(), config.sessions(), config.turnsPerSession(), config.mode(), config.ttsEnabled());
+
+        long start = System.currentTimeMillis();
+        long rampStep = config.sessions() > 1 ? config.rampUpMs() / (config.sessions() - 1) : 0;
+        for (int i = 0; i < config.sessions(); i++) {
+            int clientIndex = i;
+            sessionThreads.execute(() -> new ChatLoadClient(config, stats, clientIndex).run(httpClient));
+            Thread.sleep(rampStep);
+        }
+        sessionThreads.shutdown();
+        long timeoutMs = config.rampUpMs()
+            + (long) config.turnsPerSession() * (config.turnTimeoutMs() + config.thinkTimeMs()) + 60_000;
+        if (!sessionThreads.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+            sessionThreads.shutdownNow();
+            stats.recordError("runner-timeout");
+        }
+
+        System.out.println(stats.report(System.currentTimeMillis() - start));
+        if (stats.hasErrors()) {
+            System.exit(1);
+        }
+    }
+}
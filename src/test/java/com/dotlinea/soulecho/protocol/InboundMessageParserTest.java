@@ -0,0 +1,81 @@
+package com.dotlinea.soulecho.protocol;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InboundMessageParser 单元测试
+ * <p>
+ * 验证单次流式解析与原 readTree 实现的字段取值规则一致
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class InboundMessageParserTest {
+
+    private InboundMessageParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new InboundMessageParser(new ObjectMapper());
+    }
+
+    @Test
+    void testPing() {
+        assertSame(InboundMessage.Ping.INSTANCE, parser.parse("{\"type\":\"ping\"}"));
+        assertSame(InboundMessage.Ping.INSTANCE, parser.parse("  {\"type\":\"ping\",\"extra\":{\"a\":[1,2]}}"));
+    }
+
+    @Test
+    void testChatRequestWithMessageAndTts() {
+        InboundMessage message = parser.parse("{\"message\":\"你好\",\"ttsEnabled\":true}");
+
+        InboundMessage.ChatRequest request = assertInstanceOf(InboundMessage.ChatRequest.class, message);
+        assertEquals("你好", request.text());
+        assertTrue(request.hasTtsField());
+        assertEquals(Boolean.TRUE, request.ttsEnabled());
+    }
+
+    @Test
+    void testContentFallbackWhenMessageIsNotText() {
+        // 防止空对象 {} 作为 message：此时读取 content
+        InboundMessage.ChatRequest request = assertInstanceOf(InboundMessage.ChatRequest.class,
+            parser.parse("{\"message\":{},\"content\":\"内容\"}"));
+
+        assertEquals("内容", request.text());
+        assertFalse(request.hasTtsField());
+    }
+
+    @Test
+    void testPureTtsUpdate() {
+        InboundMessage.ChatRequest request = assertInstanceOf(InboundMessage.ChatRequest.class,
+            parser.parse("{\"ttsEnabled\":\"true\"}"));
+
+        assertNull(request.text());
+        assertEquals(Boolean.TRUE, request.ttsEnabled());
+        assertEquals(Boolean.FALSE,
+            ((InboundMessage.ChatRequest) parser.parse("{\"ttsEnabled\":0}")).ttsEnabled());
+    }
+
+    @Test
+    void testPlainTextSkipsJson() {
+        InboundMessage.PlainText text = assertInstanceOf(InboundMessage.PlainText.class, parser.parse("你好呀"));
+        assertEquals("你好呀", text.text());
+
+        // 非对象 JSON 也按纯文本处理
+        assertInstanceOf(InboundMessage.PlainText.class, parser.parse("[1,2,3]"));
+    }
+
+    @Test
+    void testMalformedJsonFallsBackToPlainText() {
+        String payload = "{不是 JSON";
+
+        InboundMessage.PlainText text = assertInstanceOf(InboundMessage.PlainText.class, parser.parse(payload));
+        assertEquals(payload, text.text());
+    }
+}
@@ -0,0 +1,78 @@
+package com.dotlinea.soulecho.protocol;
+
+import com.dotlinea.soulecho.constants.ErrorMessageConstants;
+import com.dotlinea.soulecho.factory.WebSocketMessageFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OutboundMessageEncoder 单元测试
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class OutboundMessageEncoderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private OutboundMessageEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new OutboundMessageEncoder(objectMapper, new WebSocketMessageFactory());
+    }
+
+    @Test
+    void testAiChunkEscapesDelta() throws Exception {
+        // 文本块中的引号、换行与控制字符必须被转义，不能破坏帧结构
+        String delta = "他说：\"你好\"\n},\"type\":\"error";
+
+        JsonNode node = objectMapper.readTree(encoder.aiChunk(7, delta).getPayload());
+
+        assertEquals("ai-chunk", node.get("type").asText());
+        assertEquals(7, node.get("seq").asLong());
+        assertEquals(delta, node.get("delta").asText());
+        assertEquals(3, node.size());
+    }
+
+    @Test
+    void testAiEnd() throws Exception {
+        JsonNode node = objectMapper.readTree(encoder.aiEnd(12).getPayload());
+
+        assertEquals("ai-end", node.get("type").asText());
+        assertEquals(12, node.get("seq").asLong());
+    }
+
+    @Test
+    void testPongIsShared() {
+        assertSame(encoder.pong(), encoder.pong());
+        assertEquals("{\"type\":\"pong\"}", encoder.pong().getPayload());
+    }
+
+    @Test
+    void testConstantErrorIsPreEncoded() throws Exception {
+        TextMessage first = encoder.error(ErrorMessageConstants.SYSTEM_BUSY, "session-1");
+        TextMessage second = encoder.error(ErrorMessageConstants.SYSTEM_BUSY, "session-2");
+
+        assertSame(first, second);
+        JsonNode node = objectMapper.readTree(first.getPayload());
+        assertEquals("error", node.get("type").asText());
+        assertEquals(ErrorMessageConstants.SYSTEM_BUSY, node.get("content").asText());
+        assertFalse(node.has("sessionId"));
+    }
+
+    @Test
+    void testDynamicErrorKeepsSessionInfo() throws Exception {
+        JsonNode node = objectMapper.readTree(encoder.errorWithCode("语音合成失败", "TTS_BROKEN", "session-1").getPayload());
+
+        assertEquals("error", node.get("type").asText());
+        assertEquals("TTS_BROKEN", node.get("code").asText());
+        assertEquals("session-1", node.get("sessionId").asText());
+        assertTrue(node.has("timestamp"));
+    }
+}
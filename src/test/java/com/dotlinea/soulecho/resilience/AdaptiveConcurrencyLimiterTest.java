@@ -0,0 +1,76 @@
+package com.dotlinea.soulecho.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdaptiveConcurrencyLimiter 单元测试
+ * <p>
+ * 验证达到上限后排队超时拒绝、失败时乘性减、满载成功时加性增、未调用上游的许可不影响上限
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void testRejectsWhenLimitReached() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("llm", 2, 1, 10, 0.5);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire(0);
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire(0);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertTrue(limiter.isSaturated());
+        assertNull(limiter.acquire(20));
+
+        first.release(false);
+        assertNotNull(limiter.acquire(0));
+    }
+
+    @Test
+    void testMultiplicativeDecreaseOnFailure() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("tts", 8, 2, 10, 0.5);
+
+        limiter.acquire(0).release(true);
+        assertEquals(4, limiter.getLimit());
+        limiter.acquire(0).release(true);
+        limiter.acquire(0).release(true);
+        assertEquals(2, limiter.getLimit());
+
+        // 重复释放不重复计数
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(0);
+        permit.release(false);
+        permit.release(false);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testAdditiveIncreaseOnlyWhenLoaded() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("asr", 2, 1, 3, 0.5);
+
+        // 并发用满时成功：2 + 1/2 + 1/2.5 ≈ 2.9，再一次超过 3 后封顶
+        for (int i = 0; i < 3; i++) {
+            AdaptiveConcurrencyLimiter.Permit a = limiter.acquire(0);
+            AdaptiveConcurrencyLimiter.Permit b = limiter.acquire(0);
+            a.release(false);
+            b.release(false);
+        }
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void testCancelDoesNotAdjustLimit() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("llm", 4, 1, 10, 0.5);
+
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire(0);
+        permit.cancel();
+        permit.release(true);
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
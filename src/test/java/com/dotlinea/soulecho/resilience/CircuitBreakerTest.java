@@ -0,0 +1,117 @@
+package com.dotlinea.soulecho.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CircuitBreaker 单元测试
+ * <p>
+ * 使用可控时钟验证失败率与慢调用率触发熔断、熔断期间快速拒绝、半开探测成功恢复与失败重新熔断，
+ * 以及未使用的探测许可可以归还
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<CircuitBreaker.State> transitions = new CopyOnWriteArrayList<>();
+
+    private final CircuitBreaker breaker = new CircuitBreaker("tts", 4, 4, 0.5, 0.75, 100, 1000, 2,
+        transitions::add, clock::get);
+
+    @Test
+    void testOpensOnFailureRateAndFailsFast() {
+        call(false, FAST);
+        call(true, FAST);
+        call(false, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // 第 4 次调用达到最少调用数，失败率 2/4 达到阈值
+        call(true, FAST);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(List.of(CircuitBreaker.State.OPEN), transitions);
+    }
+
+    @Test
+    void testOpensOnSlowCallRate() {
+        call(false, SLOW);
+        call(false, SLOW);
+        call(false, FAST);
+        call(false, SLOW);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenProbesCloseBreaker() {
+        tripOpen();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertFalse(breaker.isOpen());
+
+        // 半开只放行 2 次探测
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onResult(FAST, false);
+        breaker.onResult(FAST, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // 恢复后窗口重新统计，单次失败不会再次熔断
+        call(true, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenFailureReopens() {
+        tripOpen();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        call(true, FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN, CircuitBreaker.State.OPEN),
+            transitions);
+    }
+
+    @Test
+    void testReleasedProbePermissionIsReusable() {
+        tripOpen();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        // 未调用上游，归还探测名额而不计入结果
+        breaker.releasePermission();
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    private void tripOpen() {
+        for (int i = 0; i < 4; i++) {
+            call(true, FAST);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(boolean failed, long durationNanos) {
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onResult(durationNanos, failed);
+    }
+}
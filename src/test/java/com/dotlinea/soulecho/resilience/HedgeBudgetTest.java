@@ -0,0 +1,44 @@
+package com.dotlinea.soulecho.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HedgeBudget 单元测试
+ * <p>
+ * 验证对冲次数不超过普通请求的配置比例，且连续对冲不超过突发上限
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class HedgeBudgetTest {
+
+    @Test
+    void testHedgeRateIsCapped() {
+        HedgeBudget budget = new HedgeBudget(0.25, 5);
+        int hedges = 0;
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+            if (budget.tryAcquire()) {
+                hedges++;
+            }
+        }
+
+        assertEquals(25, hedges);
+    }
+
+    @Test
+    void testBurstIsBounded() {
+        HedgeBudget budget = new HedgeBudget(0.5, 2);
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+        }
+
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+}
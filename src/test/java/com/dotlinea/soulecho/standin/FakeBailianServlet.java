@@ -0,0 +1,73 @@
+package com.dotlinea.soulecho.standin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 百炼知识库检索接口替身
+ * <p>
+ * 响应 {@code /{WorkspaceId}/index/retrieve}，在配置的延迟后返回固定的检索片段，
+ * 响应结构与 RetrieveResponseBody 的字段名一致。其他路径返回 404。
+ * </p>
+ * <ul>
+ * <li>standin.retrieval.delay-ms：检索延迟</li>
+ * <li>standin.retrieval.nodes：返回的片段，以 | 分隔</li>
+ * </ul>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class FakeBailianServlet extends HttpServlet {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final long delayMs;
+    private final List<String> nodes;
+
+    FakeBailianServlet(StandinConfig config) {
+        this.delayMs = config.getLong("standin.retrieval.delay-ms", 80);
+        this.nodes = List.of(config.getString("standin.retrieval.nodes", "这是一段来自本地替身知识库的参考资料。")
+            .split("\\|"));
+    }
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!request.getRequestURI().endsWith("/index/retrieve")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        FakeDashScopeServlet.sleep(delayMs);
+
+        List<Map<String, Object>> nodeList = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("Score", 0.9 - i * 0.1);
+            node.put("Text", nodes.get(i).trim());
+            node.put("Metadata", Map.of("doc_name", "standin-" + (i + 1)));
+            nodeList.add(node);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("Code", "Success");
+        body.put("Data", Map.of("Nodes", nodeList));
+        body.put("Message", "success");
+        body.put("RequestId", UUID.randomUUID().toString());
+        body.put("Status", "200");
+        body.put("Success", true);
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType("application/json");
+        response.getWriter().write(objectMapper.writeValueAsString(body));
+    }
+}
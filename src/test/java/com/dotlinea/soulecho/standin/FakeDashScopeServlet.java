@@ -0,0 +1,139 @@
+package com.dotlinea.soulecho.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DashScope 文本生成接口替身
+ * <p>
+ * 兼容 {@code POST /api/v1/services/aigc/text-generation/generation} 的 HTTP SSE 协议，
+ * 按配置的首 Token 延迟和 Token 速率逐块返回固定回复，支持增量输出与全量输出两种模式。
+ * </p>
+ * <ul>
+ * <li>standin.llm.first-token-delay-ms：首 Token 延迟</li>
+ * <li>standin.llm.tokens-per-second：后续 Token 输出速率</li>
+ * <li>standin.llm.chars-per-token：每个 Token 的字符数</li>
+ * <li>standin.llm.reply：回复内容</li>
+ * </ul>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class FakeDashScopeServlet extends HttpServlet {
+
+    static final String PATH = "/api/v1/services/aigc/text-generation/generation";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final long firstTokenDelayMs;
+    private final double tokensPerSecond;
+    private final int charsPerToken;
+    private final String reply;
+
+    FakeDashScopeServlet(StandinConfig config) {
+        this.firstTokenDelayMs = config.getLong("standin.llm.first-token-delay-ms", 300);
+        this.tokensPerSecond = config.getDouble("standin.llm.tokens-per-second", 30);
+        this.charsPerToken = Math.max(1, config.getInt("standin.llm.chars-per-token", 2));
+        this.reply = config.getString("standin.llm.reply", "你好，我是本地替身模型。今天想聊点什么呢？");
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        JsonNode body = objectMapper.readTree(request.getInputStream());
+        boolean incremental = body.path("parameters").path("incremental_output").asBoolean(false);
+        boolean stream = "enable".equalsIgnoreCase(request.getHeader("X-DashScope-SSE"))
+            || String.valueOf(request.getHeader("Accept")).contains("text/event-stream");
+        int inputTokens = body.path("input").path("messages").toString().length() / 2;
+        String requestId = UUID.randomUUID().toString();
+        List<String> tokens = tokenize(reply);
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (!stream) {
+            sleep(firstTokenDelayMs + (long) (tokens.size() * 1000 / tokensPerSecond));
+            response.setContentType("application/json");
+            response.getWriter().write(objectMapper.writeValueAsString(
+                result(requestId, reply, "stop", inputTokens, tokens.size())));
+            return;
+        }
+
+        response.setContentType("text/event-stream");
+        response.setHeader("Cache-Control", "no-cache");
+        PrintWriter writer = response.getWriter();
+        long interval = (long) (1000 / tokensPerSecond);
+        StringBuilder generated = new StringBuilder();
+
+        sleep(firstTokenDelayMs);
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                sleep(interval);
+            }
+            generated.append(tokens.get(i));
+            boolean last = i == tokens.size() - 1;
+            Map<String, Object> event = result(requestId, incremental ? tokens.get(i) : generated.toString(),
+                last ? "stop" : "null", inputTokens, i + 1);
+            writer.write("id:" + (i + 1) + "\n");
+            writer.write("event:result\n");
+            writer.write(":HTTP_STATUS/200\n");
+            writer.write("data:" + objectMapper.writeValueAsString(event) + "\n\n");
+            writer.flush();
+            if (writer.checkError()) {
+                // 客户端已断开
+                return;
+            }
+        }
+    }
+
+    private Map<String, Object> result(String requestId, String content, String finishReason,
+                                       int inputTokens, int outputTokens) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("role", "assistant");
+        message.put("content", content);
+
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("finish_reason", finishReason);
+        choice.put("message", message);
+
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("input_tokens", inputTokens);
+        usage.put("output_tokens", outputTokens);
+        usage.put("total_tokens", inputTokens + outputTokens);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("output", Map.of("choices", List.of(choice)));
+        result.put("usage", usage);
+        result.put("request_id", requestId);
+        return result;
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += charsPerToken) {
+            tokens.add(text.substring(i, Math.min(text.length(), i + charsPerToken)));
+        }
+        return tokens;
+    }
+
+    static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.dotlinea.soulecho.standin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NLS WebSocket 网关替身
+ * <p>
+ * 实现 SpeechTranscriber 与 SpeechSynthesizer 使用的 JSON 指令协议，每条连接处理一个任务：
+ * <ul>
+ * <li>识别：StartTranscription → TranscriptionStarted；收到首个音频包后按延迟发送
+ *     SentenceBegin / TranscriptionResultChanged；StopTranscription 后按延迟发送 SentenceEnd 与
+ *     TranscriptionCompleted，识别结果为固定文本</li>
+ * <li>合成：StartSynthesis 后按首包延迟和合成倍速推送静音 PCM（时长与文本长度成正比），最后发送 SynthesisCompleted</li>
+ * </ul>
+ * 所有延迟通过共享调度器执行，不占用连接线程。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class FakeNlsGatewayEndpoint extends Endpoint {
+
+    static final String PATH = "/ws/v1";
+
+    private static final Logger logger = LoggerFactory.getLogger(FakeNlsGatewayEndpoint.class);
+
+    private static final int STATUS_SUCCESS = 20000000;
+
+    private static final String TRANSCRIBER = "SpeechTranscriber";
+    private static final String SYNTHESIZER = "SpeechSynthesizer";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long asrFirstResultDelayMs;
+    private final long asrFinalDelayMs;
+    private final String asrTranscript;
+    private final long ttsFirstByteDelayMs;
+    private final long ttsMillisPerChar;
+    private final double ttsSpeedFactor;
+    private final int ttsChunkMillis;
+
+    private Session session;
+    private String taskId;
+    private final AtomicBoolean audioStarted = new AtomicBoolean(false);
+    private final AtomicLong audioBytes = new AtomicLong();
+
+    FakeNlsGatewayEndpoint(StandinConfig config, ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        this.asrFirstResultDelayMs = config.getLong("standin.asr.first-result-delay-ms", 200);
+        this.asrFinalDelayMs = config.getLong("standin.asr.final-delay-ms", 300);
+        this.asrTranscript = config.getString("standin.asr.transcript", "你好，今天天气怎么样？");
+        this.ttsFirstByteDelayMs = config.getLong("standin.tts.first-byte-delay-ms", 150);
+        this.ttsMillisPerChar = config.getLong("standin.tts.millis-per-char", 200);
+        this.ttsSpeedFactor = Math.max(0.1, config.getDouble("standin.tts.speed-factor", 5.0));
+        this.ttsChunkMillis = Math.max(10, config.getInt("standin.tts.chunk-ms", 100));
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        this.session = session;
+        session.addMessageHandler(String.class, (MessageHandler.Whole<String>) this::onCommand);
+        session.addMessageHandler(ByteBuffer.class, (MessageHandler.Whole<ByteBuffer>) this::onAudio);
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        logger.debug("NLS 替身连接关闭: task={}, reason={}", taskId, closeReason);
+    }
+
+    private void onCommand(String text) {
+        try {
+            JsonNode command = objectMapper.readTree(text);
+            JsonNode header = command.path("header");
+            String name = header.path("name").asText();
+            taskId = header.path("task_id").asText(UUID.randomUUID().toString().replace("-", ""));
+
+            switch (name) {
+                case "StartTranscription" -> send(TRANSCRIBER, "TranscriptionStarted", Map.of("session_id", taskId));
+                case "StopTranscription" -> scheduler.schedule(this::completeTranscription,
+                    asrFinalDelayMs, TimeUnit.MILLISECONDS);
+                case "StartSynthesis" -> startSynthesis(command.path("payload"));
+                default -> logger.debug("NLS 替身忽略指令: {}", name);
+            }
+        } catch (Exception e) {
+            logger.warn("NLS 替身处理指令失败: {}", text, e);
+        }
+    }
+
+    private void onAudio(ByteBuffer audio) {
+        audioBytes.addAndGet(audio.remaining());
+        if (audioStarted.compareAndSet(false, true)) {
+            scheduler.schedule(() -> {
+                send(TRANSCRIBER, "SentenceBegin", sentence(""));
+                send(TRANSCRIBER, "TranscriptionResultChanged",
+                    sentence(asrTranscript.substring(0, Math.min(2, asrTranscript.length()))));
+            }, asrFirstResultDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void completeTranscription() {
+        send(TRANSCRIBER, "SentenceEnd", sentence(asrTranscript));
+        send(TRANSCRIBER, "TranscriptionCompleted", Map.of());
+    }
+
+    private Map<String, Object> sentence(String result) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("index", 1);
+        // 16kHz 16bit 单声道：32 字节/毫秒
+        payload.put("time", audioBytes.get() / 32);
+        payload.put("begin_time", 0);
+        payload.put("result", result);
+        payload.put("confidence", 0.95);
+        return payload;
+    }
+
+    private void startSynthesis(JsonNode payload) {
+        String text = payload.path("text").asText("");
+        int sampleRate = payload.path("sample_rate").asInt(16000);
+
+        long durationMs = Math.max(ttsChunkMillis, text.codePointCount(0, text.length()) * ttsMillisPerChar);
+        int chunkBytes = sampleRate * 2 * ttsChunkMillis / 1000;
+        long totalBytes = sampleRate * 2L * durationMs / 1000;
+        long chunkInterval = (long) (ttsChunkMillis / ttsSpeedFactor);
+
+        scheduler.schedule(() -> sendAudioChunk(totalBytes, chunkBytes, chunkInterval),
+            ttsFirstByteDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendAudioChunk(long remaining, int chunkBytes, long chunkInterval) {
+        if (!session.isOpen()) {
+            return;
+        }
+        int size = (int) Math.min(remaining, chunkBytes);
+        try {
+            synchronized (this) {
+                session.getBasicRemote().sendBinary(ByteBuffer.wrap(new byte[size]));
+            }
+        } catch (IOException e) {
+            logger.debug("NLS 替身发送音频失败: task={}", taskId, e);
+            return;
+        }
+        long left = remaining - size;
+        if (left > 0) {
+            scheduler.schedule(() -> sendAudioChunk(left, chunkBytes, chunkInterval),
+                chunkInterval, TimeUnit.MILLISECONDS);
+        } else {
+            send(SYNTHESIZER, "SynthesisCompleted", Map.of());
+        }
+    }
+
+    private void send(String namespace, String name, Map<String, Object> payload) {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("namespace", namespace);
+        header.put("name", name);
+        header.put("status", STATUS_SUCCESS);
+        header.put("status_text", "Gateway:SUCCESS:Success.");
+        header.put("message_id", UUID.randomUUID().toString().replace("-", ""));
+        header.put("task_id", taskId);
+
+        try {
+            String message = objectMapper.writeValueAsString(Map.of("header", header, "payload", payload));
+            synchronized (this) {
+                if (session.isOpen()) {
+                    session.getBasicRemote().sendText(message);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("NLS 替身发送 {} 失败: task={}", name, taskId, e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.dotlinea.soulecho.standin;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NLS Token 端点替身
+ * <p>
+ * 返回与 CreateToken 相同结构的 {@code {"Token":{"Id":...,"ExpireTime":...}}}，
+ * 供配置了 nls.token.endpoint 的 HttpNlsTokenFetcher 使用。
+ * </p>
+ * <ul>
+ * <li>standin.token.ttl-seconds：Token 有效期</li>
+ * </ul>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class FakeTokenServlet extends HttpServlet {
+
+    static final String PATH = "/token";
+
+    private final AtomicInteger issued = new AtomicInteger();
+
+    private final long ttlSeconds;
+
+    FakeTokenServlet(StandinConfig config) {
+        this.ttlSeconds = config.getLong("standin.token.ttl-seconds", 86400);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long expireTime = System.currentTimeMillis() / 1000 + ttlSeconds;
+        response.setContentType("application/json");
+        response.getWriter().write("{\"Token\":{\"Id\":\"standin-token-" + issued.incrementAndGet()
+            + "\",\"ExpireTime\":" + expireTime + "}}");
+    }
+}
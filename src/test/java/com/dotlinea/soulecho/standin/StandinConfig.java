@@ -0,0 +1,60 @@
+package com.dotlinea.soulecho.standin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * 本地替身服务配置
+ * <p>
+ * 先加载类路径下的 standin.properties，再用同名系统属性覆盖，
+ * 例如 {@code -Dstandin.llm.tokens-per-second=60}。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+final class StandinConfig {
+
+    private final Properties properties = new Properties();
+
+    private StandinConfig() {
+    }
+
+    static StandinConfig load() {
+        StandinConfig config = new StandinConfig();
+        try (InputStream in = StandinConfig.class.getResourceAsStream("/standin.properties")) {
+            if (in != null) {
+                config.properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("读取 standin.properties 失败", e);
+        }
+        System.getProperties().stringPropertyNames().stream()
+            .filter(name -> name.startsWith("standin."))
+            .forEach(name -> config.properties.setProperty(name, System.getProperty(name)));
+        return config;
+    }
+
+    String getString(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    long getLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value.trim());
+    }
+}
@@ -0,0 +1,126 @@
+package com.dotlinea.soulecho.standin;
+
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.websocket.server.WsSci;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * 本地上游替身服务
+ * <p>
+ * 在一个端口上同时提供 DashScope 流式文本生成、NLS 识别/合成 WebSocket 网关、百炼知识库检索与
+ * NLS Token 端点，使全链路压测和基准测试无需访问云服务。应用以 standin profile 启动即指向本服务：
+ * </p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.dotlinea.soulecho.standin.StandinServer
+ * SPRING_PROFILES_ACTIVE=standin mvn spring-boot:run
+ * </pre>
+ * <p>
+ * 延迟与速率在 standin.properties 中配置，可用 -Dstandin.xxx 覆盖。
+ * 替身不依赖 Spring 容器，也不使用组件注解，不会被应用的组件扫描加载。
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+public final class StandinServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(StandinServer.class);
+
+    private final StandinConfig config;
+
+    private final ScheduledExecutorService scheduler;
+
+    private Tomcat tomcat;
+
+    private StandinServer(StandinConfig config) {
+        this.config = config;
+        this.scheduler = Executors.newScheduledThreadPool(config.getInt("standin.scheduler-threads", 8));
+    }
+
+    public static void main(String[] args) throws Exception {
+        StandinServer server = new StandinServer(StandinConfig.load());
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.tomcat.getServer().await();
+    }
+
+    private void start() throws Exception {
+        int port = config.getInt("standin.port", 9090);
+        File baseDir = Files.createTempDirectory("soul-echo-standin").toFile();
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.getAbsolutePath());
+        tomcat.setPort(port);
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(config.getInt("standin.max-threads", 1000)));
+        tomcat.getConnector().setProperty("maxConnections", String.valueOf(config.getInt("standin.max-connections", 10000)));
+
+        Context context = tomcat.addContext("", baseDir.getAbsolutePath());
+        Tomcat.addServlet(context, "dashscope", new FakeDashScopeServlet(config));
+        context.addServletMappingDecoded(FakeDashScopeServlet.PATH, "dashscope");
+        Tomcat.addServlet(context, "token", new FakeTokenServlet(config));
+        context.addServletMappingDecoded(FakeTokenServlet.PATH, "token");
+        // 百炼检索路径包含 WorkspaceId，由默认 Servlet 按后缀匹配
+        Tomcat.addServlet(context, "bailian", new FakeBailianServlet(config));
+        context.addServletMappingDecoded("/", "bailian");
+
+        context.addServletContainerInitializer(new WsSci(), null);
+        // Context 接口只有 get/setApplicationLifecycleListeners，追加监听器需要 StandardContext
+        ((StandardContext) context).addApplicationLifecycleListener(new NlsGatewayRegistrar());
+
+        tomcat.start();
+        logger.info("本地替身服务已启动: http://localhost:{} （LLM {}，NLS ws://localhost:{}{}，Token {}）",
+            port, FakeDashScopeServlet.PATH, port, FakeNlsGatewayEndpoint.PATH, FakeTokenServlet.PATH);
+    }
+
+    private void stop() {
+        scheduler.shutdownNow();
+        try {
+            tomcat.stop();
+            tomcat.destroy();
+        } catch (LifecycleException e) {
+            logger.warn("关闭本地替身服务失败", e);
+        }
+    }
+
+    /**
+     * 在 WebSocket 容器初始化后注册 NLS 网关端点，每条连接创建一个端点实例
+     */
+    private final class NlsGatewayRegistrar implements ServletContextListener {
+
+        @Override
+        public void contextInitialized(ServletContextEvent event) {
+            ServerContainer container = (ServerContainer) event.getServletContext()
+                .getAttribute(ServerContainer.class.getName());
+            ServerEndpointConfig endpointConfig = ServerEndpointConfig.Builder
+                .create(FakeNlsGatewayEndpoint.class, FakeNlsGatewayEndpoint.PATH)
+                .configurator(new ServerEndpointConfig.Configurator() {
+                    @Override
+                    public <T> T getEndpointInstance(Class<T> endpointClass) {
+                        return endpointClass.cast(new FakeNlsGatewayEndpoint(config, scheduler));
+                    }
+                })
+                .build();
+            try {
+                container.addEndpoint(endpointConfig);
+            } catch (DeploymentException e) {
+                throw new IllegalStateException("注册 NLS 网关替身失败", e);
+            }
+        }
+    }
+}
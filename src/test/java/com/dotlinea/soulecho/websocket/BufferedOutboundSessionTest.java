@@ -0,0 +1,234 @@
+package com.dotlinea.soulecho.websocket;
+
+import com.dotlinea.soulecho.metrics.ChatMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BufferedOutboundSession 单元测试
+ * <p>
+ * 底层会话的 sendMessage 阻塞在闩锁上模拟慢客户端，验证业务线程不被阻塞、音频先于文本被丢弃、
+ * 写出回调在真正写出后执行、缓冲为空时超大帧仍能写出、文本溢出、写线程池拒绝或写出超时时关闭连接
+ * </p>
+ *
+ * @author fanfan187
+ * @version v1.0.0
+ * @since v1.0.0
+ */
+class BufferedOutboundSessionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<WebSocketMessage<?>> written = new CopyOnWriteArrayList<>();
+    private final List<CloseStatus> closed = new CopyOnWriteArrayList<>();
+    private final CountDownLatch clientReady = new CountDownLatch(1);
+
+    private ExecutorService writerExecutor;
+    private ThreadPoolTaskScheduler scheduler;
+    private BufferedOutboundSession session;
+
+    @BeforeEach
+    void setUp() {
+        writerExecutor = Executors.newSingleThreadExecutor();
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+        session = new BufferedOutboundSession(slowClient(), writerExecutor, scheduler, new ChatMetrics(meterRegistry),
+            60_000, 100, 40);
+    }
+
+    @AfterEach
+    void tearDown() {
+        clientReady.countDown();
+        writerExecutor.shutdownNow();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testSendDoesNotBlockAndKeepsOrder() throws Exception {
+        session.sendMessage(new TextMessage("a"));
+        session.sendMessage(new TextMessage("b"));
+        session.sendMessage(new TextMessage("c"));
+        assertTrue(written.isEmpty());
+
+        clientReady.countDown();
+        awaitWritten(3);
+
+        assertEquals(List.of("a", "b", "c"), written.stream().map(WebSocketMessage::getPayload).toList());
+        assertEquals(0, session.getBufferedBytes());
+    }
+
+    @Test
+    void testWriteCallbackRunsAfterSocketWrite() throws Exception {
+        CountDownLatch callback = new CountDownLatch(1);
+        session.sendMessage(new BinaryMessage(new byte[10]), callback::countDown);
+        // 写线程仍阻塞在慢客户端上，回调尚未执行
+        assertFalse(callback.await(50, TimeUnit.MILLISECONDS));
+
+        clientReady.countDown();
+        assertTrue(callback.await(2, TimeUnit.SECONDS));
+        assertEquals(1, written.size());
+    }
+
+    @Test
+    void testAudioShedBeforeText() throws Exception {
+        session.sendMessage(new BinaryMessage(new byte[30]));
+        // 缓冲超过 40 字节，音频开始丢弃
+        session.sendMessage(new BinaryMessage(new byte[30]));
+        session.sendMessage(new TextMessage("x".repeat(30)));
+        // 丢弃持续到队列清空
+        session.sendMessage(new BinaryMessage(new byte[1]));
+
+        clientReady.countDown();
+        awaitWritten(2);
+
+        assertInstanceOf(BinaryMessage.class, written.get(0));
+        assertInstanceOf(TextMessage.class, written.get(1));
+        assertEquals(31, meterRegistry.get("soulecho.ws.outbound.shed.bytes").counter().count());
+        assertTrue(session.isOpen());
+    }
+
+    @Test
+    void testFrameLargerThanThresholdIsAcceptedWhenIdle() throws Exception {
+        // 单句音频超过丢弃阈值与缓冲上限，缓冲为空时仍然写出
+        session.sendMessage(new BinaryMessage(new byte[150]));
+
+        clientReady.countDown();
+        awaitWritten(1);
+        awaitBufferedBytes(0);
+
+        // 积压写完后恢复接收音频
+        session.sendMessage(new BinaryMessage(new byte[150]));
+        awaitWritten(2);
+        assertTrue(meterRegistry.find("soulecho.ws.outbound.shed.bytes").counters().stream()
+            .allMatch(counter -> counter.count() == 0));
+        assertTrue(session.isOpen());
+    }
+
+    @Test
+    void testRejectedWriterClosesSession() throws Exception {
+        BufferedOutboundSession rejecting = new BufferedOutboundSession(slowClient(), task -> {
+            throw new RejectedExecutionException("saturated");
+        }, scheduler, new ChatMetrics(meterRegistry), 60_000, 100, 40);
+
+        rejecting.sendMessage(new TextMessage("ai-end"));
+
+        assertFalse(rejecting.isOpen());
+        // 写线程池拒绝时由调度器关闭底层会话
+        awaitClosed(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, meterRegistry.get("soulecho.ws.outbound.terminations")
+            .tag("reason", "writer-rejected").counter().count());
+    }
+
+    @Test
+    void testTextOverflowClosesSession() throws Exception {
+        session.sendMessage(new TextMessage("x".repeat(60)));
+        session.sendMessage(new TextMessage("y".repeat(60)));
+
+        assertFalse(session.isOpen());
+        // 底层 close 不在业务线程上执行，写线程仍卡在第一条消息上
+        assertTrue(closed.isEmpty());
+        clientReady.countDown();
+        awaitClosed(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, meterRegistry.get("soulecho.ws.outbound.terminations")
+            .tag("reason", "buffer-size-limit").counter().count());
+
+        // 关闭后的发送静默忽略
+        session.sendMessage(new TextMessage("z"));
+    }
+
+    @Test
+    void testStuckWriteClosesSessionWithoutFurtherSends() throws Exception {
+        // 写线程卡住时关闭任务由另一个写线程执行
+        ExecutorService pool = Executors.newCachedThreadPool();
+        BufferedOutboundSession stuck = new BufferedOutboundSession(slowClient(), pool, scheduler,
+            new ChatMetrics(meterRegistry), 50, 100, 40);
+
+        // 只发一条消息，之后不再入队，写出超时仍由调度器发现
+        stuck.sendMessage(new TextMessage("ai-end"));
+
+        awaitClosed(CloseStatus.SESSION_NOT_RELIABLE);
+        assertFalse(stuck.isOpen());
+        assertEquals(1, meterRegistry.get("soulecho.ws.outbound.terminations")
+            .tag("reason", "send-time-limit").counter().count());
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testCloseFlushesQueuedMessagesFirst() throws Exception {
+        session.sendMessage(new TextMessage("redirect"));
+        session.close(CloseStatus.NORMAL);
+        assertTrue(closed.isEmpty());
+
+        // 关闭请求之后的发送被忽略
+        session.sendMessage(new TextMessage("late"));
+
+        clientReady.countDown();
+        awaitWritten(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (closed.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of(CloseStatus.NORMAL), closed);
+        assertEquals("redirect", written.get(0).getPayload());
+    }
+
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (written.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, written.size());
+    }
+
+    private void awaitClosed(CloseStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (closed.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(List.of(status), closed);
+    }
+
+    private void awaitBufferedBytes(int bytes) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (session.getBufferedBytes() != bytes && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(bytes, session.getBufferedBytes());
+    }
+
+    private WebSocketSession slowClient() {
+        return (WebSocketSession) Proxy.newProxyInstance(WebSocketSession.class.getClassLoader(),
+            new Class<?>[]{WebSocketSession.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "sendMessage" -> {
+                    clientReady.await();
+                    written.add((WebSocketMessage<?>) args[0]);
+                    yield null;
+                }
+                case "close" -> {
+                    closed.add(args != null ? (CloseStatus) args[0] : CloseStatus.NORMAL);
+                    yield null;
+                }
+                case "isOpen" -> closed.isEmpty();
+                case "getId" -> "slow-client";
+                default -> null;
+            });
+    }
+}